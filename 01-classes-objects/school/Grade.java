@@ -0,0 +1,33 @@
+/**
+ * Letter grade for an exam score, on the A-F scale planned for the
+ * school-management-system. Each letter carries the label calculateGrade()
+ * returns: A Excellent (> 85), B Very Good (> 75), C Good (> 65),
+ * D Pass (>= 50) and F Failed.
+ */
+public enum Grade {
+
+    A("Excellent"),
+    B("Very Good"),
+    C("Good"),
+    D("Pass"),
+    F("Failed");
+
+    private final String label;
+
+    Grade(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isPassing() {
+        return this != F;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Table-driven score to Grade classification.
+ *
+ * A score is clamped to [0, 100] and mapped to a slot: two slots per
+ * whole point, one for the exact integer and one for the open interval
+ * above it, so "> 85" and ">= 50" stay exact without a comparison
+ * ladder. The table is built once from the thresholds below.
+ */
+public final class GradeClassifier {
+
+    public static final double MAX_SCORE = 100;
+
+    private static final Grade[] TABLE = buildTable();
+
+    private GradeClassifier() {
+    }
+
+    // ==================== Single Score ====================
+
+    public static Grade classify(double score) {
+        return TABLE[slot(clamp(score))];
+    }
+
+    /** Adds the bonus and caps the result at 100 before classifying. */
+    public static Grade classify(double score, double bonus) {
+        return TABLE[slot(clamp(score + bonus))];
+    }
+
+    // ==================== Batch ====================
+
+    /**
+     * Classifies every score into out[i]. bonus may be null for no bonus;
+     * otherwise it must be at least as long as scores.
+     */
+    public static void classify(double[] scores, double[] bonus, Grade[] out) {
+        classify(scores, bonus, out, 0, scores.length);
+    }
+
+    public static void classify(double[] scores, double[] bonus, Grade[] out, int from, int to) {
+        if (from < 0 || to > scores.length || to > out.length || from > to
+                || (bonus != null && to > bonus.length)) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ")");
+        }
+        Grade[] table = TABLE;
+        if (bonus == null) {
+            for (int i = from; i < to; i++) {
+                out[i] = table[slot(clamp(scores[i]))];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                out[i] = table[slot(clamp(scores[i] + bonus[i]))];
+            }
+        }
+    }
+
+    /** Number of scores per grade, indexed by Grade.ordinal(). */
+    public static int[] histogram(double[] scores, double[] bonus) {
+        int[] counts = new int[Grade.values().length];
+        Grade[] table = TABLE;
+        for (int i = 0; i < scores.length; i++) {
+            double score = bonus == null ? scores[i] : scores[i] + bonus[i];
+            counts[table[slot(clamp(score))].ordinal()]++;
+        }
+        return counts;
+    }
+
+    // ==================== Table ====================
+
+    /** NaN maps to 0 like the if-chain, which fails every comparison. */
+    private static double clamp(double score) {
+        double low = score > 0 ? score : 0;
+        return low < MAX_SCORE ? low : MAX_SCORE;
+    }
+
+    /** 2 * floor(score), plus one when score is above that integer. */
+    private static int slot(double score) {
+        int whole = (int) score;
+        return (whole << 1) + (score > whole ? 1 : 0);
+    }
+
+    private static Grade[] buildTable() {
+        int points = (int) MAX_SCORE;
+        Grade[] table = new Grade[(points << 1) + 1];
+        for (int whole = 0; whole <= points; whole++) {
+            table[whole << 1] = threshold(whole);
+            if (whole < points) {
+                // all thresholds are whole numbers, so one midpoint stands for the open interval
+                table[(whole << 1) + 1] = threshold(whole + 0.5);
+            }
+        }
+        return table;
+    }
+
+    private static Grade threshold(double score) {
+        if (score > 85) {
+            return Grade.A;
+        } else if (score > 75) {
+            return Grade.B;
+        } else if (score > 65) {
+            return Grade.C;
+        } else if (score >= 50) {
+            return Grade.D;
+        }
+        return Grade.F;
+    }
+}
@@ -40,51 +40,17 @@ public class Student {
 
     // Version 1: بدون parameters - تستخدم this.grade
     String calculateGrade() {
-        if (grade > 85) {
-            return "Excellent";
-        } else if (grade > 75) {
-            return "Very Good";
-        } else if (grade > 65) {
-            return "Good";
-        } else if (grade >= 50) {
-            return "Pass";
-        } else {
-            return "Failed";
-        }
+        return GradeClassifier.classify(grade).getLabel();
     }
 
     // Version 2: تستقبل grade كـ parameter
     String calculateGrade(double grade) {
-        if (grade > 85) {
-            return "Excellent";
-        } else if (grade > 75) {
-            return "Very Good";
-        } else if (grade > 65) {
-            return "Good";
-        } else if (grade >= 50) {
-            return "Pass";
-        } else {
-            return "Failed";
-        }
+        return GradeClassifier.classify(grade).getLabel();
     }
 
-    // Version 3: تستقبل grade و bonus
+    // Version 3: تستقبل grade و bonus (الحد الأقصى 100)
     String calculateGrade(double grade, double bonus) {
-        double finalGrade = grade + bonus;
-        if (finalGrade > 100) {
-            finalGrade = 100;
-        }
-        if (finalGrade > 85) {
-            return "Excellent";
-        } else if (finalGrade > 75) {
-            return "Very Good";
-        } else if (finalGrade > 65) {
-            return "Good";
-        } else if (finalGrade >= 50) {
-            return "Pass";
-        } else {
-            return "Failed";
-        }
+        return GradeClassifier.classify(grade, bonus).getLabel();
     }
 
     // ==================== Using 'this' Keyword ====================
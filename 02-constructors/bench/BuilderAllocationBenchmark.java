@@ -0,0 +1,76 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated per Student built through Student.Builder, measured
+ * with the thread's allocation counter. Every mode keeps the students in a
+ * preallocated array, so the Student and its id String count in all of
+ * them; the differences come from the builder itself.
+ *
+ *   fresh    new Builder() for every student
+ *   reused   one builder, reset() between students
+ *   batch    buildAll() from column arrays
+ *
+ *   java -cp out BuilderAllocationBenchmark [students]
+ */
+public class BuilderAllocationBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final String[] MAJORS = {"Computer Science", "Mathematics", "Physics", "Medicine", "Law"};
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] names = new String[size];
+        int[] ages = new int[size];
+        String[] majors = new String[size];
+        double[] gpas = new double[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "Student " + (i % 1000);
+            ages[i] = 18 + i % 10;
+            majors[i] = MAJORS[i % MAJORS.length];
+            gpas[i] = (i % 401) / 100.0;
+        }
+        Student[] out = new Student[size];
+
+        System.out.printf("%,d students, best of %d%n", size, ROUNDS);
+        System.out.printf("%-8s %12s %10s%n", "mode", "bytes/obj", "ns/obj");
+        for (String mode : new String[]{"fresh", "reused", "batch"}) {
+            double bestBytes = Double.MAX_VALUE;
+            double bestNanos = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = allocatedBytes();
+                long start = System.nanoTime();
+                build(mode, names, ages, majors, gpas, out);
+                long nanos = System.nanoTime() - start;
+                long bytes = allocatedBytes() - before;
+                bestBytes = Math.min(bestBytes, (double) bytes / size);
+                bestNanos = Math.min(bestNanos, (double) nanos / size);
+            }
+            System.out.printf("%-8s %12.1f %10.1f%n", mode, bestBytes, bestNanos);
+        }
+        System.out.println("students counted: " + Student.getCount());
+    }
+
+    private static void build(String mode, String[] names, int[] ages, String[] majors, double[] gpas,
+                              Student[] out) {
+        switch (mode) {
+            case "fresh":
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = new Student.Builder().name(names[i]).age(ages[i]).major(majors[i]).gpa(gpas[i]).build();
+                }
+                break;
+            case "reused":
+                Student.Builder builder = new Student.Builder();
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = builder.reset().name(names[i]).age(ages[i]).major(majors[i]).gpa(gpas[i]).build();
+                }
+                break;
+            default:
+                new Student.Builder().buildAll(out.length, names, ages, majors, gpas, out, 0);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,97 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * IdAllocator against a shared AtomicLong, with many threads allocating at
+ * once. Every thread takes the same number of ids; the score is total ids
+ * per second over the slowest thread, plus bytes allocated per id.
+ *
+ *   atomic       AtomicLong.incrementAndGet()
+ *   leased       IdAllocator.next()
+ *   atomic.fmt   AtomicLong plus String.format("STU%06d")
+ *   leased.fmt   IdAllocator.nextId("STU")
+ *
+ *   java -cp out IdAllocatorBenchmark [threads] [idsPerThread]
+ */
+public class IdAllocatorBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%d threads x %,d ids, best of %d%n", threads, perThread, ROUNDS);
+        System.out.printf("%-12s %14s %12s%n", "benchmark", "Mids/s", "bytes/id");
+        AtomicLong counter = new AtomicLong();
+        run("atomic", threads, perThread, () -> counter::incrementAndGet);
+        IdAllocator allocator = IdAllocator.inMemory();
+        run("leased", threads, perThread, () -> allocator::next);
+        AtomicLong formatted = new AtomicLong();
+        run("atomic.fmt", threads, perThread,
+                () -> () -> String.format("STU%06d", formatted.incrementAndGet()).length());
+        IdAllocator formatting = IdAllocator.inMemory();
+        run("leased.fmt", threads, perThread,
+                () -> () -> formatting.nextId(IdAllocator.STUDENT_PREFIX).length());
+    }
+
+    private static void run(String name, int threads, int perThread, Supplier<LongSupplier> body)
+            throws InterruptedException {
+        double best = 0;
+        double bytesPerId = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] allocated = new long[threads];
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int index = t;
+                LongSupplier op = body.get();
+                workers[t] = new Thread(() -> {
+                    ready.countDown();
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long before = allocatedBytes();
+                    long checksum = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        checksum += op.getAsLong();
+                    }
+                    allocated[index] = allocatedBytes() - before;
+                    sink = checksum;
+                });
+                workers[t].start();
+            }
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            double rate = (double) threads * perThread / elapsed * 1e3;
+            if (rate > best) {
+                best = rate;
+                long total = 0;
+                for (long bytes : allocated) {
+                    total += bytes;
+                }
+                bytesPerId = (double) total / ((long) threads * perThread);
+            }
+        }
+        System.out.printf("%-12s %14.1f %12.1f%n", name, best, bytesPerId);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe id allocator that leases blocks of ids to each thread.
+ *
+ * A thread takes ids from its own block without any shared write, and only
+ * goes back to the central sequence once per blockSize ids. With a state
+ * file, the allocator persists a high-water mark a few blocks ahead of the
+ * sequence before handing any of them out; after a restart it continues
+ * from that mark, so ids are never reused. Ids left in a block when a
+ * thread dies or the process stops are skipped, not reissued.
+ *
+ *   IdAllocator ids = IdAllocator.open(Path.of("student-ids.state"));
+ *   String id = ids.nextId(IdAllocator.STUDENT_PREFIX);   // "STU000123"
+ */
+public final class IdAllocator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+    public static final String STUDENT_PREFIX = "STU";
+    public static final String EMPLOYEE_PREFIX = "EMP";
+    /** Digits after the prefix; larger ids simply get more digits. */
+    public static final int ID_DIGITS = 6;
+
+    /** Blocks reserved per write of the state file. */
+    private static final int RESERVED_BLOCKS = 64;
+    private static final int MAX_ID_LENGTH = 40;
+
+    private final AtomicLong sequence;
+    private final int blockSize;
+    private final Path state;
+    private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+    /** Ids below this are covered by the state file. */
+    private volatile long durable;
+
+    private IdAllocator(long first, int blockSize, Path state) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        if (first < 0) {
+            throw new IllegalArgumentException("First id must not be negative: " + first);
+        }
+        this.sequence = new AtomicLong(first);
+        this.blockSize = blockSize;
+        this.state = state;
+        this.durable = state == null ? Long.MAX_VALUE : first;
+    }
+
+    /** Allocator that starts at 1 and forgets its position on restart. */
+    public static IdAllocator inMemory() {
+        return inMemory(1, DEFAULT_BLOCK_SIZE);
+    }
+
+    public static IdAllocator inMemory(long first, int blockSize) {
+        return new IdAllocator(first, blockSize, null);
+    }
+
+    public static IdAllocator open(Path state) throws IOException {
+        return open(state, DEFAULT_BLOCK_SIZE);
+    }
+
+    /** Continues from the high-water mark in state, or starts at 1 if the file does not exist. */
+    public static IdAllocator open(Path state, int blockSize) throws IOException {
+        long first = 1;
+        if (Files.exists(state)) {
+            String text = Files.readString(state, StandardCharsets.US_ASCII).trim();
+            try {
+                first = Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                throw new IOException("Corrupt id state in " + state + ": " + text, e);
+            }
+        }
+        return new IdAllocator(first, blockSize, state);
+    }
+
+    // ==================== Allocation ====================
+
+    public long next() {
+        Lease lease = leases.get();
+        if (lease.next == lease.end) {
+            refill(lease);
+        }
+        return lease.next++;
+    }
+
+    /** Next id formatted as prefix plus at least ID_DIGITS zero-padded digits. */
+    public String nextId(String prefix) {
+        Lease lease = leases.get();
+        if (lease.next == lease.end) {
+            refill(lease);
+        }
+        long id = lease.next++;
+        char[] chars = lease.chars;
+        int length = format(chars, prefix, id, ID_DIGITS);
+        return new String(chars, 0, length);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /** First id not yet leased to any thread. */
+    public long peekSequence() {
+        return sequence.get();
+    }
+
+    private void refill(Lease lease) {
+        long start = sequence.getAndAdd(blockSize);
+        long end = start + blockSize;
+        if (end > durable) {
+            persistThrough(end);
+        }
+        lease.next = start;
+        lease.end = end;
+    }
+
+    private synchronized void persistThrough(long end) {
+        if (end <= durable) {
+            return;
+        }
+        long mark = end + (long) RESERVED_BLOCKS * blockSize;
+        try {
+            writeState(mark);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist id high-water mark to " + state, e);
+        }
+        durable = mark;
+    }
+
+    /** Writes a temporary file, forces it to disk, then moves it over the state file. */
+    private void writeState(long mark) throws IOException {
+        Path temp = state.resolveSibling(state.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((mark + "\n").getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, state, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** One thread's block [next, end) and its scratch buffer for formatting. */
+    private static final class Lease {
+        long next;
+        long end;
+        final char[] chars = new char[MAX_ID_LENGTH];
+    }
+
+    // ==================== Formatting ====================
+
+    public static String format(String prefix, long id) {
+        char[] chars = new char[prefix.length() + 19];  // 19 digits fit any long
+        return new String(chars, 0, format(chars, prefix, id, ID_DIGITS));
+    }
+
+    /** Appends prefix and the zero-padded id without creating any intermediate String. */
+    public static StringBuilder appendId(StringBuilder out, String prefix, long id, int digits) {
+        out.append(prefix);
+        for (int i = digitCount(id); i < digits; i++) {
+            out.append('0');
+        }
+        return out.append(id);
+    }
+
+    /**
+     * Writes prefix and the id, zero-padded to digits, at the start of out
+     * and returns the number of chars written.
+     */
+    public static int format(char[] out, String prefix, long id, int digits) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        int prefixLength = prefix.length();
+        int length = prefixLength + Math.max(digits, digitCount(id));
+        if (length > out.length) {
+            throw new IllegalArgumentException("Id does not fit in " + out.length + " chars");
+        }
+        prefix.getChars(0, prefixLength, out, 0);
+        for (int i = length - 1; i >= prefixLength; i--) {
+            out[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return length;
+    }
+
+    private static int digitCount(long id) {
+        int count = 1;
+        while (id >= 10) {
+            id /= 10;
+            count++;
+        }
+        return count;
+    }
+}
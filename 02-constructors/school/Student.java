@@ -1,9 +1,14 @@
+import java.util.concurrent.atomic.LongAdder;
+
 public class Student {
     private String name;
     private int age;
     private String major;
     private double gpa;
-public static int count = 0;
+    private String studentId;
+    // count++ على static int بيضيع لما كذا thread يعملوا Student في نفس الوقت
+    private static final LongAdder count = new LongAdder();
+    private static volatile IdAllocator ids = IdAllocator.inMemory();
     // ============================================
     // Constructor Chaining Example
     // ============================================
@@ -14,7 +19,7 @@ public static int count = 0;
         this.age = age;
         this.major = major;
         this.gpa = gpa;
-        count++;  // ← كل student جديد هيتحسب
+        register();  // ← كل student جديد هيتحسب وياخد ID
         System.out.println("Full constructor called");
     }
 
@@ -40,6 +45,7 @@ public static int count = 0;
 
     // Method لعرض البيانات
     public void display() {
+        System.out.println("ID: " + studentId);
         System.out.println("Name: " + name);
         System.out.println("Age: " + age);
         System.out.println("Major: " + major);
@@ -51,7 +57,7 @@ public static int count = 0;
         this.age = other.age;
         this.major = other.major;
         this.gpa = other.gpa;
-        count++;
+        register();  // النسخة student جديد ليه ID جديد
     }
 
     // ### Exercise 4: Validation in Constructor
@@ -59,7 +65,7 @@ public static int count = 0;
         this.age = age;
         this.major = major;
         this.gpa= gpa;
-        count++;
+        register();
         if(age < 18){
             System.out.println("Age: " + age + " is less than 18");
             this.age = 18;
@@ -79,7 +85,21 @@ public static int count = 0;
         System.out.println("Default constructor called");
     }
     public static int getCount() {
-        return count;
+        return count.intValue();
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    // IDs زي STU000123 من IdAllocator، ممكن نديله allocator بيحفظ آخر ID على الديسك
+    public static void useIdAllocator(IdAllocator allocator) {
+        ids = allocator;
+    }
+
+    private void register() {
+        studentId = ids.nextId(IdAllocator.STUDENT_PREFIX);
+        count.increment();
     }
 
     // ============================================
@@ -92,16 +112,39 @@ public static int count = 0;
         this.age = builder.age;
         this.major = builder.major;
         this.gpa = builder.gpa;
-        count++;
+        register();
+    }
+
+    // للـ batch: الـ ID جاي جاهز والعدّ بيتعمل مرة واحدة للـ batch كله
+    private Student(String name, int age, String major, double gpa, String studentId) {
+        this.name = name;
+        this.age = age;
+        this.major = major;
+        this.gpa = gpa;
+        this.studentId = studentId;
     }
 
     // Static Inner Class
     public static class Builder {
         // نفس الـ fields + default values
-        private String name = "Unknown";
-        private int age = 18;
-        private String major = "Undeclared";
-        private double gpa = 0.0;
+        private String name = DEFAULT_NAME;
+        private int age = DEFAULT_AGE;
+        private String major = DEFAULT_MAJOR;
+        private double gpa = DEFAULT_GPA;
+
+        private static final String DEFAULT_NAME = "Unknown";
+        private static final int DEFAULT_AGE = 18;
+        private static final String DEFAULT_MAJOR = "Undeclared";
+        private static final double DEFAULT_GPA = 0.0;
+
+        // يرجّع الـ default values علشان نستخدم نفس الـ builder لكل record
+        public Builder reset() {
+            this.name = DEFAULT_NAME;
+            this.age = DEFAULT_AGE;
+            this.major = DEFAULT_MAJOR;
+            this.gpa = DEFAULT_GPA;
+            return this;
+        }
 
         // كل method بتحدد قيمة وبترجع this
         public Builder name(String name) {
@@ -128,6 +171,38 @@ public static int count = 0;
         public Student build() {
             return new Student(this);
         }
+
+        /**
+         * Builds rows students into out[offset..offset + rows), one per index
+         * of the column arrays. A null column takes this builder's current
+         * value for every row. Counts all of them with a single add.
+         */
+        public int buildAll(int rows, String[] names, int[] ages, String[] majors, double[] gpas,
+                            Student[] out, int offset) {
+            if (rows < 0 || offset < 0 || offset > out.length - rows) {
+                throw new IndexOutOfBoundsException("Cannot build " + rows + " students at " + offset
+                        + " into an array of " + out.length);
+            }
+            if ((names != null && names.length < rows) || (ages != null && ages.length < rows)
+                    || (majors != null && majors.length < rows) || (gpas != null && gpas.length < rows)) {
+                throw new IllegalArgumentException("Every column needs at least " + rows + " values");
+            }
+            IdAllocator allocator = ids;
+            int built = 0;
+            try {
+                for (; built < rows; built++) {
+                    out[offset + built] = new Student(
+                            names == null ? name : names[built],
+                            ages == null ? age : ages[built],
+                            majors == null ? major : majors[built],
+                            gpas == null ? gpa : gpas[built],
+                            allocator.nextId(IdAllocator.STUDENT_PREFIX));
+                }
+            } finally {
+                count.add(built);  // حتى لو وقفنا في النص، اللي اتبنى اتحسب
+            }
+            return built;
+        }
     }
 
 
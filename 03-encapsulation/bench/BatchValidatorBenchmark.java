@@ -0,0 +1,163 @@
+import java.util.Random;
+
+/**
+ * BatchValidator against the Student and Teacher setters it mirrors.
+ *
+ * First every row of a random batch (nulls, empty strings, NaN, infinities,
+ * out-of-range numbers, wrong id prefixes) is pushed through the setters of
+ * an object that already holds valid values; a field whose value did not
+ * stick was rejected by its setter. Those rejections must match the
+ * report's bits exactly. Then validate() is timed on the same batch.
+ *
+ *   java -cp out BatchValidatorBenchmark [rows] [rounds]
+ *
+ * Exits with status 1 if any row disagrees with the setters.
+ */
+public class BatchValidatorBenchmark {
+
+    private static final String[] TEXT = {null, "", "Ahmed", "Sara Ali", " ", "Data Science", "x"};
+    private static final String[] IDS = {null, "", "STU", "STU0042", "stu0042", "EMP", "EMP0042", "XSTU1", "EMPSTU"};
+    private static final double[] SPECIAL = {
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.0, -0.0, 4.0, 4.0000001, -1e-9
+    };
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random(42);
+
+        RecordBatch students = new RecordBatch(rows)
+                .strings(BatchValidator.NAME, strings(random, TEXT, rows))
+                .ints(BatchValidator.AGE, ints(random, rows))
+                .doubles(BatchValidator.GPA, doubles(random, rows, 5))
+                .strings(BatchValidator.STUDENT_ID, strings(random, IDS, rows));
+        RecordBatch teachers = new RecordBatch(rows)
+                .strings(BatchValidator.NAME, strings(random, TEXT, rows))
+                .ints(BatchValidator.AGE, ints(random, rows))
+                .strings(BatchValidator.EMPLOYEE_ID, strings(random, IDS, rows))
+                .strings(BatchValidator.SUBJECT, strings(random, TEXT, rows))
+                .doubles(BatchValidator.SALARY, doubles(random, rows, 20_000));
+
+        BatchValidator studentRules = BatchValidator.students();
+        BatchValidator teacherRules = BatchValidator.teachers();
+        long mismatches = checkStudents(students, studentRules.validate(students))
+                + checkTeachers(teachers, teacherRules.validate(teachers));
+        System.out.printf("%,d rows each, %,d mismatches against the setters%n", rows, mismatches);
+
+        System.out.printf("%-10s %12s %10s%n", "batch", "Mrows/s", "invalid");
+        time("students", studentRules, students, rounds);
+        time("teachers", teacherRules, teachers, rounds);
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== Equivalence ====================
+
+    private static long checkStudents(RecordBatch batch, ValidationReport report) {
+        String[] names = batch.column(BatchValidator.NAME, String[].class);
+        int[] ages = batch.column(BatchValidator.AGE, int[].class);
+        double[] gpas = batch.column(BatchValidator.GPA, double[].class);
+        String[] ids = batch.column(BatchValidator.STUDENT_ID, String[].class);
+        long mismatches = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            Student student = new Student("Valid", 20, "STU1", 2.0);
+            student.setName(names[row]);
+            student.setAge(ages[row]);
+            student.setGpa(gpas[row]);
+            student.setStudentId(ids[row]);
+            int rejected = 0;
+            rejected |= bit(report, BatchValidator.NAME, student.getName() != names[row]);
+            rejected |= bit(report, BatchValidator.AGE, student.getAge() != ages[row]);
+            rejected |= bit(report, BatchValidator.GPA, Double.compare(student.getGpa(), gpas[row]) != 0);
+            rejected |= bit(report, BatchValidator.STUDENT_ID, student.getStudentId() != ids[row]);
+            mismatches += mismatch(row, rejected, report);
+        }
+        return mismatches;
+    }
+
+    private static long checkTeachers(RecordBatch batch, ValidationReport report) {
+        String[] names = batch.column(BatchValidator.NAME, String[].class);
+        int[] ages = batch.column(BatchValidator.AGE, int[].class);
+        String[] ids = batch.column(BatchValidator.EMPLOYEE_ID, String[].class);
+        String[] subjects = batch.column(BatchValidator.SUBJECT, String[].class);
+        double[] salaries = batch.column(BatchValidator.SALARY, double[].class);
+        long mismatches = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            Teacher teacher = new Teacher("Valid", 30, "EMP1", "Valid", 1000);
+            teacher.setName(names[row]);
+            teacher.setAge(ages[row]);
+            teacher.setEmployeeId(ids[row]);
+            teacher.setSubject(subjects[row]);
+            teacher.setSalary(salaries[row]);
+            int rejected = 0;
+            rejected |= bit(report, BatchValidator.NAME, teacher.getName() != names[row]);
+            rejected |= bit(report, BatchValidator.AGE, teacher.getAge() != ages[row]);
+            rejected |= bit(report, BatchValidator.EMPLOYEE_ID, teacher.getEmployeeId() != ids[row]);
+            rejected |= bit(report, BatchValidator.SUBJECT, teacher.getSubject() != subjects[row]);
+            rejected |= bit(report, BatchValidator.SALARY, Double.compare(teacher.getSalary(), salaries[row]) != 0);
+            mismatches += mismatch(row, rejected, report);
+        }
+        return mismatches;
+    }
+
+    private static int bit(ValidationReport report, String rule, boolean rejected) {
+        return rejected ? report.mask(rule) : 0;
+    }
+
+    private static int mismatch(int row, int rejected, ValidationReport report) {
+        if (rejected == report.errors(row)) {
+            return 0;
+        }
+        System.out.printf("row %d: setters rejected %s, validator reported %s%n",
+                row, Integer.toBinaryString(rejected), report.describe(row));
+        return 1;
+    }
+
+    // ==================== Timing ====================
+
+    private static void time(String label, BatchValidator rules, RecordBatch batch, int rounds) {
+        long best = Long.MAX_VALUE;
+        int invalid = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            ValidationReport report = rules.validate(batch);
+            best = Math.min(best, System.nanoTime() - start);
+            invalid = report.invalidCount();
+        }
+        sink = invalid;
+        System.out.printf("%-10s %12.1f %10d%n", label, batch.size() / (best / 1e3), invalid);
+    }
+
+    // ==================== Data ====================
+
+    private static String[] strings(Random random, String[] pool, int rows) {
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            String value = pool[random.nextInt(pool.length)];
+            // copies, so the reference checks above see the setter keep this exact string
+            values[i] = value == null ? null : new String(value);
+        }
+        return values;
+    }
+
+    private static int[] ints(Random random, int rows) {
+        int[] values = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = random.nextInt(8) == 0 ? random.nextInt() : random.nextInt(130) - 10;
+        }
+        return values;
+    }
+
+    private static double[] doubles(Random random, int rows, double scale) {
+        double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = random.nextInt(8) == 0
+                    ? SPECIAL[random.nextInt(SPECIAL.length)]
+                    : (random.nextDouble() * 1.5 - 0.25) * scale;
+        }
+        return values;
+    }
+}
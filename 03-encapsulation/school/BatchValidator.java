@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Runs field rules over a RecordBatch in parallel and reports, per row, a
+ * bitmask of the rules that row breaks. Nothing is built or rejected here;
+ * callers construct objects only from the rows the report marks valid,
+ * instead of letting a setter silently drop the value.
+ *
+ * Each rule gets the next bit in the order it is added, up to 32. Rows are
+ * split into chunks across a ForkJoinPool and every chunk runs each rule
+ * column by column, so a rule's loop stays on one array. Configure a
+ * validator once and share it; validate() may then be called concurrently.
+ *
+ *   ValidationReport report = BatchValidator.students().validate(batch);
+ */
+public final class BatchValidator {
+
+    // Column names used by students() and teachers(), after the setter they mirror
+    public static final String NAME = "name";
+    public static final String AGE = "age";
+    public static final String GPA = "gpa";
+    public static final String STUDENT_ID = "studentId";
+    public static final String EMPLOYEE_ID = "employeeId";
+    public static final String SUBJECT = "subject";
+    public static final String SALARY = "salary";
+
+    public static final int MAX_RULES = Integer.SIZE;
+
+    /** Rows per task; small enough that a chunk's columns stay in cache. */
+    private static final int CHUNK = 8192;
+
+    private final List<Check> checks = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    public BatchValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Student setter rules: name, age 5-100, gpa 0.0-4.0, id starting with STU. */
+    public static BatchValidator students() {
+        return new BatchValidator()
+                .stringRule(NAME, NAME, FieldRules::isValidName)
+                .intRule(AGE, AGE, FieldRules::isValidStudentAge)
+                .doubleRule(GPA, GPA, FieldRules::isValidGpa)
+                .stringRule(STUDENT_ID, STUDENT_ID, FieldRules::isValidStudentId);
+    }
+
+    /** Teacher setter rules: name, age 21-70, id starting with EMP, subject, positive salary. */
+    public static BatchValidator teachers() {
+        return new BatchValidator()
+                .stringRule(NAME, NAME, FieldRules::isValidName)
+                .intRule(AGE, AGE, FieldRules::isValidTeacherAge)
+                .stringRule(EMPLOYEE_ID, EMPLOYEE_ID, FieldRules::isValidEmployeeId)
+                .stringRule(SUBJECT, SUBJECT, FieldRules::isValidSubject)
+                .doubleRule(SALARY, SALARY, FieldRules::isValidSalary);
+    }
+
+    // ==================== Rules ====================
+
+    public BatchValidator stringRule(String rule, String column, Predicate<String> valid) {
+        return add(new StringCheck(rule, column, checks.size(), valid));
+    }
+
+    public BatchValidator intRule(String rule, String column, IntPredicate valid) {
+        return add(new IntCheck(rule, column, checks.size(), valid));
+    }
+
+    public BatchValidator doubleRule(String rule, String column, DoublePredicate valid) {
+        return add(new DoubleCheck(rule, column, checks.size(), valid));
+    }
+
+    /** Names of the rules, indexed by bit position. */
+    public String[] rules() {
+        String[] rules = new String[checks.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = checks.get(i).rule;
+        }
+        return rules;
+    }
+
+    private BatchValidator add(Check check) {
+        if (checks.size() == MAX_RULES) {
+            throw new IllegalStateException("At most " + MAX_RULES + " rules per validator");
+        }
+        for (Check existing : checks) {
+            if (existing.rule.equals(check.rule)) {
+                throw new IllegalArgumentException("Duplicate rule: " + check.rule);
+            }
+        }
+        checks.add(check);
+        return this;
+    }
+
+    // ==================== Validation ====================
+
+    public ValidationReport validate(RecordBatch batch) {
+        Check[] checks = this.checks.toArray(new Check[0]);
+        Object[] columns = new Object[checks.length];
+        for (int i = 0; i < checks.length; i++) {
+            columns[i] = checks[i].column(batch);
+        }
+        int[] errors = new int[batch.size()];
+        ValidateTask task = new ValidateTask(checks, columns, errors, 0, errors.length);
+        if (errors.length <= CHUNK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new ValidationReport(rules(), errors);
+    }
+
+    private static final class ValidateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Check[] checks;
+        private final Object[] columns;
+        private final int[] errors;
+        private final int from;
+        private final int to;
+
+        ValidateTask(Check[] checks, Object[] columns, int[] errors, int from, int to) {
+            this.checks = checks;
+            this.columns = columns;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                for (int i = 0; i < checks.length; i++) {
+                    checks[i].run(columns[i], errors, from, to);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidateTask(checks, columns, errors, from, middle),
+                    new ValidateTask(checks, columns, errors, middle, to));
+        }
+    }
+
+    // ==================== Checks ====================
+
+    private abstract static class Check {
+        final String rule;
+        final String column;
+        final int mask;
+
+        Check(String rule, String column, int bit) {
+            this.rule = rule;
+            this.column = column;
+            this.mask = 1 << bit;
+        }
+
+        abstract Object column(RecordBatch batch);
+
+        /** Sets this rule's bit in errors[i] for every row in [from, to) that fails it. */
+        abstract void run(Object values, int[] errors, int from, int to);
+    }
+
+    private static final class StringCheck extends Check {
+        private final Predicate<String> valid;
+
+        StringCheck(String rule, String column, int bit, Predicate<String> valid) {
+            super(rule, column, bit);
+            this.valid = valid;
+        }
+
+        @Override
+        Object column(RecordBatch batch) {
+            return batch.column(column, String[].class);
+        }
+
+        @Override
+        void run(Object values, int[] errors, int from, int to) {
+            String[] strings = (String[]) values;
+            Predicate<String> valid = this.valid;
+            int mask = this.mask;
+            for (int i = from; i < to; i++) {
+                if (!valid.test(strings[i])) {
+                    errors[i] |= mask;
+                }
+            }
+        }
+    }
+
+    private static final class IntCheck extends Check {
+        private final IntPredicate valid;
+
+        IntCheck(String rule, String column, int bit, IntPredicate valid) {
+            super(rule, column, bit);
+            this.valid = valid;
+        }
+
+        @Override
+        Object column(RecordBatch batch) {
+            return batch.column(column, int[].class);
+        }
+
+        @Override
+        void run(Object values, int[] errors, int from, int to) {
+            int[] ints = (int[]) values;
+            IntPredicate valid = this.valid;
+            int mask = this.mask;
+            for (int i = from; i < to; i++) {
+                if (!valid.test(ints[i])) {
+                    errors[i] |= mask;
+                }
+            }
+        }
+    }
+
+    private static final class DoubleCheck extends Check {
+        private final DoublePredicate valid;
+
+        DoubleCheck(String rule, String column, int bit, DoublePredicate valid) {
+            super(rule, column, bit);
+            this.valid = valid;
+        }
+
+        @Override
+        Object column(RecordBatch batch) {
+            return batch.column(column, double[].class);
+        }
+
+        @Override
+        void run(Object values, int[] errors, int from, int to) {
+            double[] doubles = (double[]) values;
+            DoublePredicate valid = this.valid;
+            int mask = this.mask;
+            for (int i = from; i < to; i++) {
+                if (!valid.test(doubles[i])) {
+                    errors[i] |= mask;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The validation rules behind the Student and Teacher setters, in one
+ * place so the setters and BatchValidator can never disagree.
+ */
+public final class FieldRules {
+
+    public static final int MIN_STUDENT_AGE = 5;
+    public static final int MAX_STUDENT_AGE = 100;
+    public static final int MIN_TEACHER_AGE = 21;
+    public static final int MAX_TEACHER_AGE = 70;
+    public static final double MIN_GPA = 0.0;
+    public static final double MAX_GPA = 4.0;
+    public static final String STUDENT_ID_PREFIX = "STU";
+    public static final String EMPLOYEE_ID_PREFIX = "EMP";
+
+    private FieldRules() {
+    }
+
+    /** Not null or empty. */
+    public static boolean isValidName(String name) {
+        return name != null && !name.isEmpty();
+    }
+
+    /** Not null or empty; kept apart from the name rule so either can change alone. */
+    public static boolean isValidSubject(String subject) {
+        return subject != null && !subject.isEmpty();
+    }
+
+    public static boolean isValidStudentAge(int age) {
+        return age >= MIN_STUDENT_AGE && age <= MAX_STUDENT_AGE;
+    }
+
+    public static boolean isValidTeacherAge(int age) {
+        return age >= MIN_TEACHER_AGE && age <= MAX_TEACHER_AGE;
+    }
+
+    /** Between 0.0 and 4.0 inclusive; NaN is rejected. */
+    public static boolean isValidGpa(double gpa) {
+        return gpa >= MIN_GPA && gpa <= MAX_GPA;
+    }
+
+    public static boolean isValidStudentId(String studentId) {
+        return studentId != null && studentId.startsWith(STUDENT_ID_PREFIX);
+    }
+
+    public static boolean isValidEmployeeId(String employeeId) {
+        return employeeId != null && employeeId.startsWith(EMPLOYEE_ID_PREFIX);
+    }
+
+    /** Must be positive. */
+    public static boolean isValidSalary(double salary) {
+        return salary > 0;
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Raw imported rows laid out by column, one array per field, so they can
+ * be validated before any Student or Teacher is built.
+ *
+ *   RecordBatch batch = new RecordBatch(n)
+ *           .strings(BatchValidator.NAME, names)
+ *           .ints(BatchValidator.AGE, ages);
+ *
+ * The arrays are used as given, not copied.
+ */
+public final class RecordBatch {
+
+    private final int size;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    public RecordBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        this.size = size;
+    }
+
+    public RecordBatch strings(String column, String[] values) {
+        return put(column, values, values.length);
+    }
+
+    public RecordBatch ints(String column, int[] values) {
+        return put(column, values, values.length);
+    }
+
+    public RecordBatch doubles(String column, double[] values) {
+        return put(column, values, values.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean hasColumn(String column) {
+        return columns.containsKey(column);
+    }
+
+    /** The column's array, checked against the expected array type. */
+    <T> T column(String column, Class<T> type) {
+        Object values = columns.get(column);
+        if (values == null) {
+            throw new IllegalArgumentException("Missing column: " + column);
+        }
+        if (!type.isInstance(values)) {
+            throw new IllegalArgumentException("Column " + column + " is a " + values.getClass().getSimpleName()
+                    + ", expected " + type.getSimpleName());
+        }
+        return type.cast(values);
+    }
+
+    private RecordBatch put(String column, Object values, int length) {
+        if (length < size) {
+            throw new IllegalArgumentException("Column " + column + " has " + length + " values for "
+                    + size + " rows");
+        }
+        columns.put(column, values);
+        return this;
+    }
+}
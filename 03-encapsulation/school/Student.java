@@ -39,25 +39,25 @@ public class Student {
 
     // Setters with validation
     public void setName(String name) {
-        if (name != null && !name.isEmpty()) {
+        if (FieldRules.isValidName(name)) {
             this.name = name;
         }
     }
 
     public void setAge(int age) {
-        if (age >= 5 && age <= 100) {
+        if (FieldRules.isValidStudentAge(age)) {
             this.age = age;
         }
     }
 
     public void setGpa(double gpa) {
-        if (gpa >= 0.0 && gpa <= 4.0) {
+        if (FieldRules.isValidGpa(gpa)) {
             this.gpa = gpa;
         }
     }
 
     public void setStudentId(String studentId) {
-        if (studentId != null && studentId.startsWith("STU")) {
+        if (FieldRules.isValidStudentId(studentId)) {
             this.studentId = studentId;
         }
     }
@@ -37,31 +37,31 @@ public class Teacher {
 
     // Setters with validation
     public void setName(String name) {
-        if (name != null && !name.isEmpty()) {
+        if (FieldRules.isValidName(name)) {
             this.name = name;
         }
     }
 
     public void setAge(int age) {
-        if (age >= 21 && age <= 70) {  // Teachers: 21-70
+        if (FieldRules.isValidTeacherAge(age)) {  // Teachers: 21-70
             this.age = age;
         }
     }
 
     public void setEmployeeId(String employeeId) {
-        if (employeeId != null && employeeId.startsWith("EMP")) {
+        if (FieldRules.isValidEmployeeId(employeeId)) {
             this.employeeId = employeeId;
         }
     }
 
     public void setSubject(String subject) {
-        if (subject != null && !subject.isEmpty()) {
+        if (FieldRules.isValidSubject(subject)) {
             this.subject = subject;
         }
     }
 
     public void setSalary(double salary) {
-        if (salary > 0) {  // Must be positive
+        if (FieldRules.isValidSalary(salary)) {  // Must be positive
             this.salary = salary;
         }
     }
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of BatchValidator.validate: one int per row whose set bits are
+ * the rules that row breaks, 0 for a valid row. Bit i is rules()[i].
+ */
+public final class ValidationReport {
+
+    private final String[] rules;
+    private final int[] errors;
+    private final int invalidCount;
+
+    ValidationReport(String[] rules, int[] errors) {
+        this.rules = rules;
+        this.errors = errors;
+        int invalid = 0;
+        for (int mask : errors) {
+            if (mask != 0) {
+                invalid++;
+            }
+        }
+        this.invalidCount = invalid;
+    }
+
+    public int size() {
+        return errors.length;
+    }
+
+    public String[] rules() {
+        return rules.clone();
+    }
+
+    /** Bit mask of the named rule, for testing against errors(row). */
+    public int mask(String rule) {
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].equals(rule)) {
+                return 1 << i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rule: " + rule);
+    }
+
+    // ==================== Rows ====================
+
+    public int errors(int row) {
+        return errors[row];
+    }
+
+    public boolean isValid(int row) {
+        return errors[row] == 0;
+    }
+
+    /** Names of the rules the row breaks, in bit order. */
+    public List<String> describe(int row) {
+        List<String> broken = new ArrayList<>();
+        for (int mask = errors[row]; mask != 0; mask &= mask - 1) {
+            broken.add(rules[Integer.numberOfTrailingZeros(mask)]);
+        }
+        return broken;
+    }
+
+    /** Copy of the per-row masks. */
+    public int[] toMasks() {
+        return errors.clone();
+    }
+
+    public int[] validRows() {
+        return rows(true, errors.length - invalidCount);
+    }
+
+    public int[] invalidRows() {
+        return rows(false, invalidCount);
+    }
+
+    private int[] rows(boolean valid, int count) {
+        int[] rows = new int[count];
+        int n = 0;
+        for (int row = 0; row < errors.length; row++) {
+            if ((errors[row] == 0) == valid) {
+                rows[n++] = row;
+            }
+        }
+        return rows;
+    }
+
+    // ==================== Totals ====================
+
+    public int validCount() {
+        return errors.length - invalidCount;
+    }
+
+    public int invalidCount() {
+        return invalidCount;
+    }
+
+    /** Rows breaking each rule, indexed by bit position. */
+    public int[] countByRule() {
+        int[] counts = new int[rules.length];
+        for (int mask : errors) {
+            for (; mask != 0; mask &= mask - 1) {
+                counts[Integer.numberOfTrailingZeros(mask)]++;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("ValidationReport{rows=").append(errors.length)
+                .append(", invalid=").append(invalidCount);
+        int[] counts = countByRule();
+        for (int i = 0; i < rules.length; i++) {
+            text.append(", ").append(rules[i]).append('=').append(counts[i]);
+        }
+        return text.append('}').toString();
+    }
+}
@@ -59,6 +59,22 @@ public class Main {
         System.out.println("After valid updates:");
         t1.display();
         
+        // ============================================
+        // Validating Imported Rows in Bulk
+        // ============================================
+        System.out.println("\n\n=== Bulk Validation ===\n");
+
+        RecordBatch rows = new RecordBatch(3)
+                .strings(BatchValidator.NAME, new String[]{"Omar", "", "Mona"})
+                .ints(BatchValidator.AGE, new int[]{19, 3, 22})
+                .doubles(BatchValidator.GPA, new double[]{3.2, 5.0, 3.9})
+                .strings(BatchValidator.STUDENT_ID, new String[]{"STU003", "STU004", "ABC005"});
+        ValidationReport report = BatchValidator.students().validate(rows);
+        System.out.println(report);
+        for (int row = 0; row < report.size(); row++) {
+            System.out.println("Row " + row + ": " + (report.isValid(row) ? "valid" : report.describe(row)));
+        }
+
         // ============================================
         // Demonstrating Encapsulation Benefits
         // ============================================
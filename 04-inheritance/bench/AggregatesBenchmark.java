@@ -0,0 +1,75 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard reads and setter cost with GroupAggregates: total salary per
+ * department by full scan vs materialized groups, and setSalary on an
+ * untracked vs a tracked person.
+ *
+ *   java -cp out AggregatesBenchmark [filter] [--json results.json]
+ */
+public class AggregatesBenchmark {
+
+    private static final int PEOPLE = 600_000;
+    private static final int SAMPLE_SIZE = 1024;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("salaryByDepartment.scan", () -> {
+            Person[] people = new SampleData(3).people(PEOPLE);
+            return ops -> {
+                long size = 0;
+                for (int i = 0; i < ops; i++) {
+                    Map<String, double[]> totals = new HashMap<>();
+                    for (Person person : people) {
+                        if (person instanceof Staff) {
+                            Staff staff = (Staff) person;
+                            double[] total = totals.computeIfAbsent(staff.getDepartment(), d -> new double[2]);
+                            total[0]++;
+                            total[1] += staff.getSalary();
+                        }
+                    }
+                    size += totals.size();
+                }
+                return size;
+            };
+        });
+        benchmarks.put("salaryByDepartment.aggregates", () -> {
+            GroupAggregates aggregates = new GroupAggregates();
+            for (Person person : new SampleData(3).people(PEOPLE)) {
+                aggregates.add(person);
+            }
+            return ops -> {
+                long size = 0;
+                for (int i = 0; i < ops; i++) {
+                    size += aggregates.getDepartments().size();
+                }
+                return size;
+            };
+        });
+        benchmarks.put("setSalary.untracked", () -> setSalaryBody(false));
+        benchmarks.put("setSalary.tracked", () -> setSalaryBody(true));
+        Bench.main(args, benchmarks);
+    }
+
+    private static Bench.Body setSalaryBody(boolean tracked) {
+        Staff[] staff = new Staff[SAMPLE_SIZE];
+        SampleData data = new SampleData(3);
+        GroupAggregates aggregates = new GroupAggregates();
+        // SampleData types 4 and 5 are AdminStaff and TechnicalStaff
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            staff[i] = (Staff) data.next(i * 6 + 4 + (i & 1));
+            if (tracked) {
+                aggregates.add(staff[i]);
+            }
+        }
+        return ops -> {
+            for (int i = 0; i < ops; i++) {
+                staff[i & (SAMPLE_SIZE - 1)].setSalary(1000 + (i & 4095));
+            }
+            return ops;
+        };
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Small dependency-free micro-benchmark harness.
+ *
+ * Each benchmark runs in its own forked JVM (so call-site profiles from one
+ * benchmark never leak into another), is warmed up, then timed over several
+ * iterations. Results are written as a JSON array in the same shape JMH uses
+ * for "-rf json", so the two can be compared with the same tooling.
+ *
+ * Usage from a benchmark main:
+ *   Bench.main(args, benchmarks)
+ *
+ * Arguments:
+ *   [filter]          only run benchmarks whose name contains the filter
+ *   --json file       write results to file (default: bench-results.json)
+ *   --no-fork         run everything in the current JVM
+ *   --run name        internal: run one benchmark and print its JSON
+ */
+public final class Bench {
+
+    /** Runs the measured operation {@code ops} times and returns a value to consume. */
+    public interface Body {
+        long run(int ops);
+    }
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+    private static final long ITERATION_NANOS = 200_000_000L;
+
+    private static volatile long sink;
+
+    private Bench() {
+    }
+
+    public static void main(String[] args, Map<String, Supplier<Body>> benchmarks) throws Exception {
+        // Benchmarks may redirect System.out, keep the real one for results
+        PrintStream stdout = System.out;
+        String filter = "";
+        String json = "bench-results.json";
+        boolean fork = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--json":
+                    json = args[++i];
+                    break;
+                case "--no-fork":
+                    fork = false;
+                    break;
+                case "--run":
+                    stdout.println(measure(args[++i], benchmarks.get(args[i])));
+                    return;
+                default:
+                    filter = args[i];
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        for (String name : benchmarks.keySet()) {
+            if (!name.contains(filter)) {
+                continue;
+            }
+            String result = fork ? runForked(name) : measure(name, benchmarks.get(name));
+            System.err.println(result);
+            results.add(result);
+        }
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(json), StandardCharsets.UTF_8))) {
+            writer.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                writer.println("    " + results.get(i) + (i + 1 < results.size() ? "," : ""));
+            }
+            writer.println("]");
+        }
+        System.err.println("Wrote " + results.size() + " results to " + json);
+    }
+
+    private static String runForked(String name) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String mainClass = System.getProperty("sun.java.command").split(" ")[0];
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.add("--run");
+        command.add(name);
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("Forked benchmark failed: " + name);
+        }
+        return last;
+    }
+
+    static String measure(String name, Supplier<Body> setup) {
+        if (setup == null) {
+            throw new IllegalArgumentException("Unknown benchmark: " + name);
+        }
+        Body body = setup.get();
+
+        // Grow the batch while the code warms up, then size it to one iteration
+        int ops = 1;
+        long calibrationEnd = System.nanoTime() + ITERATION_NANOS * WARMUP_ITERATIONS;
+        while (System.nanoTime() < calibrationEnd) {
+            if (time(body, ops) < ITERATION_NANOS / 10 && ops < (1 << 26)) {
+                ops *= 2;
+            }
+        }
+        long elapsed = Math.max(1, time(body, ops));
+        ops = (int) Math.max(1, Math.min(1L << 30, ops * ITERATION_NANOS / elapsed));
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            time(body, ops);
+        }
+        double[] scores = new double[MEASURE_ITERATIONS];
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            scores[i] = (double) time(body, ops) / ops;
+        }
+        return toJson(name, scores);
+    }
+
+    private static long time(Body body, int ops) {
+        long start = System.nanoTime();
+        sink += body.run(ops);
+        return System.nanoTime() - start;
+    }
+
+    private static String toJson(String name, double[] scores) {
+        double mean = 0;
+        for (double score : scores) {
+            mean += score;
+        }
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+        variance /= scores.length - 1;
+        // 99.9% confidence interval, normal approximation
+        double error = 3.29 * Math.sqrt(variance / scores.length);
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("benchmark", quote(name));
+        fields.put("mode", quote("avgt"));
+        fields.put("forks", "1");
+        fields.put("warmupIterations", String.valueOf(WARMUP_ITERATIONS));
+        fields.put("measurementIterations", String.valueOf(scores.length));
+        fields.put("jdkVersion", quote(System.getProperty("java.version")));
+        fields.put("primaryMetric", "{\"score\": " + mean + ", \"scoreError\": " + error
+                + ", \"scoreUnit\": \"ns/op\"}");
+
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (json.length() > 1) {
+                json.append(", ");
+            }
+            json.append(quote(field.getKey())).append(": ").append(field.getValue());
+        }
+        return json.append('}').toString();
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registration-day stress run for EnrollmentService: one hot course that
+ * takes most of the traffic plus a few cold ones, with threads that
+ * reserve, then confirm or release, and sometimes drop again.
+ *
+ * Every thread also tracks the seats it holds in an independent counter
+ * per course and fails the run if that counter ever exceeds capacity.
+ * At the end the service's own counts must add up exactly.
+ *
+ *   java -cp out EnrollmentStress [threads] [attemptsPerThread]
+ *
+ * Exits with status 1 on any violation.
+ */
+public class EnrollmentStress {
+
+    private static final int HOT_CAPACITY = 500;
+    private static final int COLD_COURSES = 8;
+    private static final int COLD_CAPACITY = 200;
+    private static final int STUDENTS = 100_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        EnrollmentService service = new EnrollmentService();
+        Teacher teacher = new Teacher("Dr. Omar", 45, "T001", "Programming", 9000);
+        Course[] courses = new Course[COLD_COURSES + 1];
+        courses[0] = new Course("CS101", "Java Programming", teacher, HOT_CAPACITY, 3);
+        for (int i = 1; i < courses.length; i++) {
+            courses[i] = new Course("CS" + (200 + i), "Elective " + i, teacher, COLD_CAPACITY, 3);
+        }
+        AtomicInteger[] held = new AtomicInteger[courses.length];
+        for (int i = 0; i < courses.length; i++) {
+            service.addCourse(courses[i]);
+            held[i] = new AtomicInteger();
+        }
+        Student[] students = new Student[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) {
+            students[i] = new Student("Student " + i, 18 + i % 10, String.format("STU%06d", i), "CS", 3.0);
+        }
+
+        LongAdder reserved = new LongAdder();
+        LongAdder full = new LongAdder();
+        LongAdder duplicates = new LongAdder();
+        AtomicInteger violations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attempts; i++) {
+                    // 80% of the traffic goes to the hot course
+                    int c = random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(COLD_COURSES);
+                    Course course = courses[c];
+                    Student student = students[random.nextInt(STUDENTS)];
+                    EnrollmentService.Reservation reservation;
+                    try {
+                        reservation = service.reserve(student, course);
+                    } catch (IllegalStateException e) {
+                        duplicates.increment();
+                        continue;
+                    }
+                    if (reservation == null) {
+                        full.increment();
+                        continue;
+                    }
+                    reserved.increment();
+                    if (held[c].incrementAndGet() > course.getCapacity()) {
+                        violations.incrementAndGet();
+                    }
+                    // mostly churn: 1 in 100 reservations keeps its seat
+                    int action = random.nextInt(100);
+                    if (action < 60) {
+                        reservation.confirm();
+                        if (action > 0) {
+                            held[c].decrementAndGet();
+                            if (!service.drop(student, course)) {
+                                violations.incrementAndGet();
+                            }
+                        }
+                    } else {
+                        held[c].decrementAndGet();
+                        if (!reservation.release()) {
+                            violations.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        for (int c = 0; c < courses.length; c++) {
+            Course course = courses[c];
+            int confirmed = service.getConfirmedSeats(course);
+            int available = service.getAvailableSeats(course);
+            int enrolled = service.getEnrollments(course).size();
+            if (confirmed + available != course.getCapacity() || enrolled != confirmed
+                    || confirmed != held[c].get() || service.getPendingSeats(course) != 0) {
+                System.out.printf("MISMATCH %s: confirmed=%d enrolled=%d available=%d held=%d capacity=%d%n",
+                        course.getCode(), confirmed, enrolled, available, held[c].get(), course.getCapacity());
+                violations.incrementAndGet();
+            }
+        }
+
+        long operations = (long) threads * attempts;
+        System.out.printf("threads=%d attempts=%,d reserved=%,d full=%,d duplicate=%,d%n",
+                threads, operations, reserved.sum(), full.sum(), duplicates.sum());
+        System.out.printf("hot course: %d/%d confirmed, %,.0f attempts/s%n",
+                service.getConfirmedSeats(courses[0]), HOT_CAPACITY, operations / seconds);
+        if (violations.get() > 0) {
+            System.out.println("FAILED: " + violations.get() + " violations");
+            System.exit(1);
+        }
+        System.out.println("OK: no overbooking");
+    }
+}
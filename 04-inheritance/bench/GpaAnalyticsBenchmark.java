@@ -0,0 +1,107 @@
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * GpaAnalytics against the equivalent plain stream pipelines.
+ * One op is one full pass over the population.
+ *
+ *   java -cp out GpaAnalyticsBenchmark [filter] [--json results.json]
+ */
+public class GpaAnalyticsBenchmark {
+
+    private static final int PEOPLE = 600_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("stream.meanVariance", () -> {
+            List<Person> people = people();
+            return ops -> {
+                long bits = 0;
+                for (int i = 0; i < ops; i++) {
+                    DoubleSummaryStatistics stats = people.stream()
+                            .filter(p -> p instanceof Student)
+                            .mapToDouble(p -> ((Student) p).getGpa())
+                            .summaryStatistics();
+                    double mean = stats.getAverage();
+                    double variance = people.stream()
+                            .filter(p -> p instanceof Student)
+                            .mapToDouble(p -> ((Student) p).getGpa() - mean)
+                            .map(d -> d * d)
+                            .sum() / stats.getCount();
+                    bits += Double.doubleToLongBits(variance);
+                }
+                return bits;
+            };
+        });
+        benchmarks.put("engine.meanVariance", () -> {
+            GpaAnalytics analytics = GpaAnalytics.of(people());
+            return ops -> {
+                long bits = 0;
+                for (int i = 0; i < ops; i++) {
+                    bits += Double.doubleToLongBits(analytics.stats().getVariance());
+                }
+                return bits;
+            };
+        });
+        benchmarks.put("stream.byMajor", () -> {
+            List<Person> people = people();
+            return ops -> {
+                long size = 0;
+                for (int i = 0; i < ops; i++) {
+                    size += people.stream()
+                            .filter(p -> p instanceof Student)
+                            .map(p -> (Student) p)
+                            .collect(Collectors.groupingBy(Student::getMajor,
+                                    Collectors.summarizingDouble(Student::getGpa)))
+                            .size();
+                }
+                return size;
+            };
+        });
+        benchmarks.put("engine.byMajor", () -> {
+            GpaAnalytics analytics = GpaAnalytics.of(people());
+            return ops -> {
+                long size = 0;
+                for (int i = 0; i < ops; i++) {
+                    size += analytics.statsByMajor().size();
+                }
+                return size;
+            };
+        });
+        benchmarks.put("stream.histogram", () -> {
+            List<Person> people = people();
+            return ops -> {
+                long total = 0;
+                for (int i = 0; i < ops; i++) {
+                    long[] counts = new long[40];
+                    people.stream()
+                            .filter(p -> p instanceof Student)
+                            .mapToInt(p -> Math.min(39, (int) (((Student) p).getGpa() * 10)))
+                            .forEach(b -> counts[b]++);
+                    total += counts[0];
+                }
+                return total;
+            };
+        });
+        benchmarks.put("engine.histogram", () -> {
+            GpaAnalytics analytics = GpaAnalytics.of(people());
+            return ops -> {
+                long total = 0;
+                for (int i = 0; i < ops; i++) {
+                    total += analytics.histogram(0, 4, 40)[0];
+                }
+                return total;
+            };
+        });
+        Bench.main(args, benchmarks);
+    }
+
+    private static List<Person> people() {
+        return Arrays.asList(new SampleData(3).people(PEOPLE));
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Grade posting: GradeService's incremental GPA against recomputing the
+ * GPA from every graded course on each assignment. Every student already
+ * has a full record of graded courses; one op is one grade overwrite.
+ *
+ *   java -cp out GradeServiceBenchmark [filter] [--json results.json]
+ */
+public class GradeServiceBenchmark {
+
+    private static final int STUDENTS = 20_000;
+    private static final int COURSES = 40;
+    private static final Grade[] GRADES = Grade.values();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("assign.recompute", () -> {
+            Student[] students = students();
+            Course[] courses = courses();
+            Map<String, Map<String, Grade>> grades = new HashMap<>();
+            for (Student student : students) {
+                Map<String, Grade> book = new LinkedHashMap<>();
+                for (int c = 0; c < COURSES; c++) {
+                    book.put(courses[c].getCode(), GRADES[c % GRADES.length]);
+                }
+                grades.put(student.getId(), book);
+            }
+            Map<String, Course> byCode = new HashMap<>();
+            for (Course course : courses) {
+                byCode.put(course.getCode(), course);
+            }
+            return ops -> {
+                long bits = 0;
+                for (int i = 0; i < ops; i++) {
+                    Student student = students[i % STUDENTS];
+                    Map<String, Grade> book = grades.get(student.getId());
+                    book.put(courses[i % COURSES].getCode(), GRADES[i % GRADES.length]);
+                    long weighted = 0;
+                    int credits = 0;
+                    for (Map.Entry<String, Grade> entry : book.entrySet()) {
+                        int courseCredits = byCode.get(entry.getKey()).getCredits();
+                        weighted += (long) entry.getValue().getPointTenths() * courseCredits;
+                        credits += courseCredits;
+                    }
+                    student.setGpa(weighted / (credits * 10.0));
+                    bits += Double.doubleToLongBits(student.getGpa());
+                }
+                return bits;
+            };
+        });
+        benchmarks.put("assign.incremental", () -> {
+            Student[] students = students();
+            Course[] courses = courses();
+            GradeService service = new GradeService();
+            for (Student student : students) {
+                for (int c = 0; c < COURSES; c++) {
+                    service.assignGrade(student, courses[c], GRADES[c % GRADES.length]);
+                }
+            }
+            return ops -> {
+                long bits = 0;
+                for (int i = 0; i < ops; i++) {
+                    Student student = students[i % STUDENTS];
+                    service.assignGrade(student, courses[i % COURSES], GRADES[i % GRADES.length]);
+                    bits += Double.doubleToLongBits(student.getGpa());
+                }
+                return bits;
+            };
+        });
+        benchmarks.put("transcript", () -> {
+            Student[] students = students();
+            Course[] courses = courses();
+            GradeService service = new GradeService();
+            for (Student student : students) {
+                for (int c = 0; c < COURSES; c++) {
+                    service.assignGrade(student, courses[c], GRADES[c % GRADES.length]);
+                }
+            }
+            StringBuilder out = new StringBuilder(4096);
+            return ops -> {
+                long length = 0;
+                for (int i = 0; i < ops; i++) {
+                    out.setLength(0);
+                    service.appendTranscript(students[i % STUDENTS], out);
+                    length += out.length();
+                }
+                return length;
+            };
+        });
+        Bench.main(args, benchmarks);
+    }
+
+    private static Student[] students() {
+        Student[] students = new Student[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) {
+            students[i] = new Student("Student " + i, 20, String.format("STU%06d", i), "CS", 0.0);
+        }
+        return students;
+    }
+
+    private static Course[] courses() {
+        Course[] courses = new Course[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            courses[c] = new Course(String.format("CS%03d", 100 + c), "Course " + c, null, 40, 2 + c % 3);
+        }
+        return courses;
+    }
+}
@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the hot paths of the Person hierarchy:
+ * equals/hashCode/toString per concrete class, polymorphic
+ * introduce/displayInfo at mono-, bi- and megamorphic call sites,
+ * HashSet&lt;Person&gt; insert/lookup at several sizes, and the same
+ * hashCode/lookup paths on the immutable PersonSnapshot types, and
+ * "all students" via instanceof scan vs PersonCollection.ofType.
+ *
+ *   java -cp out HierarchyBenchmark [filter] [--json results.json]
+ */
+public class HierarchyBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int[] SET_SIZES = {1_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) throws Exception {
+        Bench.main(args, benchmarks());
+    }
+
+    static Map<String, Supplier<Bench.Body>> benchmarks() {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+
+        for (int type = 0; type < 6; type++) {
+            String name = typeName(type);
+            int offset = type;
+            benchmarks.put("equals." + name, () -> equalsBody(offset));
+            benchmarks.put("hashCode." + name, () -> hashCodeBody(offset));
+            benchmarks.put("toString." + name, () -> toStringBody(offset));
+            benchmarks.put("snapshot.hashCode." + name, () -> snapshotHashCodeBody(offset));
+        }
+
+        for (String shape : new String[]{"monomorphic", "bimorphic", "megamorphic"}) {
+            benchmarks.put("introduce." + shape, () -> introduceBody(shape));
+            benchmarks.put("displayInfo." + shape, () -> displayInfoBody(shape));
+            benchmarks.put("appendInfo." + shape, () -> appendInfoBody(shape));
+        }
+
+        for (int size : SET_SIZES) {
+            benchmarks.put("hashSet.insert." + size, () -> hashSetInsertBody(size));
+            benchmarks.put("hashSet.lookup." + size, () -> hashSetLookupBody(size));
+            benchmarks.put("snapshotSet.lookup." + size, () -> snapshotSetLookupBody(size));
+        }
+
+        for (int size : SET_SIZES) {
+            benchmarks.put("students.instanceofScan." + size, () -> instanceofScanBody(size));
+            benchmarks.put("students.ofType." + size, () -> ofTypeBody(size));
+        }
+        return benchmarks;
+    }
+
+    // ==================== equals / hashCode / toString ====================
+
+    private static Bench.Body equalsBody(int type) {
+        Person[] left = sameType(type, 7);
+        Person[] right = sameType(type, 7);
+        return ops -> {
+            long hits = 0;
+            for (int i = 0; i < ops; i++) {
+                int j = i & (SAMPLE_SIZE - 1);
+                if (left[j].equals(right[j])) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    private static Bench.Body hashCodeBody(int type) {
+        Person[] people = sameType(type, 7);
+        return ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += people[i & (SAMPLE_SIZE - 1)].hashCode();
+            }
+            return sum;
+        };
+    }
+
+    private static Bench.Body toStringBody(int type) {
+        Person[] people = sameType(type, 7);
+        return ops -> {
+            long length = 0;
+            for (int i = 0; i < ops; i++) {
+                length += people[i & (SAMPLE_SIZE - 1)].toString().length();
+            }
+            return length;
+        };
+    }
+
+    private static Bench.Body snapshotHashCodeBody(int type) {
+        PersonSnapshot[] snapshots = snapshots(sameType(type, 7));
+        return ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += snapshots[i & (SAMPLE_SIZE - 1)].hashCode();
+            }
+            return sum;
+        };
+    }
+
+    // ==================== Polymorphic dispatch ====================
+
+    private static Bench.Body introduceBody(String shape) {
+        Person[] people = shaped(shape);
+        discardStdout();
+        return ops -> {
+            for (int i = 0; i < ops; i++) {
+                people[i & (SAMPLE_SIZE - 1)].introduce();
+            }
+            return ops;
+        };
+    }
+
+    private static Bench.Body displayInfoBody(String shape) {
+        Person[] people = shaped(shape);
+        discardStdout();
+        return ops -> {
+            for (int i = 0; i < ops; i++) {
+                people[i & (SAMPLE_SIZE - 1)].displayInfo();
+            }
+            return ops;
+        };
+    }
+
+    private static Bench.Body appendInfoBody(String shape) {
+        Person[] people = shaped(shape);
+        StringBuilder buffer = new StringBuilder(1024);
+        return ops -> {
+            long length = 0;
+            try {
+                for (int i = 0; i < ops; i++) {
+                    buffer.setLength(0);
+                    people[i & (SAMPLE_SIZE - 1)].appendInfo(buffer);
+                    length += buffer.length();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return length;
+        };
+    }
+
+    // ==================== HashSet<Person> ====================
+
+    private static Bench.Body hashSetInsertBody(int size) {
+        Person[] people = new SampleData(11).people(size);
+        Set<Person> set = new HashSet<>();
+        return ops -> {
+            long added = 0;
+            for (int i = 0; i < ops; i++) {
+                int j = i % size;
+                if (j == 0) {
+                    set.clear();
+                }
+                if (set.add(people[j])) {
+                    added++;
+                }
+            }
+            return added;
+        };
+    }
+
+    private static Bench.Body hashSetLookupBody(int size) {
+        Set<Person> set = new HashSet<>();
+        for (Person person : new SampleData(11).people(size)) {
+            set.add(person);
+        }
+        // Equal but distinct instances, so every hit goes through equals()
+        Person[] probes = new SampleData(11).people(size);
+        return ops -> {
+            long hits = 0;
+            for (int i = 0; i < ops; i++) {
+                if (set.contains(probes[i % size])) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    private static Bench.Body snapshotSetLookupBody(int size) {
+        Set<PersonSnapshot> set = new HashSet<>();
+        for (PersonSnapshot snapshot : snapshots(new SampleData(11).people(size))) {
+            set.add(snapshot);
+        }
+        PersonSnapshot[] probes = snapshots(new SampleData(11).people(size));
+        return ops -> {
+            long hits = 0;
+            for (int i = 0; i < ops; i++) {
+                if (set.contains(probes[i % size])) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    // ==================== Type filtering ====================
+
+    private static Bench.Body instanceofScanBody(int size) {
+        Person[] people = new SampleData(13).people(size);
+        return ops -> {
+            double sum = 0;
+            for (int op = 0; op < ops; op++) {
+                for (Person person : people) {
+                    if (person instanceof Student) {
+                        sum += ((Student) person).getGpa();
+                    }
+                }
+            }
+            return (long) sum;
+        };
+    }
+
+    private static Bench.Body ofTypeBody(int size) {
+        PersonCollection people = new PersonCollection(Arrays.asList(new SampleData(13).people(size)));
+        return ops -> {
+            double sum = 0;
+            for (int op = 0; op < ops; op++) {
+                for (Student student : people.ofType(Student.class)) {
+                    sum += student.getGpa();
+                }
+            }
+            return (long) sum;
+        };
+    }
+
+    // ==================== Data ====================
+
+    private static PersonSnapshot[] snapshots(Person[] people) {
+        PersonSnapshot[] snapshots = new PersonSnapshot[people.length];
+        for (int i = 0; i < people.length; i++) {
+            snapshots[i] = PersonSnapshot.of(people[i]);
+        }
+        return snapshots;
+    }
+
+    /** SampleData cycles through the six concrete classes, index % 6 picks the type. */
+    private static Person[] sameType(int type, long seed) {
+        SampleData data = new SampleData(seed);
+        Person[] people = new Person[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            people[i] = data.next(i * 6 + type);
+        }
+        return people;
+    }
+
+    private static Person[] shaped(String shape) {
+        SampleData data = new SampleData(5);
+        Person[] people = new Person[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            int type;
+            switch (shape) {
+                case "monomorphic":
+                    type = 2;
+                    break;
+                case "bimorphic":
+                    type = (i & 1) == 0 ? 0 : 2;
+                    break;
+                default:
+                    type = i % 6;
+            }
+            people[i] = data.next(i * 6 + type);
+        }
+        return people;
+    }
+
+    private static String typeName(int type) {
+        return new SampleData(0).next(type).getClass().getSimpleName();
+    }
+
+    private static void discardStdout() {
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+}
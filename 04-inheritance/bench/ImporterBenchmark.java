@@ -0,0 +1,54 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes a synthetic CSV export and measures PersonImporter throughput.
+ * The imported people are only counted, not kept, to show that memory
+ * use does not grow with the file size.
+ *
+ *   java -cp out ImporterBenchmark [rows] [threads] [file]
+ */
+public class ImporterBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path file = args.length > 2 ? Paths.get(args[2]) : Files.createTempFile("people", ".csv");
+
+        if (Files.size(file) == 0) {
+            write(file, rows);
+        }
+        System.out.printf("File: %s (%.1f MB)%n", file, Files.size(file) / 1e6);
+
+        PersonImporter importer = new PersonImporter(',', threads, 32L * 1024 * 1024);
+        for (int run = 1; run <= 5; run++) {
+            LongAdder imported = new LongAdder();
+            PersonImporter.ImportResult result = importer.importFile(file, batch -> imported.add(batch.size()));
+            System.out.printf("run %d: %,d rows, %,d rejected, %.1f MB/s, %,.0f rows/s%n", run,
+                    result.getRows(), result.getRejected(), result.getMegabytesPerSecond(),
+                    result.getRows() / (result.getElapsedNanos() / 1e9));
+        }
+        if (args.length <= 2) {
+            Files.delete(file);
+        }
+    }
+
+    private static void write(Path file, int rows) throws IOException {
+        SampleData data = new SampleData(21);
+        StringBuilder line = new StringBuilder(256);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("type,name,age,id,group,amount,detail,extra\n");
+            for (int i = 0; i < rows; i++) {
+                line.setLength(0);
+                PersonImporter.appendRow(data.next(i), line, ',');
+                line.append('\n');
+                writer.append(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Multi-attribute filters over 1M people: a full instanceof scan against
+ * PersonIndex bitmap AND/OR. One op is one count of the matching people.
+ *
+ *   conjunctive: major = Computer Science AND year IN (3, 4)
+ *   disjunctive: canAccessRecords OR rank = Full Professor
+ *
+ *   java -cp out IndexBenchmark [filter] [--json results.json]
+ */
+public class IndexBenchmark {
+
+    private static final int PEOPLE = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("conjunctive.scan", () -> {
+            Person[] people = new SampleData(4).people(PEOPLE);
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    for (Person person : people) {
+                        if (person instanceof UndergraduateStudent
+                                && "Computer Science".equals(((Student) person).getMajor())
+                                && ((UndergraduateStudent) person).getYear() >= 3) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            };
+        });
+        benchmarks.put("conjunctive.index", () -> {
+            PersonIndex index = index();
+            PersonIndex.Filter filter = PersonIndex.and(
+                    PersonIndex.eq(PersonIndex.Attribute.MAJOR, "Computer Science"),
+                    PersonIndex.in(PersonIndex.Attribute.YEAR, 3, 4));
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    count += index.count(filter);
+                }
+                return count;
+            };
+        });
+        benchmarks.put("disjunctive.scan", () -> {
+            Person[] people = new SampleData(4).people(PEOPLE);
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    for (Person person : people) {
+                        if ((person instanceof AdminStaff && ((AdminStaff) person).isCanAccessRecords())
+                                || (person instanceof Professor
+                                && "Full Professor".equals(((Professor) person).getRank()))) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            };
+        });
+        benchmarks.put("disjunctive.index", () -> {
+            PersonIndex index = index();
+            PersonIndex.Filter filter = PersonIndex.or(
+                    PersonIndex.eq(PersonIndex.Attribute.CAN_ACCESS_RECORDS, true),
+                    PersonIndex.eq(PersonIndex.Attribute.RANK, "Full Professor"));
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    count += index.count(filter);
+                }
+                return count;
+            };
+        });
+        Bench.main(args, benchmarks);
+    }
+
+    private static PersonIndex index() {
+        PersonIndex index = new PersonIndex();
+        index.addAll(Arrays.asList(new SampleData(4).people(PEOPLE)));
+        return index;
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read latency of SchoolSystem snapshots under a growing write load.
+ *
+ * Reader threads repeatedly take a snapshot and render every course into
+ * a reused StringBuilder (printAllCourses without the console), timing
+ * each pass. Writer threads meanwhile enroll, drop and grade random
+ * students. With snapshot reads the reader percentiles should barely
+ * move as writers are added; writes only cost readers CPU, not waiting.
+ *
+ * A first, unreported run warms up the JIT.
+ *
+ *   java -cp out MvccBenchmark [seconds] [readers] [writers...]
+ */
+public class MvccBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int COURSES = 200;
+    private static final Grade[] GRADES = Grade.values();
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int[] writerCounts = args.length > 2
+                ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{0, 1, 2, 4, 8};
+
+        System.out.printf("%d students, %d courses, %d readers, %.0f s per run%n", STUDENTS, COURSES, readers,
+                seconds);
+        System.out.printf("%7s %12s %10s %10s %10s %12s %10s%n", "writers", "reads/s", "p50 us", "p99 us",
+                "p99.9 us", "writes/s", "versions");
+        run(readers, 1, seconds, false);
+        for (int writers : writerCounts) {
+            run(readers, writers, seconds, true);
+        }
+    }
+
+    private static void run(int readerCount, int writerCount, double seconds, boolean report) throws InterruptedException {
+        SchoolSystem system = new SchoolSystem();
+        Student[] students = new Student[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) {
+            students[i] = new Student("Student " + i, 20, "S" + i, "Computer Science", 0.0);
+            system.addStudent(students[i]);
+        }
+        Teacher teacher = new Teacher("Teacher", 45, "T1", "Computer Science", 5000);
+        system.addTeacher(teacher);
+        Course[] courses = new Course[COURSES];
+        for (int i = 0; i < COURSES; i++) {
+            courses[i] = new Course("C" + i, "Course " + i, teacher, 100, 1 + i % 4);
+            system.addCourse(courses[i]);
+        }
+        long firstVersion = system.snapshot().getVersion();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder writes = new LongAdder();
+        List<long[]> samples = new ArrayList<>();
+        int[] sampleCounts = new int[readerCount];
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            long[] timings = new long[4_000_000];
+            samples.add(timings);
+            int slot = r;
+            threads.add(new Thread(() -> {
+                StringBuilder out = new StringBuilder(1 << 16);
+                int n = 0;
+                while (running.get() && n < timings.length) {
+                    long t0 = System.nanoTime();
+                    out.setLength(0);
+                    system.snapshot().appendCourses(out);
+                    timings[n++] = System.nanoTime() - t0;
+                }
+                sampleCounts[slot] = n;
+            }));
+        }
+        for (int w = 0; w < writerCount; w++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    Student student = students[random.nextInt(STUDENTS)];
+                    Course course = courses[random.nextInt(COURSES)];
+                    int action = random.nextInt(3);
+                    if (action == 0) {
+                        system.enrollStudent(student, course);
+                    } else if (action == 1) {
+                        system.dropStudent(student, course);
+                    } else if (system.snapshot().getSchedule(student.getId()).contains(course.getCode())) {
+                        try {
+                            system.assignGrade(student, course, GRADES[random.nextInt(GRADES.length)]);
+                        } catch (IllegalStateException e) {
+                            // dropped by another writer in between
+                        }
+                    } else {
+                        system.enrollStudent(student, course);
+                    }
+                    writes.increment();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!report) {
+            return;
+        }
+
+        int total = 0;
+        for (int count : sampleCounts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int r = 0; r < readerCount; r++) {
+            System.arraycopy(samples.get(r), 0, all, offset, sampleCounts[r]);
+            offset += sampleCounts[r];
+        }
+        Arrays.sort(all);
+        System.out.printf("%7d %12.0f %10.1f %10.1f %10.1f %12.0f %10d%n", writerCount, total / seconds,
+                micros(percentile(all, 0.50)), micros(percentile(all, 0.99)), micros(percentile(all, 0.999)),
+                writes.sum() / seconds, system.snapshot().getVersion() - firstVersion);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
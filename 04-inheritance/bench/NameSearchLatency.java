@@ -0,0 +1,157 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Type-ahead latency of NameIndex at front-desk scale: 5M people named
+ * from 3,000 first and 8,000 last names, so names repeat the way real
+ * ones do and most prefixes match far more people than are returned.
+ *
+ * Each query is timed on its own and reported as percentiles:
+ *
+ *   prefix - a 1 to 10 character prefix of a random person's full name
+ *            or last name, top 10
+ *   fuzzy  - a random name word with one typo (edit, swap, insert or
+ *            delete), at most 1 edit up to 5 characters and 2 beyond, top 10
+ *   rename - setName on a random person, which re-indexes it
+ *
+ *   java -Xmx3g -cp out NameSearchLatency [people] [queries]
+ *
+ * Exits with status 1 if the prefix or fuzzy p99 is 1 ms or more.
+ */
+public class NameSearchLatency {
+
+    private static final String[] SYLLABLES = {
+            "a", "ah", "al", "am", "an", "ba", "da", "el", "fa", "ha", "hi", "ib", "ka", "la", "li",
+            "ma", "med", "mi", "mo", "na", "nour", "om", "ra", "sa", "se", "su", "ta", "ya", "za", "zi"
+    };
+    private static final int FIRST_NAMES = 3_000;
+    private static final int LAST_NAMES = 8_000;
+    private static final int LIMIT = 10;
+    private static final long TARGET_P99_NANOS = 1_000_000;
+
+    public static void main(String[] args) {
+        int people = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+        String[] firstNames = names(random, FIRST_NAMES, 2);
+        String[] lastNames = names(random, LAST_NAMES, 3);
+
+        Student[] students = new Student[people];
+        for (int i = 0; i < people; i++) {
+            students[i] = new Student(pick(random, firstNames) + " " + pick(random, lastNames), 20,
+                    "S" + i, "Computer Science", 3.0);
+        }
+        NameIndex index = new NameIndex();
+        long start = System.nanoTime();
+        for (Student student : students) {
+            index.add(student);
+        }
+        System.out.printf("indexed %,d people in %d ms%n", people, (System.nanoTime() - start) / 1_000_000);
+
+        // warm up every path before measuring
+        run(index, students, firstNames, lastNames, new Random(1), queries / 4);
+        long[][] timings = run(index, students, firstNames, lastNames, new Random(2), queries);
+
+        boolean pass = report("prefix", timings[0]) & report("fuzzy", timings[1]);
+        report("rename", timings[2]);
+        System.out.println(pass ? "PASS: p99 under 1 ms" : "FAIL: p99 at or over 1 ms");
+        if (!pass) {
+            System.exit(1);
+        }
+    }
+
+    /** Returns {prefix, fuzzy, rename} timings in nanoseconds. */
+    private static long[][] run(NameIndex index, Student[] students, String[] firstNames, String[] lastNames,
+                                Random random, int queries) {
+        long[] prefix = new long[queries];
+        long[] fuzzy = new long[queries];
+        long[] rename = new long[queries / 10];
+        long found = 0;
+        for (int i = 0; i < queries; i++) {
+            String name = students[random.nextInt(students.length)].getName();
+            String text = random.nextBoolean() ? name : name.substring(name.indexOf(' ') + 1);
+            String typed = text.substring(0, 1 + random.nextInt(Math.min(10, text.length())));
+            long t0 = System.nanoTime();
+            found += index.searchPrefix(typed, LIMIT).size();
+            long t1 = System.nanoTime();
+            prefix[i] = t1 - t0;
+
+            String word = random.nextBoolean() ? pick(random, firstNames) : pick(random, lastNames);
+            String misspelled = typo(random, word.toLowerCase());
+            int maxEdits = misspelled.length() <= 5 ? 1 : 2;
+            t0 = System.nanoTime();
+            found += index.searchFuzzy(misspelled, maxEdits, LIMIT).size();
+            t1 = System.nanoTime();
+            fuzzy[i] = t1 - t0;
+
+            if (i % 10 == 0) {
+                Student student = students[random.nextInt(students.length)];
+                String renamed = pick(random, firstNames) + " " + pick(random, lastNames);
+                t0 = System.nanoTime();
+                student.setName(renamed);
+                rename[i / 10] = System.nanoTime() - t0;
+            }
+        }
+        if (found == 0) {
+            throw new IllegalStateException("No matches at all");
+        }
+        return new long[][]{prefix, fuzzy, rename};
+    }
+
+    private static boolean report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long p99 = percentile(sorted, 0.99);
+        System.out.printf("%-7s n=%,d  p50=%.1fus  p90=%.1fus  p99=%.1fus  p99.9=%.1fus  max=%.1fus%n",
+                label, sorted.length, micros(percentile(sorted, 0.50)), micros(percentile(sorted, 0.90)),
+                micros(p99), micros(percentile(sorted, 0.999)), micros(sorted[sorted.length - 1]));
+        return p99 < TARGET_P99_NANOS;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    /** Distinct capitalized names of the given number of syllables. */
+    private static String[] names(Random random, int count, int syllables) {
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < count) {
+            StringBuilder name = new StringBuilder();
+            int length = syllables + random.nextInt(2);
+            for (int s = 0; s < length; s++) {
+                name.append(pick(random, SYLLABLES));
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            names.add(name.toString());
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private static String typo(Random random, String word) {
+        int at = random.nextInt(word.length());
+        char letter = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(4)) {
+            case 0:
+                return word.substring(0, at) + letter + word.substring(at + 1);
+            case 1:
+                if (at + 1 < word.length()) {
+                    return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at) + word.substring(at + 2);
+                }
+                return word + letter;
+            case 2:
+                return word.substring(0, at) + letter + word.substring(at);
+            default:
+                return word.length() > 1 ? word.substring(0, at) + word.substring(at + 1) : word + letter;
+        }
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
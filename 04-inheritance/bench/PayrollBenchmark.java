@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs PayrollEngine over a synthetic workforce with 1..N threads, reports
+ * records per second and checks that every run produces identical totals.
+ *
+ *   java -cp out PayrollBenchmark [records] [maxThreads]
+ */
+public class PayrollBenchmark {
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<Payable> workforce = new ArrayList<>(records);
+        SampleData data = new SampleData(9);
+        for (int i = 0; workforce.size() < records; i++) {
+            Person person = data.next(i);
+            if (person instanceof Payable) {
+                workforce.add((Payable) person);
+            }
+        }
+
+        PayrollEngine.PayrollResult reference = null;
+        System.out.printf("%-8s %16s %14s%n", "threads", "records/s", "net");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            PayrollEngine engine = new PayrollEngine(1500, 700, pool);
+            for (int warmup = 0; warmup < 5; warmup++) {
+                engine.run(workforce);
+            }
+            PayrollEngine.PayrollResult result = engine.run(workforce);
+            pool.shutdown();
+
+            System.out.printf("%-8d %,16.0f %14s%n", threads, result.getRecordsPerSecond(),
+                    PayrollEngine.formatCents(result.getNetCents()));
+            if (reference == null) {
+                reference = result;
+            } else if (result.getGrossCents() != reference.getGrossCents()
+                    || result.getDeductionCents() != reference.getDeductionCents()) {
+                throw new IllegalStateException("Totals differ with " + threads + " threads");
+            }
+        }
+        System.out.println();
+        System.out.print(reference);
+    }
+}
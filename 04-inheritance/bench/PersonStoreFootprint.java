@@ -0,0 +1,64 @@
+/**
+ * Compares the retained heap of a plain Person[] with a PersonStore.
+ *
+ * Sizes run one after another and each structure is dropped before the
+ * next, so the peak is the largest Person[] (about 1.9 GB at 10M) plus
+ * SampleData's working set. Run with a large heap, for example:
+ *   java -Xmx4500m -cp out PersonStoreFootprint 1000000 10000000
+ */
+public class PersonStoreFootprint {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1_000_000, 10_000_000} : parse(args);
+
+        System.out.printf("%-12s %16s %16s %8s%n", "records", "Person[] (MB)", "PersonStore (MB)", "ratio");
+        for (int size : sizes) {
+            long arrayBytes = measureArray(size);
+            long storeBytes = measureStore(size);
+            System.out.printf("%-12d %16.1f %16.1f %7.2fx%n", size,
+                    arrayBytes / 1e6, storeBytes / 1e6, (double) arrayBytes / storeBytes);
+        }
+    }
+
+    private static long measureArray(int size) {
+        long before = usedHeap();
+        Person[] people = new SampleData(42).people(size);
+        long after = usedHeap();
+        keep(people.length);
+        return after - before;
+    }
+
+    private static long measureStore(int size) {
+        long before = usedHeap();
+        SampleData data = new SampleData(42);
+        PersonStore store = new PersonStore(size);
+        for (int i = 0; i < size; i++) {
+            store.add(data.next(i));
+        }
+        long after = usedHeap();
+        keep(store.size());
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static volatile int sink;
+
+    private static void keep(int value) {
+        sink = value;
+    }
+
+    private static int[] parse(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Eligibility checks on a deep prerequisite DAG: PrerequisiteGraph's
+ * closure containment test against walking the direct edges on every
+ * call. One op is one eligibility check for a random course.
+ *
+ *   java -cp out PrerequisiteBenchmark [filter] [--json results.json]
+ */
+public class PrerequisiteBenchmark {
+
+    private static final int COURSES = 5_000;
+    private static final int SAMPLE_SIZE = 1024;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("eligible.graphWalk", () -> {
+            Catalog catalog = new Catalog();
+            return ops -> {
+                long eligible = 0;
+                for (int i = 0; i < ops; i++) {
+                    int j = i & (SAMPLE_SIZE - 1);
+                    if (catalog.walk(catalog.targets[j], catalog.completedCodes.get(j))) {
+                        eligible++;
+                    }
+                }
+                return eligible;
+            };
+        });
+        benchmarks.put("eligible.closure", () -> {
+            Catalog catalog = new Catalog();
+            return ops -> {
+                long eligible = 0;
+                for (int i = 0; i < ops; i++) {
+                    int j = i & (SAMPLE_SIZE - 1);
+                    if (catalog.graph.isEligible(catalog.targets[j], catalog.completed[j])) {
+                        eligible++;
+                    }
+                }
+                return eligible;
+            };
+        });
+        benchmarks.put("addPrerequisite", () -> {
+            Catalog catalog = new Catalog();
+            Random random = new Random(7);
+            return ops -> {
+                long added = 0;
+                for (int i = 0; i < ops; i++) {
+                    int a = random.nextInt(COURSES);
+                    int b = random.nextInt(COURSES);
+                    // edges only go from higher to lower index, so no cycles
+                    if (a != b && catalog.graph.addPrerequisite(catalog.courses[Math.max(a, b)],
+                            catalog.courses[Math.min(a, b)])) {
+                        added++;
+                    }
+                }
+                return added;
+            };
+        });
+        Bench.main(args, benchmarks);
+    }
+
+    /** Layered DAG: each course needs up to three courses from the previous 50. */
+    private static final class Catalog {
+        final Course[] courses = new Course[COURSES];
+        final List<List<Course>> direct = new ArrayList<>();
+        final PrerequisiteGraph graph = new PrerequisiteGraph();
+        final Course[] targets = new Course[SAMPLE_SIZE];
+        final long[][] completed = new long[SAMPLE_SIZE][];
+        final List<Set<String>> completedCodes = new ArrayList<>();
+
+        Catalog() {
+            Random random = new Random(42);
+            for (int i = 0; i < COURSES; i++) {
+                courses[i] = new Course(String.format("C%04d", i), "Course " + i, null, 40, 3);
+                graph.addCourse(courses[i]);
+                direct.add(new ArrayList<>());
+                for (int k = 0; k < 3 && i > 0; k++) {
+                    Course prerequisite = courses[Math.max(0, i - 1 - random.nextInt(50))];
+                    if (graph.addPrerequisite(courses[i], prerequisite)) {
+                        direct.get(i).add(prerequisite);
+                    }
+                }
+            }
+            for (int j = 0; j < SAMPLE_SIZE; j++) {
+                targets[j] = courses[random.nextInt(COURSES)];
+                List<Course> done = graph.getAllPrerequisites(targets[j]);
+                // a quarter of the students miss one requirement
+                if (!done.isEmpty() && (j & 3) == 0) {
+                    done.remove(random.nextInt(done.size()));
+                }
+                completed[j] = graph.completedSet(done);
+                Set<String> codes = new HashSet<>();
+                for (Course course : done) {
+                    codes.add(course.getCode());
+                }
+                completedCodes.add(codes);
+            }
+        }
+
+        boolean walk(Course target, Set<String> done) {
+            Set<String> seen = new HashSet<>();
+            ArrayDeque<Course> stack = new ArrayDeque<>();
+            stack.push(target);
+            while (!stack.isEmpty()) {
+                Course course = stack.pop();
+                for (Course prerequisite : direct.get(index(course))) {
+                    if (seen.add(prerequisite.getCode())) {
+                        if (!done.contains(prerequisite.getCode())) {
+                            return false;
+                        }
+                        stack.push(prerequisite);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static int index(Course course) {
+            return Integer.parseInt(course.getCode().substring(1));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Hand-written instanceof loops against QueryEngine over 1M people.
+ * One op is one query; the engine's indexes are built before measuring.
+ *
+ *   topGpa: students, gpa > 3.5 AND major = AI, by gpa desc, limit 100
+ *   itPay:  staff, department = IT AND salary > 12000, count
+ *   ages:   everyone, age BETWEEN 30 AND 40, count
+ *
+ *   java -cp out QueryBenchmark [filter] [--json results.json]
+ */
+public class QueryBenchmark {
+
+    private static final int PEOPLE = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Supplier<Bench.Body>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("topGpa.loop", () -> {
+            Person[] people = new SampleData(6).people(PEOPLE);
+            return ops -> {
+                long checksum = 0;
+                for (int i = 0; i < ops; i++) {
+                    List<Student> matches = new ArrayList<>();
+                    for (Person person : people) {
+                        if (person instanceof Student) {
+                            Student student = (Student) person;
+                            if (student.getGpa() > 3.5 && "AI".equals(student.getMajor())) {
+                                matches.add(student);
+                            }
+                        }
+                    }
+                    matches.sort(Comparator.comparingDouble(Student::getGpa).reversed());
+                    checksum += matches.subList(0, Math.min(100, matches.size())).size();
+                }
+                return checksum;
+            };
+        });
+        benchmarks.put("topGpa.engine", () -> {
+            QueryEngine engine = engine();
+            return ops -> {
+                long checksum = 0;
+                for (int i = 0; i < ops; i++) {
+                    checksum += engine.students()
+                            .where(QueryField.GPA.gt(3.5))
+                            .and(QueryField.MAJOR.eq("AI"))
+                            .orderBy(QueryField.GPA, true)
+                            .limit(100)
+                            .rows().length;
+                }
+                return checksum;
+            };
+        });
+        benchmarks.put("itPay.loop", () -> {
+            Person[] people = new SampleData(6).people(PEOPLE);
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    for (Person person : people) {
+                        if (person instanceof Staff) {
+                            Staff staff = (Staff) person;
+                            if ("IT".equals(staff.getDepartment()) && staff.getSalary() > 12000) {
+                                count++;
+                            }
+                        }
+                    }
+                }
+                return count;
+            };
+        });
+        benchmarks.put("itPay.engine", () -> {
+            QueryEngine engine = engine();
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    count += engine.staff()
+                            .where(QueryField.DEPARTMENT.eq("IT"))
+                            .and(QueryField.SALARY.gt(12000))
+                            .count();
+                }
+                return count;
+            };
+        });
+        benchmarks.put("ages.loop", () -> {
+            Person[] people = new SampleData(6).people(PEOPLE);
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    for (Person person : people) {
+                        if (person.getAge() >= 30 && person.getAge() <= 40) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            };
+        });
+        benchmarks.put("ages.engine", () -> {
+            QueryEngine engine = engine();
+            return ops -> {
+                long count = 0;
+                for (int i = 0; i < ops; i++) {
+                    count += engine.all().where(QueryField.AGE.between(30, 40)).count();
+                }
+                return count;
+            };
+        });
+        Bench.main(args, benchmarks);
+    }
+
+    /** Engine over the same people, with every index these queries use already built. */
+    private static QueryEngine engine() {
+        PersonStore store = new PersonStore(PEOPLE);
+        store.addAll(new SampleData(6).people(PEOPLE));
+        QueryEngine engine = new QueryEngine(store);
+        engine.students().where(QueryField.GPA.gt(3.5)).and(QueryField.MAJOR.eq("AI"))
+                .orderBy(QueryField.GPA, true).limit(100).count();
+        engine.staff().where(QueryField.DEPARTMENT.eq("IT")).and(QueryField.SALARY.gt(12000)).count();
+        engine.all().where(QueryField.AGE.between(30, 40)).count();
+        return engine;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures PersonRegistry throughput for 1-64 threads and several read/write mixes.
+ * A write renames a random person with setId, which moves its registry entry.
+ *
+ *   java -cp out RegistryThroughput [people] [millisPerRun]
+ */
+public class RegistryThroughput {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int[] READ_PERCENTS = {50, 90, 99};
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        Person[] people = new SampleData(42).people(count);
+        PersonRegistry registry = new PersonRegistry(count * 2);
+        for (Person person : people) {
+            registry.register(person);
+        }
+
+        System.out.printf("%-8s %-8s %14s%n", "threads", "reads%", "ops/sec");
+        for (int readPercent : READ_PERCENTS) {
+            for (int threads : THREADS) {
+                double opsPerSecond = run(registry, people, threads, readPercent, millis);
+                System.out.printf("%-8d %-8d %,14.0f%n", threads, readPercent, opsPerSecond);
+            }
+        }
+    }
+
+    private static double run(PersonRegistry registry, Person[] people, int threads,
+                              int readPercent, long millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while ((done & 1023) != 0 || System.nanoTime() < deadline[0]) {
+                    Person person = people[random.nextInt(people.length)];
+                    if (random.nextInt(100) < readPercent) {
+                        registry.get(person.getId());
+                    } else {
+                        rename(person);
+                    }
+                    done++;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        deadline[0] = begin + millis * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static void rename(Person person) {
+        synchronized (person) {
+            String id = person.getId();
+            person.setId(id.endsWith("'") ? id.substring(0, id.length() - 1) : id + "'");
+        }
+    }
+}
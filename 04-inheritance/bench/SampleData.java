@@ -0,0 +1,108 @@
+import java.util.Random;
+
+/**
+ * Deterministic synthetic people for the benchmarks in this folder.
+ * Strings are copied per record, the way a file import would create them.
+ *
+ * Every record gets its own surname, built from syllables so that no two
+ * of the first 2^25 records share a full name; columns and indexes that
+ * key on names see real-world cardinality instead of a few hundred values.
+ */
+public class SampleData {
+
+    static final String[] FIRST_NAMES = {
+            "Ahmed", "Sara", "Mohamed", "Omar", "Fatma", "Hassan", "Ali", "Mona",
+            "Youssef", "Nour", "Khaled", "Laila", "Tarek", "Hana", "Amr", "Salma"
+    };
+    /** 32 syllables; five of them spell one surname. */
+    static final String[] SYLLABLES = {
+            "al", "am", "an", "ba", "da", "di", "el", "fa", "ha", "hi", "ib", "ka", "ki", "la", "li", "ma",
+            "mi", "mo", "na", "ni", "nu", "om", "ra", "ri", "sa", "se", "su", "ta", "ti", "ya", "za", "zi"
+    };
+    static final String[] LAST_NAMES = {
+            "Hassan", "Ali", "Ibrahim", "Mahmoud", "Saleh", "Farouk", "Nabil", "Adel"
+    };
+    static final String[] MAJORS = {
+            "Computer Science", "AI", "Mathematics", "Physics", "Engineering", "Medicine", "Law"
+    };
+    static final String[] SUBJECTS = {
+            "Data Science", "Programming", "Algebra", "Mechanics", "Databases", "Networks"
+    };
+    static final String[] DEPARTMENTS = {"Registrar", "IT", "Finance", "Library", "Admissions"};
+    static final String[] RANKS = {"Full Professor", "Associate Professor", "Assistant Professor"};
+    static final String[] ROLES = {"Secretary", "Coordinator", "Manager"};
+    static final String[] SPECIALIZATIONS = {"Network Admin", "DBA", "DevOps", "Support"};
+    static final String[] CERTIFICATIONS = {"CCNA", "AWS", "Linux", "Oracle", "Azure"};
+    static final String[] TOPICS = {"Machine Learning", "Compilers", "Graph Theory", "Robotics"};
+
+    private final Random random;
+
+    public SampleData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Person next(int index) {
+        String name = copy(pick(FIRST_NAMES)) + " " + surname(index);
+        int age = 18 + random.nextInt(50);
+        switch (index % 6) {
+            case 0:
+                return new UndergraduateStudent(name, age, "S" + index, copy(pick(MAJORS)),
+                        gpa(), 1 + random.nextInt(4));
+            case 1:
+                return new GraduateStudent(name, age, "G" + index, copy(pick(MAJORS)), gpa(),
+                        copy(pick(TOPICS)), "Dr. " + copy(pick(LAST_NAMES)));
+            case 2:
+                return new Professor(name, age, "T" + index, copy(pick(SUBJECTS)), salary(),
+                        copy(pick(RANKS)), random.nextInt(100));
+            case 3:
+                return new Assistant(name, age, "T" + index, copy(pick(SUBJECTS)), salary(),
+                        "Dr. " + copy(pick(LAST_NAMES)), 10 + random.nextInt(30));
+            case 4:
+                return new AdminStaff(name, age, "ST" + index, copy(pick(DEPARTMENTS)), salary(),
+                        copy(pick(ROLES)), random.nextBoolean());
+            default:
+                return new TechnicalStaff(name, age, "ST" + index, copy(pick(DEPARTMENTS)), salary(),
+                        copy(pick(SPECIALIZATIONS)),
+                        new String[]{copy(pick(CERTIFICATIONS)), copy(pick(CERTIFICATIONS))});
+        }
+    }
+
+    public Person[] people(int count) {
+        Person[] people = new Person[count];
+        for (int i = 0; i < count; i++) {
+            people[i] = next(i);
+        }
+        return people;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * A surname unique to the index (below 2^25). The index is scrambled by
+     * an odd multiplier first, so neighbouring records do not share prefixes.
+     */
+    static String surname(int index) {
+        int code = (index * 0x2C9277B5) & ((1 << 25) - 1);
+        StringBuilder name = new StringBuilder(10);
+        for (int i = 0; i < 5; i++) {
+            name.append(SYLLABLES[code & 31]);
+            code >>>= 5;
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private double gpa() {
+        return Math.round(random.nextDouble() * 400) / 100.0;
+    }
+
+    private double salary() {
+        return 3000 + random.nextInt(12000);
+    }
+
+    private static String copy(String value) {
+        return new String(value);
+    }
+}
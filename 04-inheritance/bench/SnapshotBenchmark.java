@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Save/load times and file size of BinarySnapshot against the CSV export.
+ *
+ *   java -cp out SnapshotBenchmark [people]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        List<Person> people = new ArrayList<>(count);
+        SampleData data = new SampleData(21);
+        for (int i = 0; i < count; i++) {
+            people.add(data.next(i));
+        }
+
+        Path file = Files.createTempFile("people", ".snapshot");
+        try {
+            for (int run = 1; run <= 3; run++) {
+                long start = System.nanoTime();
+                BinarySnapshot.write(file, people);
+                long saved = System.nanoTime();
+                List<Person> loaded = BinarySnapshot.read(file);
+                long loadedAt = System.nanoTime();
+                if (loaded.size() != people.size() || !loaded.get(count - 1).equals(people.get(count - 1))) {
+                    throw new IllegalStateException("Snapshot round trip mismatch");
+                }
+                System.out.printf("run %d: save %,d ms, load %,d ms (%,.0f people/s)%n", run,
+                        (saved - start) / 1_000_000, (loadedAt - saved) / 1_000_000,
+                        count / ((loadedAt - saved) / 1e9));
+            }
+            System.out.printf("Snapshot: %.1f MB, CSV: %.1f MB%n", Files.size(file) / 1e6, csvSize(people) / 1e6);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long csvSize(List<Person> people) {
+        StringBuilder line = new StringBuilder(256);
+        long bytes = 0;
+        for (Person person : people) {
+            line.setLength(0);
+            PersonImporter.appendRow(person, line, ',');
+            bytes += line.length() + 1;
+        }
+        return bytes;
+    }
+}
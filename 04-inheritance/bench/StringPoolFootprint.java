@@ -0,0 +1,79 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap of a Person[] built from per-record string copies, with
+ * the shared StringPool turned off and on. Each side runs in its own JVM
+ * because the pool's capacity is read once, at class initialization.
+ *
+ *   java -Xmx4g -cp out StringPoolFootprint [records]
+ */
+public class StringPoolFootprint {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            measure(Integer.parseInt(args[1]));
+            return;
+        }
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long unpooled = fork(size, 0);
+        long pooled = fork(size, StringPool.DEFAULT_CAPACITY);
+        System.out.printf("%-12s %16s %16s %8s%n", "records", "unpooled (MB)", "pooled (MB)", "saved");
+        System.out.printf("%-12d %16.1f %16.1f %7.1f%%%n", size, unpooled / 1e6, pooled / 1e6,
+                100.0 * (unpooled - pooled) / unpooled);
+    }
+
+    private static void measure(int size) {
+        long before = usedHeap();
+        Person[] people = new SampleData(42).people(size);
+        long after = usedHeap();
+        keep(people.length);
+        System.out.println(after - before);
+    }
+
+    private static long fork(int size, int capacity) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Xmx" + Runtime.getRuntime().maxMemory() / (1024 * 1024) + "m");
+        command.add("-Dschool.stringPool.capacity=" + capacity);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StringPoolFootprint.class.getName());
+        command.add("--child");
+        command.add(String.valueOf(size));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("Forked measurement failed for capacity " + capacity);
+        }
+        return Long.parseLong(last.trim());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static volatile int sink;
+
+    private static void keep(int value) {
+        sink = value;
+    }
+}
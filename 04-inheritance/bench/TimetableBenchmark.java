@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves a synthetic timetable with 1..N threads: 5k courses over a
+ * 5-day x 8-period week, 625 teachers teaching about eight courses
+ * each, and every course shared by three of 600 student cohorts, with
+ * only ~5% spare room-slots.
+ * Reports solve time, unscheduled courses and re-checks conflicts.
+ *
+ *   java -cp out TimetableBenchmark [courses] [maxThreads] [attempts]
+ */
+public class TimetableBenchmark {
+
+    private static final int SLOTS = 40;
+
+    public static void main(String[] args) {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int attempts = args.length > 2 ? Integer.parseInt(args[2]) : TimetableSolver.DEFAULT_ATTEMPTS;
+
+        Random random = new Random(17);
+        List<Room> rooms = new ArrayList<>();
+        int roomCount = courseCount * 105 / 100 / SLOTS + 1;
+        for (int r = 0; r < roomCount; r++) {
+            rooms.add(new Room("R" + r, r % 10 == 0 ? 200 : r % 3 == 0 ? 80 : 40));
+        }
+        Teacher[] teachers = new Teacher[courseCount / 8 + 1];
+        for (int t = 0; t < teachers.length; t++) {
+            teachers[t] = t % 3 == 0
+                    ? new Professor("Prof " + t, 50, "P" + t, "Subject " + t % 40, 15000, "Full Professor", 10)
+                    : new Assistant("TA " + t, 28, "A" + t, "Subject " + t % 40, 5000, "Prof " + t, 20);
+        }
+        int cohortCount = courseCount * 3 / 25;
+        Course[] courses = new Course[courseCount];
+        String[][] cohorts = new String[courseCount][];
+        for (int c = 0; c < courseCount; c++) {
+            int capacity = random.nextInt(20) == 0 ? 150 : random.nextInt(4) == 0 ? 60 : 35;
+            courses[c] = new Course(String.format("C%05d", c), "Course " + c,
+                    teachers[random.nextInt(teachers.length)], capacity, 3);
+            int first = random.nextInt(cohortCount);
+            int second = (first + 1 + random.nextInt(cohortCount / 2)) % cohortCount;
+            int third = (second + 1 + random.nextInt(cohortCount / 2)) % cohortCount;
+            cohorts[c] = new String[]{"Cohort " + first, "Cohort " + second, "Cohort " + third};
+        }
+
+        System.out.printf("%d courses, %d rooms, %d teachers, %d cohorts, %d slots, %d attempts%n",
+                courseCount, rooms.size(), teachers.length, cohortCount, SLOTS, attempts);
+        System.out.printf("%-8s %10s %12s %10s %10s%n", "threads", "ms", "unscheduled", "attempt", "conflicts");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            TimetableSolver solver = new TimetableSolver(SLOTS, rooms, attempts, pool);
+            for (int c = 0; c < courseCount; c++) {
+                solver.addCourse(courses[c], cohorts[c]);
+            }
+            for (int warmup = 0; warmup < 3; warmup++) {
+                solver.solve();
+            }
+            long start = System.nanoTime();
+            TimetableSolver.Timetable timetable = solver.solve();
+            long elapsed = System.nanoTime() - start;
+            pool.shutdown();
+            System.out.printf("%-8d %10.1f %12d %10d %10d%n", threads, elapsed / 1e6,
+                    timetable.getUnscheduledCount(), timetable.getAttempt(), timetable.findConflicts().size());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Commit throughput and latency of WriteAheadLog under each SyncPolicy.
+ *
+ * Every thread calls setGpa on its own watched students, so each call is
+ * one committed SET_FIELD record; latency is measured around the setter.
+ * "per batch" is records per group write, the group commit at work.
+ * Finally the last log is replayed onto its snapshot to time recovery.
+ *
+ *   java -cp out WalBenchmark [commitsPerRun] [threads...]
+ *
+ * Runs in a temporary directory on the default file system; point
+ * java.io.tmpdir at the disk you care about.
+ */
+public class WalBenchmark {
+
+    private static final int STUDENTS_PER_THREAD = 100;
+
+    public static void main(String[] args) throws Exception {
+        int commits = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int[] threadCounts = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 8, 64};
+
+        Path dir = Files.createTempDirectory("wal-bench");
+        try {
+            System.out.printf("%-9s %7s %12s %9s %9s %9s %10s %9s%n", "policy", "threads", "commits/s",
+                    "p50 us", "p99 us", "p99.9 us", "per batch", "syncs");
+            for (WriteAheadLog.SyncPolicy policy : WriteAheadLog.SyncPolicy.values()) {
+                for (int threads : threadCounts) {
+                    run(dir, policy, threads, commits);
+                }
+            }
+            recover(dir, commits);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static void run(Path dir, WriteAheadLog.SyncPolicy policy, int threads, int commits)
+            throws Exception {
+        Path logFile = dir.resolve("people.wal");
+        Files.deleteIfExists(logFile);
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < threads * STUDENTS_PER_THREAD; i++) {
+            people.add(new Student("Student " + i, 20, "S" + i, "Computer Science", 3.0));
+        }
+        BinarySnapshot.write(dir.resolve("people.snapshot"), people);
+
+        int perThread = Math.max(1, commits / threads);
+        long[][] latencies = new long[threads][perThread];
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, policy)) {
+            for (Person person : people) {
+                log.watch(person);
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<Person> mine = people.subList(t * STUDENTS_PER_THREAD, (t + 1) * STUDENTS_PER_THREAD);
+                long[] timings = latencies[t];
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < timings.length; i++) {
+                        Student student = (Student) mine.get(i % mine.size());
+                        long t0 = System.nanoTime();
+                        student.setGpa((i % 400) / 100.0);
+                        timings[i] = System.nanoTime() - t0;
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            long[] all = new long[threads * perThread];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(latencies[t], 0, all, t * perThread, perThread);
+            }
+            Arrays.sort(all);
+            System.out.printf("%-9s %7d %12.0f %9.1f %9.1f %9.1f %10.1f %9d%n", policy, threads,
+                    all.length / (elapsed / 1e9), micros(percentile(all, 0.50)), micros(percentile(all, 0.99)),
+                    micros(percentile(all, 0.999)), (double) log.getRecordCount() / log.getBatchCount(),
+                    log.getSyncCount());
+        }
+    }
+
+    private static void recover(Path dir, int commits) throws IOException {
+        long start = System.nanoTime();
+        List<Person> recovered = WriteAheadLog.recover(dir.resolve("people.snapshot"),
+                dir.resolve("people.wal"), null);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("recovered %,d people and ~%,d records in %.1f ms%n", recovered.size(), commits,
+                elapsed / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class AdminStaff extends Staff {
@@ -8,7 +9,7 @@ public class AdminStaff extends Staff {
     public AdminStaff(String name, int age, String id, String department, double salary,
                       String role, boolean canAccessRecords) {
         super(name, age, id, department, salary);
-        this.role = role;
+        this.role = StringPool.attribute(role);
         this.canAccessRecords = canAccessRecords;
     }
 
@@ -24,20 +25,45 @@ public class AdminStaff extends Staff {
         System.out.println("Hi, I'm " + name + ", " + role + " in " + department);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Role: ", role);
+        RenderSupport.line(out, "Can Access Records: ", canAccessRecords);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", ").append(role).append(" in ").append(department)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", role=", role);
+        out.append(", canAccessRecords=");
+        RenderSupport.append(out, canAccessRecords);
+    }
+
     public String getRole() {
         return role;
     }
 
-    public void setRole(String role) {
-        this.role = role;
+    public synchronized void setRole(String role) {
+        fireBeforeChange(PersonField.ROLE);
+        this.role = StringPool.attribute(role);
+        fireAfterChange(PersonField.ROLE);
     }
 
     public boolean isCanAccessRecords() {
         return canAccessRecords;
     }
 
-    public void setCanAccessRecords(boolean canAccessRecords) {
+    public synchronized void setCanAccessRecords(boolean canAccessRecords) {
+        fireBeforeChange(PersonField.CAN_ACCESS_RECORDS);
         this.canAccessRecords = canAccessRecords;
+        fireAfterChange(PersonField.CAN_ACCESS_RECORDS);
     }
 
     @Override
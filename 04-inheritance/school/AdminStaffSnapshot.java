@@ -0,0 +1,54 @@
+import java.util.Objects;
+
+public final class AdminStaffSnapshot extends StaffSnapshot {
+
+    private final String role;
+    private final boolean canAccessRecords;
+
+    public AdminStaffSnapshot(String name, int age, String id, String department, double salary,
+                              String role, boolean canAccessRecords) {
+        super(name, age, id, department, salary, hash(role, canAccessRecords));
+        this.role = role;
+        this.canAccessRecords = canAccessRecords;
+    }
+
+    public static AdminStaffSnapshot of(AdminStaff admin) {
+        return new AdminStaffSnapshot(admin.getName(), admin.getAge(), admin.getId(),
+                admin.getDepartment(), admin.getSalary(), admin.getRole(),
+                admin.isCanAccessRecords());
+    }
+
+    @Override
+    public AdminStaff toPerson() {
+        return new AdminStaff(getName(), getAge(), getId(),
+                getDepartment(), getSalary(), role, canAccessRecords);
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isCanAccessRecords() {
+        return canAccessRecords;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", role='").append(role).append('\'')
+                .append(", canAccessRecords=").append(canAccessRecords);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        AdminStaffSnapshot that = (AdminStaffSnapshot) obj;
+        return Objects.equals(role, that.role) &&
+                canAccessRecords == that.canAccessRecords;
+    }
+
+    private static int hash(String role, boolean canAccessRecords) {
+        return 31 * Objects.hashCode(role) + Boolean.hashCode(canAccessRecords);
+    }
+}
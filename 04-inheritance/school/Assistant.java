@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class Assistant extends Teacher {
@@ -24,20 +25,45 @@ public class Assistant extends Teacher {
         System.out.println("Hi, I'm " + name + ", a teaching assistant for " + subject);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Supervising Professor: ", supervisingProfessor);
+        RenderSupport.line(out, "Hours/Week: ", hoursPerWeek);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", a teaching assistant for ").append(subject)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", supervisingProfessor=", supervisingProfessor);
+        out.append(", hoursPerWeek=");
+        RenderSupport.append(out, hoursPerWeek);
+    }
+
     public String getSupervisingProfessor() {
         return supervisingProfessor;
     }
 
-    public void setSupervisingProfessor(String supervisingProfessor) {
+    public synchronized void setSupervisingProfessor(String supervisingProfessor) {
+        fireBeforeChange(PersonField.SUPERVISOR);
         this.supervisingProfessor = supervisingProfessor;
+        fireAfterChange(PersonField.SUPERVISOR);
     }
 
     public int getHoursPerWeek() {
         return hoursPerWeek;
     }
 
-    public void setHoursPerWeek(int hoursPerWeek) {
+    public synchronized void setHoursPerWeek(int hoursPerWeek) {
+        fireBeforeChange(PersonField.HOURS_PER_WEEK);
         this.hoursPerWeek = hoursPerWeek;
+        fireAfterChange(PersonField.HOURS_PER_WEEK);
     }
 
     @Override
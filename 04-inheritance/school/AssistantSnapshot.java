@@ -0,0 +1,54 @@
+import java.util.Objects;
+
+public final class AssistantSnapshot extends TeacherSnapshot {
+
+    private final String supervisingProfessor;
+    private final int hoursPerWeek;
+
+    public AssistantSnapshot(String name, int age, String id, String subject, double salary,
+                             String supervisingProfessor, int hoursPerWeek) {
+        super(name, age, id, subject, salary, hash(supervisingProfessor, hoursPerWeek));
+        this.supervisingProfessor = supervisingProfessor;
+        this.hoursPerWeek = hoursPerWeek;
+    }
+
+    public static AssistantSnapshot of(Assistant assistant) {
+        return new AssistantSnapshot(assistant.getName(), assistant.getAge(), assistant.getId(),
+                assistant.getSubject(), assistant.getSalary(), assistant.getSupervisingProfessor(),
+                assistant.getHoursPerWeek());
+    }
+
+    @Override
+    public Assistant toPerson() {
+        return new Assistant(getName(), getAge(), getId(),
+                getSubject(), getSalary(), supervisingProfessor, hoursPerWeek);
+    }
+
+    public String getSupervisingProfessor() {
+        return supervisingProfessor;
+    }
+
+    public int getHoursPerWeek() {
+        return hoursPerWeek;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", supervisingProfessor='").append(supervisingProfessor).append('\'')
+                .append(", hoursPerWeek=").append(hoursPerWeek);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        AssistantSnapshot that = (AssistantSnapshot) obj;
+        return Objects.equals(supervisingProfessor, that.supervisingProfessor) &&
+                hoursPerWeek == that.hoursPerWeek;
+    }
+
+    private static int hash(String supervisingProfessor, int hoursPerWeek) {
+        return 31 * Objects.hashCode(supervisingProfessor) + hoursPerWeek;
+    }
+}
@@ -0,0 +1,531 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary snapshot of the Person hierarchy, read and written
+ * through FileChannel.
+ *
+ * Layout:
+ *   header  - magic "SCHL", format version (u16), oldest reader version
+ *             that can read the file (u16)
+ *   frames  - [section u8][payload length u32][payload][CRC32 of payload u32]
+ *
+ * A section is one or more consecutive frames of the same type; an END
+ * frame closes the file. The STRINGS section is a shared string table
+ * (every distinct string once, referenced by varint index, 0 = null).
+ * The PEOPLE section holds one record per person:
+ *   [record length varint][type tag u8][fields...]
+ * Ints are zigzag varints, doubles are 8 raw bytes.
+ *
+ * Schema evolution: readers skip frames of unknown sections (courses and
+ * enrollments will get their own sections), ignore trailing fields they
+ * do not know inside a record, and use defaults for fields an older
+ * writer did not write. Incompatible changes raise the reader version.
+ */
+public class BinarySnapshot {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int MIN_READER_VERSION = 1;
+
+    static final byte SECTION_END = 0;
+    static final byte SECTION_STRINGS = 1;
+    static final byte SECTION_PEOPLE = 2;
+
+    private static final byte[] MAGIC = {'S', 'C', 'H', 'L'};
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 5;
+    private static final int FRAME_SIZE = 1 << 20;
+    /** Largest frame a reader accepts; only a single oversized record makes a frame exceed FRAME_SIZE. */
+    private static final int MAX_FRAME_SIZE = 64 << 20;
+
+    private BinarySnapshot() {
+    }
+
+    // ==================== Writing ====================
+
+    /** Writes the snapshot to a temporary file, forces it to disk, then renames it into place. */
+    public static void write(Path file, List<? extends Person> people) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Person person : people) {
+            forEachString(person, value -> intern(value, indexes, strings));
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(MAGIC).putShort((short) FORMAT_VERSION).putShort((short) MIN_READER_VERSION).flip();
+            writeFully(channel, header);
+
+            FrameWriter frames = new FrameWriter(channel);
+            RecordBuffer record = new RecordBuffer();
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                record.clear();
+                record.putVarint(bytes.length);
+                record.put(bytes);
+                frames.append(SECTION_STRINGS, record);
+            }
+            for (Person person : people) {
+                record.clear();
+                encode(person, record, indexes);
+                frames.appendRecord(SECTION_PEOPLE, record);
+            }
+            frames.flush();
+            frames.writeFrame(SECTION_END, new byte[0], 0);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private interface StringVisitor {
+        void visit(String value);
+    }
+
+    private static void forEachString(Person person, StringVisitor visitor) {
+        visitor.visit(person.getName());
+        visitor.visit(person.getId());
+        if (person instanceof Student) {
+            visitor.visit(((Student) person).getMajor());
+        } else if (person instanceof Payable) {
+            visitor.visit(((Payable) person).getPayrollGroup());
+        }
+        switch (PersonType.of(person)) {
+            case GRADUATE_STUDENT:
+                visitor.visit(((GraduateStudent) person).getThesisTopic());
+                visitor.visit(((GraduateStudent) person).getSupervisor());
+                break;
+            case PROFESSOR:
+                visitor.visit(((Professor) person).getRank());
+                break;
+            case ASSISTANT:
+                visitor.visit(((Assistant) person).getSupervisingProfessor());
+                break;
+            case ADMIN_STAFF:
+                visitor.visit(((AdminStaff) person).getRole());
+                break;
+            case TECHNICAL_STAFF:
+                TechnicalStaff tech = (TechnicalStaff) person;
+                visitor.visit(tech.getSpecialization());
+                if (tech.getCertifications() != null) {
+                    for (String certification : tech.getCertifications()) {
+                        visitor.visit(certification);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void intern(String value, Map<String, Integer> indexes, List<String> strings) {
+        if (value != null && !indexes.containsKey(value)) {
+            strings.add(value);
+            indexes.put(value, strings.size());
+        }
+    }
+
+    private static void encode(Person person, RecordBuffer out, Map<String, Integer> strings) {
+        PersonType type = PersonType.of(person);
+        out.put(type.tag());
+        out.putString(person.getName(), strings);
+        out.putSignedVarint(person.getAge());
+        out.putString(person.getId(), strings);
+        if (person instanceof Student) {
+            out.putString(((Student) person).getMajor(), strings);
+            out.putDouble(((Student) person).getGpa());
+        } else if (person instanceof Payable) {
+            out.putString(((Payable) person).getPayrollGroup(), strings);
+            out.putDouble(((Payable) person).getSalary());
+        }
+        switch (type) {
+            case UNDERGRADUATE_STUDENT:
+                out.putSignedVarint(((UndergraduateStudent) person).getYear());
+                break;
+            case GRADUATE_STUDENT:
+                out.putString(((GraduateStudent) person).getThesisTopic(), strings);
+                out.putString(((GraduateStudent) person).getSupervisor(), strings);
+                break;
+            case PROFESSOR:
+                out.putString(((Professor) person).getRank(), strings);
+                out.putSignedVarint(((Professor) person).getPublications());
+                break;
+            case ASSISTANT:
+                out.putString(((Assistant) person).getSupervisingProfessor(), strings);
+                out.putSignedVarint(((Assistant) person).getHoursPerWeek());
+                break;
+            case ADMIN_STAFF:
+                out.putString(((AdminStaff) person).getRole(), strings);
+                out.put((byte) (((AdminStaff) person).isCanAccessRecords() ? 1 : 0));
+                break;
+            case TECHNICAL_STAFF:
+                TechnicalStaff tech = (TechnicalStaff) person;
+                out.putString(tech.getSpecialization(), strings);
+                String[] certifications = tech.getCertifications();
+                // 0 = null array, otherwise length + 1
+                out.putVarint(certifications == null ? 0 : certifications.length + 1);
+                if (certifications != null) {
+                    for (String certification : certifications) {
+                        out.putString(certification, strings);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ==================== Reading ====================
+
+    public static List<Person> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            for (byte b : MAGIC) {
+                if (header.get() != b) {
+                    throw new IOException("Not a snapshot file: " + file);
+                }
+            }
+            int version = header.getShort() & 0xFFFF;
+            int minReader = header.getShort() & 0xFFFF;
+            if (minReader > FORMAT_VERSION) {
+                throw new IOException("Snapshot version " + version + " needs reader version " + minReader
+                        + ", this reader is " + FORMAT_VERSION);
+            }
+
+            List<String> strings = new ArrayList<>();
+            strings.add(null);
+            List<Person> people = new ArrayList<>();
+            ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+            ByteBuffer payload = ByteBuffer.allocate(FRAME_SIZE);
+            ByteBuffer checksum = ByteBuffer.allocate(4);
+            CRC32 crc = new CRC32();
+
+            while (true) {
+                frameHeader.clear();
+                readFully(channel, frameHeader);
+                frameHeader.flip();
+                byte section = frameHeader.get();
+                int length = frameHeader.getInt();
+                if (section == SECTION_END) {
+                    return people;
+                }
+                // checked before allocating, so a corrupt length is an IOException, not an OOM
+                if (length < 0 || length > MAX_FRAME_SIZE || length > channel.size() - channel.position() - 4) {
+                    throw new IOException("Corrupt frame length: " + length);
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                readFully(channel, payload);
+                checksum.clear();
+                readFully(channel, checksum);
+                crc.reset();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != checksum.getInt(0)) {
+                    throw new IOException("Checksum mismatch in section " + section);
+                }
+                payload.flip();
+
+                if (section == SECTION_STRINGS) {
+                    while (payload.hasRemaining()) {
+                        int size = readVarint(payload);
+                        strings.add(new String(payload.array(), payload.position(), size, StandardCharsets.UTF_8));
+                        payload.position(payload.position() + size);
+                    }
+                } else if (section == SECTION_PEOPLE) {
+                    while (payload.hasRemaining()) {
+                        int size = readVarint(payload);
+                        int end = payload.position() + size;
+                        Person person = decode(payload, end, strings);
+                        if (person != null) {
+                            people.add(person);
+                        }
+                        payload.position(end);
+                    }
+                }
+                // Frames of sections this reader does not know are skipped
+            }
+        }
+    }
+
+    /** Returns null for a type tag this reader does not know. */
+    private static Person decode(ByteBuffer in, int end, List<String> strings) {
+        int tag = in.get() & 0xFF;
+        if (tag >= PersonType.values().length) {
+            return null;
+        }
+        PersonType type = PersonType.fromTag((byte) tag);
+        String name = readString(in, end, strings);
+        int age = readSignedVarint(in, end);
+        String id = readString(in, end, strings);
+        String group = readString(in, end, strings);
+        double amount = in.position() + 8 <= end ? in.getDouble() : 0;
+
+        switch (type) {
+            case STUDENT:
+                return new Student(name, age, id, group, amount);
+            case UNDERGRADUATE_STUDENT:
+                return new UndergraduateStudent(name, age, id, group, amount, readSignedVarint(in, end));
+            case GRADUATE_STUDENT:
+                return new GraduateStudent(name, age, id, group, amount,
+                        readString(in, end, strings), readString(in, end, strings));
+            case TEACHER:
+                return new Teacher(name, age, id, group, amount);
+            case PROFESSOR:
+                return new Professor(name, age, id, group, amount,
+                        readString(in, end, strings), readSignedVarint(in, end));
+            case ASSISTANT:
+                return new Assistant(name, age, id, group, amount,
+                        readString(in, end, strings), readSignedVarint(in, end));
+            case STAFF:
+                return new Staff(name, age, id, group, amount);
+            case ADMIN_STAFF:
+                String role = readString(in, end, strings);
+                boolean canAccessRecords = in.position() < end && in.get() == 1;
+                return new AdminStaff(name, age, id, group, amount, role, canAccessRecords);
+            case TECHNICAL_STAFF:
+                String specialization = readString(in, end, strings);
+                int count = in.position() < end ? readVarint(in) : 1;
+                String[] certifications = count == 0 ? null : new String[count - 1];
+                for (int i = 0; i < count - 1; i++) {
+                    certifications[i] = readString(in, end, strings);
+                }
+                return new TechnicalStaff(name, age, id, group, amount, specialization, certifications);
+            default:
+                return null;
+        }
+    }
+
+    private static String readString(ByteBuffer in, int end, List<String> strings) {
+        return in.position() < end ? strings.get(readVarint(in)) : null;
+    }
+
+    private static int readSignedVarint(ByteBuffer in, int end) {
+        if (in.position() >= end) {
+            return 0;
+        }
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    // ==================== Single records ====================
+
+    /**
+     * Appends one person as a self-contained record: its own string table
+     * ([count varint][length varint][UTF-8]...) followed by the same
+     * encoding the PEOPLE section uses. WriteAheadLog stores added people
+     * this way.
+     */
+    static void encodeStandalone(Person person, RecordBuffer out) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        forEachString(person, value -> intern(value, indexes, strings));
+        out.putVarint(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.putVarint(bytes.length);
+            out.put(bytes);
+        }
+        encode(person, out, indexes);
+    }
+
+    /** Reads a record written by encodeStandalone; null for an unknown type tag. */
+    static Person decodeStandalone(ByteBuffer in, int end) {
+        int count = readVarint(in);
+        List<String> strings = new ArrayList<>(count + 1);
+        strings.add(null);
+        for (int i = 0; i < count; i++) {
+            int size = readVarint(in);
+            strings.add(new String(in.array(), in.arrayOffset() + in.position(), size, StandardCharsets.UTF_8));
+            in.position(in.position() + size);
+        }
+        return decode(in, end, strings);
+    }
+
+    // ==================== Channel helpers ====================
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+    }
+
+    /** Growable byte buffer for one record. */
+    static final class RecordBuffer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        void put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+        }
+
+        void put(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        void putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putSignedVarint(int value) {
+            putVarint((value << 1) ^ (value >> 31));
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void putDouble(double value) {
+            putLong(Double.doubleToRawLongBits(value));
+        }
+
+        void putString(String value, Map<String, Integer> strings) {
+            putVarint(value == null ? 0 : strings.get(value));
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    /** Packs records into checksummed frames of about FRAME_SIZE bytes. */
+    static final class FrameWriter {
+        private final FileChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        private final ByteBuffer trailer = ByteBuffer.allocate(4);
+        private final CRC32 crc = new CRC32();
+        private final RecordBuffer lengthPrefix = new RecordBuffer();
+        private byte[] frame = new byte[FRAME_SIZE];
+        private int size;
+        private byte section = SECTION_END;
+
+        FrameWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Appends bytes that already carry their own length prefix. */
+        void append(byte section, RecordBuffer record) throws IOException {
+            append(section, record.array(), record.size());
+        }
+
+        /** Appends a record preceded by its length as a varint. */
+        void appendRecord(byte section, RecordBuffer record) throws IOException {
+            lengthPrefix.clear();
+            lengthPrefix.putVarint(record.size());
+            reserve(section, lengthPrefix.size() + record.size());
+            copy(lengthPrefix.array(), lengthPrefix.size());
+            copy(record.array(), record.size());
+        }
+
+        private void append(byte section, byte[] bytes, int length) throws IOException {
+            reserve(section, length);
+            copy(bytes, length);
+        }
+
+        /** Starts a new frame if the section changes or the bytes do not fit; records never span frames. */
+        private void reserve(byte section, int length) throws IOException {
+            if (section != this.section || size + length > frame.length) {
+                flush();
+                this.section = section;
+                if (length > MAX_FRAME_SIZE) {
+                    throw new IOException("Record of " + length + " bytes exceeds the frame limit");
+                }
+                if (length > frame.length) {
+                    frame = new byte[length];
+                }
+            }
+        }
+
+        private void copy(byte[] bytes, int length) {
+            System.arraycopy(bytes, 0, frame, size, length);
+            size += length;
+        }
+
+        void flush() throws IOException {
+            if (size > 0) {
+                writeFrame(section, frame, size);
+                size = 0;
+            }
+        }
+
+        void writeFrame(byte section, byte[] payload, int length) throws IOException {
+            crc.reset();
+            crc.update(payload, 0, length);
+            header.clear();
+            header.put(section).putInt(length).flip();
+            trailer.clear();
+            trailer.putInt((int) crc.getValue()).flip();
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(payload, 0, length));
+            writeFully(channel, trailer);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Objects;
+
+/**
+ * A course offering. The code identifies the course; capacity is fixed
+ * once the course exists because EnrollmentService sizes its seat
+ * counters from it.
+ */
+public class Course {
+
+    public static final int DEFAULT_CAPACITY = 30;
+    public static final int DEFAULT_CREDITS = 3;
+
+    private final String code;
+    private String title;
+    private Teacher teacher;
+    private final int capacity;
+    private int credits;
+
+    public Course(String code, String title, Teacher teacher) {
+        this(code, title, teacher, DEFAULT_CAPACITY, DEFAULT_CREDITS);
+    }
+
+    public Course(String code, String title, Teacher teacher, int capacity, int credits) {
+        if (code == null) {
+            throw new IllegalArgumentException("Course code is required");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        if (credits < 0) {
+            throw new IllegalArgumentException("Invalid credits: " + credits);
+        }
+        this.code = code;
+        this.title = title;
+        this.teacher = teacher;
+        this.capacity = capacity;
+        this.credits = credits;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Teacher getTeacher() {
+        return teacher;
+    }
+
+    public void setTeacher(Teacher teacher) {
+        this.teacher = teacher;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public void setCredits(int credits) {
+        if (credits < 0) {
+            throw new IllegalArgumentException("Invalid credits: " + credits);
+        }
+        this.credits = credits;
+    }
+
+    @Override
+    public String toString() {
+        return "Course{" +
+                "code='" + code + '\'' +
+                ", title='" + title + '\'' +
+                ", teacher=" + (teacher == null ? "null" : "'" + teacher.getName() + "'") +
+                ", capacity=" + capacity +
+                ", credits=" + credits +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        Course course = (Course) obj;
+        return code.equals(course.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(code);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * A confirmed seat: one student in one course. Equality follows the
+ * student's identity, not the id, which can change while the enrollment
+ * sits in a set; courses compare by their fixed code.
+ */
+public class Enrollment {
+
+    private final Student student;
+    private final Course course;
+
+    public Enrollment(Student student, Course course) {
+        this.student = student;
+        this.course = course;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    @Override
+    public String toString() {
+        return "Enrollment{" +
+                "student='" + student.getId() + '\'' +
+                ", course='" + course.getCode() + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        Enrollment enrollment = (Enrollment) obj;
+        return student == enrollment.student &&
+                course.equals(enrollment.course);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(student) + course.hashCode();
+    }
+}
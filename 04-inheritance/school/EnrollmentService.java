@@ -0,0 +1,286 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seat reservation for course enrollment, built for registration-day
+ * bursts where many threads hit the same course at once.
+ *
+ * Enrolling is two-phase: reserve() holds a seat and returns a
+ * Reservation, which is then either confirmed (the student is enrolled)
+ * or released (the seat goes back). Seats come from a striped SeatPool,
+ * so a course can never be overbooked and a hot course does not
+ * serialize every thread on one counter. Pending holds that are never
+ * completed can be reclaimed with releaseExpired().
+ *
+ * A student holds at most one reservation per course at a time. Students
+ * are keyed by identity, not by id, so a seat stays with its student
+ * across setId.
+ */
+public class EnrollmentService {
+
+    private final ConcurrentHashMap<String, CourseSeats> courses = new ConcurrentHashMap<>();
+    private volatile WriteAheadLog log;
+
+    public void addCourse(Course course) {
+        if (courses.putIfAbsent(course.getCode(), new CourseSeats(this, course)) != null) {
+            throw new IllegalStateException("Duplicate course: " + course.getCode());
+        }
+    }
+
+    /** Logs confirmed enrollments and drops from now on; null stops logging. */
+    public void setLog(WriteAheadLog log) {
+        this.log = log;
+    }
+
+    // ==================== Reservation ====================
+
+    /**
+     * Holds a seat for the student.
+     *
+     * @return the pending reservation, or null when the course is full
+     * @throws IllegalStateException if the student already holds or has a seat in the course
+     */
+    public Reservation reserve(Student student, Course course) {
+        CourseSeats seats = seatsOf(course);
+        IdentityKey<Student> key = keyOf(student);
+        if (seats.holders.containsKey(key)) {
+            throw new IllegalStateException(student.getId() + " already holds a seat in " + course.getCode());
+        }
+        int stripe = seats.pool.acquire(stripeHint());
+        if (stripe < 0) {
+            seats.rejected.increment();
+            return null;
+        }
+        Reservation reservation = new Reservation(seats, student, stripe);
+        if (seats.holders.putIfAbsent(key, reservation) != null) {
+            // lost a race with another reservation for the same student
+            seats.pool.release(stripe);
+            throw new IllegalStateException(student.getId() + " already holds a seat in " + course.getCode());
+        }
+        return reservation;
+    }
+
+    /** Reserves and confirms in one step; returns null when the course is full. */
+    public Enrollment enroll(Student student, Course course) {
+        Reservation reservation = reserve(student, course);
+        return reservation == null ? null : reservation.confirm();
+    }
+
+    /** Gives up a confirmed seat. Returns false if the student was not enrolled. */
+    public boolean drop(Student student, Course course) {
+        CourseSeats seats = seatsOf(course);
+        Reservation reservation = seats.holders.get(keyOf(student));
+        return reservation != null && reservation.finish(Reservation.CONFIRMED, Reservation.DROPPED);
+    }
+
+    /** Releases pending reservations older than maxAgeNanos; returns how many were released. */
+    public int releaseExpired(long maxAgeNanos) {
+        long now = System.nanoTime();
+        int released = 0;
+        for (CourseSeats seats : courses.values()) {
+            for (Reservation reservation : seats.holders.values()) {
+                if (now - reservation.createdNanos > maxAgeNanos && reservation.release()) {
+                    released++;
+                }
+            }
+        }
+        return released;
+    }
+
+    // ==================== Queries ====================
+
+    public int getAvailableSeats(Course course) {
+        return seatsOf(course).pool.available();
+    }
+
+    public int getConfirmedSeats(Course course) {
+        return seatsOf(course).confirmed.get();
+    }
+
+    /** Seats held by reservations that are neither confirmed nor released yet. */
+    public int getPendingSeats(Course course) {
+        CourseSeats seats = seatsOf(course);
+        return seats.pool.capacity() - seats.pool.available() - seats.confirmed.get();
+    }
+
+    /** Reservations turned away because the course was full. */
+    public long getRejectedCount(Course course) {
+        return seatsOf(course).rejected.sum();
+    }
+
+    public boolean isEnrolled(Student student, Course course) {
+        Reservation reservation = seatsOf(course).holders.get(keyOf(student));
+        return reservation != null && reservation.getState() == Reservation.CONFIRMED;
+    }
+
+    public List<Enrollment> getEnrollments(Course course) {
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (Reservation reservation : seatsOf(course).holders.values()) {
+            if (reservation.getState() == Reservation.CONFIRMED) {
+                enrollments.add(new Enrollment(reservation.student, course));
+            }
+        }
+        return enrollments;
+    }
+
+    private CourseSeats seatsOf(Course course) {
+        CourseSeats seats = courses.get(course.getCode());
+        if (seats == null) {
+            throw new IllegalArgumentException("Unknown course: " + course.getCode());
+        }
+        return seats;
+    }
+
+    /** Ids are still required, since the write-ahead log records students by id. */
+    private static IdentityKey<Student> keyOf(Student student) {
+        if (student.getId() == null) {
+            throw new IllegalArgumentException("Student id is required");
+        }
+        return new IdentityKey<>(student);
+    }
+
+    /** Keeps a thread on the same stripe across calls. */
+    private static int stripeHint() {
+        long id = Thread.currentThread().getId();
+        return (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+    }
+
+    // ==================== Per-course state ====================
+
+    private static final class CourseSeats {
+        final EnrollmentService service;
+        final Course course;
+        final SeatPool pool;
+        /** student -> live reservation (pending or confirmed) */
+        final ConcurrentHashMap<IdentityKey<Student>, Reservation> holders = new ConcurrentHashMap<>();
+        final AtomicInteger confirmed = new AtomicInteger();
+        final LongAdder rejected = new LongAdder();
+
+        CourseSeats(EnrollmentService service, Course course) {
+            this.service = service;
+            this.course = course;
+            this.pool = new SeatPool(course.getCapacity());
+        }
+    }
+
+    /**
+     * A held seat. Moves PENDING -> CONFIRMED -> DROPPED, or
+     * PENDING -> RELEASED. Leaving PENDING is a CAS and leaving CONFIRMED
+     * happens under the reservation's monitor, so a seat is returned to
+     * the pool exactly once.
+     *
+     * With a log, confirm() holds the reservation in an internal
+     * CONFIRMING state, reported as PENDING, until the enrollment is
+     * committed, so nobody sees the student enrolled before the log does.
+     * If the write fails it goes on to RELEASED instead.
+     */
+    public static final class Reservation {
+
+        public static final int PENDING = 0;
+        public static final int CONFIRMED = 1;
+        public static final int RELEASED = 2;
+        public static final int DROPPED = 3;
+        /** Being logged by confirm(); never returned by getState(). */
+        private static final int CONFIRMING = 4;
+
+        private final CourseSeats seats;
+        private final Student student;
+        private final long createdNanos = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final int stripe;
+
+        private Reservation(CourseSeats seats, Student student, int stripe) {
+            this.seats = seats;
+            this.student = student;
+            this.stripe = stripe;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public Course getCourse() {
+            return seats.course;
+        }
+
+        public int getState() {
+            int value = state.get();
+            return value == CONFIRMING ? PENDING : value;
+        }
+
+        /**
+         * Turns the hold into an enrollment. Fails if it was already
+         * released. If the enrollment cannot be logged, the seat is given
+         * back and the log's exception is rethrown.
+         */
+        public Enrollment confirm() {
+            WriteAheadLog log = seats.service.log;
+            if (log == null) {
+                leavePending(CONFIRMED);
+                seats.confirmed.incrementAndGet();
+            } else {
+                // a drop of this reservation waits, so its record follows this one in the log
+                synchronized (this) {
+                    leavePending(CONFIRMING);
+                    boolean logged = false;
+                    try {
+                        log.recordEnroll(student, seats.course);
+                        logged = true;
+                    } finally {
+                        if (logged) {
+                            seats.confirmed.incrementAndGet();
+                            state.set(CONFIRMED);
+                        } else {
+                            state.set(RELEASED);
+                            freeSeat();
+                        }
+                    }
+                }
+            }
+            return new Enrollment(student, seats.course);
+        }
+
+        private void leavePending(int to) {
+            if (!state.compareAndSet(PENDING, to)) {
+                throw new IllegalStateException("Reservation is no longer pending: " + student.getId()
+                        + " in " + seats.course.getCode());
+            }
+        }
+
+        /** Gives the seat back. Returns false if it was already confirmed, is being confirmed, or was released. */
+        public boolean release() {
+            return finish(PENDING, RELEASED);
+        }
+
+        private boolean finish(int from, int to) {
+            if (from == CONFIRMED) {
+                // only finish() leaves CONFIRMED, so under the monitor the check cannot go stale
+                synchronized (this) {
+                    if (state.get() != CONFIRMED) {
+                        return false;
+                    }
+                    // logged before the state changes, so a failed write leaves the student enrolled;
+                    // and before the seat is freed, so a re-enrollment is logged after it
+                    WriteAheadLog log = seats.service.log;
+                    if (log != null) {
+                        log.recordDrop(student, seats.course);
+                    }
+                    state.set(to);
+                }
+                seats.confirmed.decrementAndGet();
+            } else if (!state.compareAndSet(from, to)) {
+                return false;
+            }
+            freeSeat();
+            return true;
+        }
+
+        private void freeSeat() {
+            seats.holders.remove(new IdentityKey<>(student), this);
+            seats.pool.release(stripe);
+        }
+    }
+}
@@ -0,0 +1,502 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * GPA statistics over large Student populations.
+ *
+ * GPAs are copied once into a primitive array together with a major code
+ * and a level (undergraduate / graduate / other) per student. Every
+ * statistic then runs over those arrays: the inner loops are unrolled
+ * with independent accumulators so the JIT can keep several lanes in
+ * flight, and large arrays are split into fixed-size chunks computed in
+ * parallel on a ForkJoinPool. Because the chunk boundaries do not depend
+ * on the number of threads, results are identical for any pool size.
+ */
+public class GpaAnalytics {
+
+    public enum Level {
+        UNDERGRADUATE, GRADUATE, OTHER
+    }
+
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private final double[] gpas;
+    private final int[] majors;
+    private final byte[] levels;
+    private final StringDictionary majorNames;
+    private final ForkJoinPool pool;
+    private double[] sorted;
+
+    private GpaAnalytics(double[] gpas, int[] majors, byte[] levels, StringDictionary majorNames,
+                         ForkJoinPool pool) {
+        this.gpas = gpas;
+        this.majors = majors;
+        this.levels = levels;
+        this.majorNames = majorNames;
+        this.pool = pool;
+    }
+
+    public static GpaAnalytics of(Iterable<? extends Person> people) {
+        return of(people, ForkJoinPool.commonPool());
+    }
+
+    /** Collects the students among {@code people}; other types are skipped. */
+    public static GpaAnalytics of(Iterable<? extends Person> people, ForkJoinPool pool) {
+        StringDictionary majorNames = new StringDictionary();
+        double[] gpas = new double[1024];
+        int[] majors = new int[1024];
+        byte[] levels = new byte[1024];
+        int size = 0;
+        for (Person person : people) {
+            if (!(person instanceof Student)) {
+                continue;
+            }
+            if (size == gpas.length) {
+                gpas = Arrays.copyOf(gpas, size * 2);
+                majors = Arrays.copyOf(majors, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            Student student = (Student) person;
+            gpas[size] = student.getGpa();
+            majors[size] = majorNames.encode(student.getMajor());
+            levels[size] = (byte) levelOf(student).ordinal();
+            size++;
+        }
+        return new GpaAnalytics(Arrays.copyOf(gpas, size), Arrays.copyOf(majors, size),
+                Arrays.copyOf(levels, size), majorNames, pool);
+    }
+
+    public static GpaAnalytics of(PersonStore store) {
+        StringDictionary majorNames = new StringDictionary();
+        double[] gpas = new double[store.size()];
+        int[] majors = new int[store.size()];
+        byte[] levels = new byte[store.size()];
+        int size = 0;
+        for (int row = 0; row < store.size(); row++) {
+            PersonType type = store.getType(row);
+            if (!type.isStudent()) {
+                continue;
+            }
+            gpas[size] = store.getGpa(row);
+            majors[size] = majorNames.encode(store.getMajor(row));
+            levels[size] = (byte) (type == PersonType.UNDERGRADUATE_STUDENT ? Level.UNDERGRADUATE
+                    : type == PersonType.GRADUATE_STUDENT ? Level.GRADUATE : Level.OTHER).ordinal();
+            size++;
+        }
+        return new GpaAnalytics(Arrays.copyOf(gpas, size), Arrays.copyOf(majors, size),
+                Arrays.copyOf(levels, size), majorNames, ForkJoinPool.commonPool());
+    }
+
+    public int size() {
+        return gpas.length;
+    }
+
+    // ==================== Segments ====================
+
+    public GpaAnalytics forMajor(String major) {
+        int code = majorNames.lookup(major);
+        int count = 0;
+        for (int value : majors) {
+            if (value == code) {
+                count++;
+            }
+        }
+        double[] subset = new double[count];
+        int[] subsetMajors = new int[count];
+        byte[] subsetLevels = new byte[count];
+        for (int i = 0, j = 0; i < gpas.length; i++) {
+            if (majors[i] == code) {
+                subset[j] = gpas[i];
+                subsetMajors[j] = code;
+                subsetLevels[j++] = levels[i];
+            }
+        }
+        return new GpaAnalytics(subset, subsetMajors, subsetLevels, majorNames, pool);
+    }
+
+    public GpaAnalytics forLevel(Level level) {
+        byte tag = (byte) level.ordinal();
+        int count = 0;
+        for (byte value : levels) {
+            if (value == tag) {
+                count++;
+            }
+        }
+        double[] subset = new double[count];
+        int[] subsetMajors = new int[count];
+        byte[] subsetLevels = new byte[count];
+        for (int i = 0, j = 0; i < gpas.length; i++) {
+            if (levels[i] == tag) {
+                subset[j] = gpas[i];
+                subsetMajors[j] = majors[i];
+                subsetLevels[j++] = tag;
+            }
+        }
+        return new GpaAnalytics(subset, subsetMajors, subsetLevels, majorNames, pool);
+    }
+
+    // ==================== Statistics ====================
+
+    public Stats stats() {
+        if (gpas.length == 0) {
+            return new Stats(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double[] totals = pool.invoke(new SumTask(gpas, 0, gpas.length));
+        double mean = totals[0] / gpas.length;
+        double squares = pool.invoke(new SquaredDeviationTask(gpas, mean, 0, gpas.length));
+        return new Stats(gpas.length, mean, squares / gpas.length, totals[1], totals[2]);
+    }
+
+    public double mean() {
+        return stats().getMean();
+    }
+
+    public double variance() {
+        return stats().getVariance();
+    }
+
+    /** Percentile with linear interpolation, p in [0, 100]. */
+    public double percentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+        }
+        if (gpas.length == 0) {
+            return Double.NaN;
+        }
+        double[] values = sortedGpas();
+        double position = p / 100 * (values.length - 1);
+        int lower = (int) position;
+        int upper = Math.min(lower + 1, values.length - 1);
+        return values[lower] + (position - lower) * (values[upper] - values[lower]);
+    }
+
+    public double median() {
+        return percentile(50);
+    }
+
+    /** Counts GPAs into equal-width buckets over [min, max]; values outside are clamped. */
+    public long[] histogram(double min, double max, int buckets) {
+        if (buckets <= 0 || !(max > min)) {
+            throw new IllegalArgumentException("Invalid histogram range: " + min + ".." + max + " / " + buckets);
+        }
+        return pool.invoke(new HistogramTask(gpas, min, buckets / (max - min), buckets, 0, gpas.length));
+    }
+
+    public Map<String, Stats> statsByMajor() {
+        return groupStats(majors, majorNames.size(), majorNames);
+    }
+
+    public Map<Level, Stats> statsByLevel() {
+        Map<Level, Stats> result = new LinkedHashMap<>();
+        for (Level level : Level.values()) {
+            Stats stats = forLevel(level).stats();
+            if (stats.getCount() > 0) {
+                result.put(level, stats);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Stats> groupStats(int[] groups, int groupCount, StringDictionary names) {
+        // Slot groupCount holds students without a major (code -1)
+        double[][] sums = pool.invoke(new GroupSumTask(gpas, groups, groupCount + 1, 0, gpas.length));
+        Map<String, Stats> result = new LinkedHashMap<>();
+        double[] means = new double[groupCount + 1];
+        for (int g = 0; g <= groupCount; g++) {
+            means[g] = sums[0][g] / sums[1][g];
+        }
+        double[] squares = new double[groupCount + 1];
+        for (int i = 0; i < gpas.length; i++) {
+            int g = slot(groups[i], groupCount);
+            double d = gpas[i] - means[g];
+            squares[g] += d * d;
+        }
+        for (int g = 0; g <= groupCount; g++) {
+            long count = (long) sums[1][g];
+            if (count > 0) {
+                String name = g == groupCount ? null : names.decode(g);
+                result.put(name, new Stats(count, means[g], squares[g] / count, sums[2][g], sums[3][g]));
+            }
+        }
+        return result;
+    }
+
+    private synchronized double[] sortedGpas() {
+        if (sorted == null) {
+            double[] copy = gpas.clone();
+            Arrays.parallelSort(copy);
+            sorted = copy;
+        }
+        return sorted;
+    }
+
+    private static Level levelOf(Student student) {
+        if (student instanceof UndergraduateStudent) {
+            return Level.UNDERGRADUATE;
+        }
+        if (student instanceof GraduateStudent) {
+            return Level.GRADUATE;
+        }
+        return Level.OTHER;
+    }
+
+    private static int slot(int code, int groupCount) {
+        return code < 0 ? groupCount : code;
+    }
+
+    // ==================== Kernels ====================
+
+    /** Returns {sum, min, max} of values[from, to). NaN values are left out of min/max. */
+    static double[] sumMinMax(double[] values, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0;
+        double min0 = Double.POSITIVE_INFINITY, min1 = Double.POSITIVE_INFINITY;
+        double max0 = Double.NEGATIVE_INFINITY, max1 = Double.NEGATIVE_INFINITY;
+        int i = from;
+        for (; i + 1 < to; i += 2) {
+            double a = values[i], b = values[i + 1];
+            s0 += a;
+            s1 += b;
+            min0 = a < min0 ? a : min0;
+            min1 = b < min1 ? b : min1;
+            max0 = a > max0 ? a : max0;
+            max1 = b > max1 ? b : max1;
+        }
+        for (; i < to; i++) {
+            double a = values[i];
+            s2 += a;
+            min0 = a < min0 ? a : min0;
+            max0 = a > max0 ? a : max0;
+        }
+        return new double[]{(s0 + s1) + s2, Math.min(min0, min1), Math.max(max0, max1)};
+    }
+
+    static double squaredDeviations(double[] values, double mean, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            double a = values[i] - mean, b = values[i + 1] - mean;
+            double c = values[i + 2] - mean, d = values[i + 3] - mean;
+            s0 += a * a;
+            s1 += b * b;
+            s2 += c * c;
+            s3 += d * d;
+        }
+        for (; i < to; i++) {
+            double a = values[i] - mean;
+            s0 += a * a;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // ==================== Fork/Join Tasks ====================
+
+    private static final class SumTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        SumTask(double[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return sumMinMax(values, from, to);
+            }
+            int mid = split(from, to);
+            SumTask left = new SumTask(values, from, mid);
+            left.fork();
+            double[] right = new SumTask(values, mid, to).compute();
+            double[] result = left.join();
+            return new double[]{result[0] + right[0], Math.min(result[1], right[1]), Math.max(result[2], right[2])};
+        }
+    }
+
+    private static final class SquaredDeviationTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+        private final double mean;
+        private final int from;
+        private final int to;
+
+        SquaredDeviationTask(double[] values, double mean, int from, int to) {
+            this.values = values;
+            this.mean = mean;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return squaredDeviations(values, mean, from, to);
+            }
+            int mid = split(from, to);
+            SquaredDeviationTask left = new SquaredDeviationTask(values, mean, from, mid);
+            left.fork();
+            double right = new SquaredDeviationTask(values, mean, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static final class HistogramTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+        private final double min;
+        private final double scale;
+        private final int buckets;
+        private final int from;
+        private final int to;
+
+        HistogramTask(double[] values, double min, double scale, int buckets, int from, int to) {
+            this.values = values;
+            this.min = min;
+            this.scale = scale;
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                long[] counts = new long[buckets];
+                int last = buckets - 1;
+                for (int i = from; i < to; i++) {
+                    int bucket = (int) ((values[i] - min) * scale);
+                    counts[Math.max(0, Math.min(last, bucket))]++;
+                }
+                return counts;
+            }
+            int mid = split(from, to);
+            HistogramTask left = new HistogramTask(values, min, scale, buckets, from, mid);
+            left.fork();
+            long[] right = new HistogramTask(values, min, scale, buckets, mid, to).compute();
+            long[] result = left.join();
+            for (int i = 0; i < buckets; i++) {
+                result[i] += right[i];
+            }
+            return result;
+        }
+    }
+
+    /** Returns {sum, count, min, max} per group slot. */
+    private static final class GroupSumTask extends RecursiveTask<double[][]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+        private final int[] groups;
+        private final int slots;
+        private final int from;
+        private final int to;
+
+        GroupSumTask(double[] values, int[] groups, int slots, int from, int to) {
+            this.values = values;
+            this.groups = groups;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[][] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                double[][] result = new double[4][slots];
+                Arrays.fill(result[2], Double.POSITIVE_INFINITY);
+                Arrays.fill(result[3], Double.NEGATIVE_INFINITY);
+                for (int i = from; i < to; i++) {
+                    int g = slot(groups[i], slots - 1);
+                    double value = values[i];
+                    result[0][g] += value;
+                    result[1][g]++;
+                    result[2][g] = value < result[2][g] ? value : result[2][g];
+                    result[3][g] = value > result[3][g] ? value : result[3][g];
+                }
+                return result;
+            }
+            int mid = split(from, to);
+            GroupSumTask left = new GroupSumTask(values, groups, slots, from, mid);
+            left.fork();
+            double[][] right = new GroupSumTask(values, groups, slots, mid, to).compute();
+            double[][] result = left.join();
+            for (int g = 0; g < slots; g++) {
+                result[0][g] += right[0][g];
+                result[1][g] += right[1][g];
+                result[2][g] = Math.min(result[2][g], right[2][g]);
+                result[3][g] = Math.max(result[3][g], right[3][g]);
+            }
+            return result;
+        }
+    }
+
+    /** Splits on a chunk boundary so the task tree only depends on the array size. */
+    private static int split(int from, int to) {
+        int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return from + (chunks / 2) * CHUNK_SIZE;
+    }
+
+    // ==================== Result ====================
+
+    public static class Stats {
+
+        private final long count;
+        private final double mean;
+        private final double variance;
+        private final double min;
+        private final double max;
+
+        public Stats(long count, double mean, double variance, double min, double max) {
+            this.count = count;
+            this.mean = mean;
+            this.variance = variance;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        /** Population variance. */
+        public double getVariance() {
+            return variance;
+        }
+
+        public double getStdDev() {
+            return Math.sqrt(variance);
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "count=" + count +
+                    ", mean=" + mean +
+                    ", variance=" + variance +
+                    ", min=" + min +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Letter grade with its grade points on a 4.0 scale.
+ * Points are kept in tenths so GPA sums stay exact integers.
+ */
+public enum Grade {
+
+    A_PLUS("A+", 40, "Excellent"),
+    A("A", 40, "Excellent"),
+    A_MINUS("A-", 37, "Very Good"),
+    B_PLUS("B+", 33, "Good"),
+    B("B", 30, "Good"),
+    B_MINUS("B-", 27, "Above Average"),
+    C("C", 20, "Average"),
+    F("F", 0, "Fail");
+
+    private final String symbol;
+    private final int pointTenths;
+    private final String description;
+
+    Grade(String symbol, int pointTenths, String description) {
+        this.symbol = symbol;
+        this.pointTenths = pointTenths;
+        this.description = description;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public double getPoints() {
+        return pointTenths / 10.0;
+    }
+
+    public int getPointTenths() {
+        return pointTenths;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isPassing() {
+        return this != F;
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course grades per student with the GPA maintained incrementally.
+ *
+ * Each student has a grade book holding their course grades and two
+ * running sums: credits and credit-weighted grade points (in tenths, so
+ * the sums are exact). Assigning, overwriting or removing a grade
+ * adjusts the sums in O(1) and writes the new GPA to Student.gpa, so
+ * reading a GPA never rescans grades. Once graded here, a student's gpa
+ * is owned by this service.
+ *
+ * Grade books are keyed by the Student object, not its id, so a book
+ * stays with its student across setId. They are locked per student, so
+ * different students are graded concurrently. Transcripts are rendered
+ * straight from the grade book.
+ *
+ * With a log set, a change is logged before it is applied, so a failed
+ * write leaves the grade book and the GPA as they were.
+ */
+public class GradeService {
+
+    private final ConcurrentHashMap<IdentityKey<Student>, GradeBook> books = new ConcurrentHashMap<>();
+    private final EnrollmentService enrollments;
+    private volatile WriteAheadLog log;
+
+    public GradeService() {
+        this(null);
+    }
+
+    /** When enrollments is given, only enrolled students can be graded. */
+    public GradeService(EnrollmentService enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    /** Logs every grade change from now on; null stops logging. */
+    public void setLog(WriteAheadLog log) {
+        this.log = log;
+    }
+
+    // ==================== Grading ====================
+
+    /**
+     * Sets the student's grade for the course, replacing any earlier one.
+     *
+     * @return the previous grade, or null
+     */
+    public Grade assignGrade(Student student, Course course, Grade grade) {
+        if (grade == null) {
+            throw new IllegalArgumentException("Grade is required");
+        }
+        if (enrollments != null && !enrollments.isEnrolled(student, course)) {
+            throw new IllegalStateException(student.getId() + " is not enrolled in " + course.getCode());
+        }
+        GradeBook book = books.computeIfAbsent(keyOf(student), key -> new GradeBook());
+        synchronized (book) {
+            Entry entry = new Entry(course, grade);
+            WriteAheadLog log = this.log;
+            if (log != null) {
+                log.recordGrade(student, course, grade);
+            }
+            Entry previous = book.entries.put(course.getCode(), entry);
+            if (previous != null) {
+                book.subtract(previous);
+            }
+            book.add(entry);
+            student.setGpa(book.gpa());
+            return previous == null ? null : previous.grade;
+        }
+    }
+
+    /** Removes the student's grade for the course; returns it, or null if there was none. */
+    public Grade removeGrade(Student student, Course course) {
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            return null;
+        }
+        synchronized (book) {
+            if (!book.entries.containsKey(course.getCode())) {
+                return null;
+            }
+            WriteAheadLog log = this.log;
+            if (log != null) {
+                log.recordGradeRemoval(student, course);
+            }
+            Entry previous = book.entries.remove(course.getCode());
+            book.subtract(previous);
+            student.setGpa(book.gpa());
+            return previous.grade;
+        }
+    }
+
+    // ==================== Queries ====================
+
+    public Grade getGrade(Student student, Course course) {
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            return null;
+        }
+        synchronized (book) {
+            Entry entry = book.entries.get(course.getCode());
+            return entry == null ? null : entry.grade;
+        }
+    }
+
+    /** GPA from the running sums; 0.0 for a student without grades. */
+    public double getGpa(Student student) {
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            return 0.0;
+        }
+        synchronized (book) {
+            return book.gpa();
+        }
+    }
+
+    public int getCredits(Student student) {
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            return 0;
+        }
+        synchronized (book) {
+            return book.credits;
+        }
+    }
+
+    /** Courses the student passed, in the order they were first graded. */
+    public List<Course> getCompletedCourses(Student student) {
+        List<Course> completed = new ArrayList<>();
+        for (Entry entry : entries(student)) {
+            if (entry.grade.isPassing()) {
+                completed.add(entry.course);
+            }
+        }
+        return completed;
+    }
+
+    // ==================== Transcript ====================
+
+    public void printTranscript(Student student) {
+        PrintWriter out = new PrintWriter(System.out);
+        appendTranscript(student, out);
+        out.flush();
+    }
+
+    /** Writes the transcript; the lock is only held while copying the entries. */
+    public void appendTranscript(Student student, Appendable out) {
+        Entry[] entries;
+        int credits;
+        long weighted;
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            entries = new Entry[0];
+            credits = 0;
+            weighted = 0;
+        } else {
+            synchronized (book) {
+                entries = book.entries.values().toArray(new Entry[0]);
+                credits = book.credits;
+                weighted = book.weightedTenths;
+            }
+        }
+        try {
+            out.append("=== Transcript: ").append(student.getName()).append(" (")
+                    .append(student.getId()).append(") ===").append(RenderSupport.NEWLINE);
+            for (Entry entry : entries) {
+                out.append(entry.course.getCode()).append(" - ").append(entry.course.getTitle()).append(" (");
+                RenderSupport.append(out, entry.credits);
+                out.append(" credits): ").append(entry.grade.getSymbol()).append(RenderSupport.NEWLINE);
+            }
+            RenderSupport.line(out, "Credits: ", credits);
+            out.append("GPA: ");
+            appendHundredths(out, credits == 0 ? 0 : (weighted * 20 + credits) / (2L * credits));
+            out.append(RenderSupport.NEWLINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Writes a non-negative value in hundredths as d.dd. */
+    private static void appendHundredths(Appendable out, long hundredths) throws IOException {
+        RenderSupport.append(out, (int) (hundredths / 100));
+        int fraction = (int) (hundredths % 100);
+        out.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private List<Entry> entries(Student student) {
+        GradeBook book = books.get(keyOf(student));
+        if (book == null) {
+            return new ArrayList<>();
+        }
+        synchronized (book) {
+            return new ArrayList<>(book.entries.values());
+        }
+    }
+
+    /** Ids are still required, since the write-ahead log records students by id. */
+    private static IdentityKey<Student> keyOf(Student student) {
+        if (student.getId() == null) {
+            throw new IllegalArgumentException("Student id is required");
+        }
+        return new IdentityKey<>(student);
+    }
+
+    // ==================== Grade books ====================
+
+    /** One graded course; credits are captured at grading time so later edits cannot skew the sums. */
+    private static final class Entry {
+        final Course course;
+        final Grade grade;
+        final int credits;
+
+        Entry(Course course, Grade grade) {
+            this.course = course;
+            this.grade = grade;
+            this.credits = course.getCredits();
+        }
+    }
+
+    /** Guarded by its own monitor. */
+    private static final class GradeBook {
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        int credits;
+        long weightedTenths;
+
+        void add(Entry entry) {
+            credits += entry.credits;
+            weightedTenths += (long) entry.grade.getPointTenths() * entry.credits;
+        }
+
+        void subtract(Entry entry) {
+            credits -= entry.credits;
+            weightedTenths -= (long) entry.grade.getPointTenths() * entry.credits;
+        }
+
+        double gpa() {
+            return credits == 0 ? 0.0 : weightedTenths / (credits * 10.0);
+        }
+    }
+}
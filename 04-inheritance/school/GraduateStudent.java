@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class GraduateStudent extends Student {
@@ -25,20 +26,45 @@ public class GraduateStudent extends Student {
         System.out.println("Hi, I'm " + name + ", a graduate student researching " + thesisTopic);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Level: Graduate");
+        RenderSupport.line(out, "Thesis: ", thesisTopic);
+        RenderSupport.line(out, "Supervisor: ", supervisor);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", a graduate student researching ").append(thesisTopic)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", thesisTopic=", thesisTopic);
+        RenderSupport.quoted(out, ", supervisor=", supervisor);
+    }
+
     public String getThesisTopic() {
         return thesisTopic;
     }
 
-    public void setThesisTopic(String thesisTopic) {
+    public synchronized void setThesisTopic(String thesisTopic) {
+        fireBeforeChange(PersonField.THESIS_TOPIC);
         this.thesisTopic = thesisTopic;
+        fireAfterChange(PersonField.THESIS_TOPIC);
     }
 
     public String getSupervisor() {
         return supervisor;
     }
 
-    public void setSupervisor(String supervisor) {
+    public synchronized void setSupervisor(String supervisor) {
+        fireBeforeChange(PersonField.SUPERVISOR);
         this.supervisor = supervisor;
+        fireAfterChange(PersonField.SUPERVISOR);
     }
 
     @Override
@@ -0,0 +1,54 @@
+import java.util.Objects;
+
+public final class GraduateStudentSnapshot extends StudentSnapshot {
+
+    private final String thesisTopic;
+    private final String supervisor;
+
+    public GraduateStudentSnapshot(String name, int age, String id, String major, double gpa,
+                                   String thesisTopic, String supervisor) {
+        super(name, age, id, major, gpa, hash(thesisTopic, supervisor));
+        this.thesisTopic = thesisTopic;
+        this.supervisor = supervisor;
+    }
+
+    public static GraduateStudentSnapshot of(GraduateStudent grad) {
+        return new GraduateStudentSnapshot(grad.getName(), grad.getAge(), grad.getId(),
+                grad.getMajor(), grad.getGpa(), grad.getThesisTopic(),
+                grad.getSupervisor());
+    }
+
+    @Override
+    public GraduateStudent toPerson() {
+        return new GraduateStudent(getName(), getAge(), getId(),
+                getMajor(), getGpa(), thesisTopic, supervisor);
+    }
+
+    public String getThesisTopic() {
+        return thesisTopic;
+    }
+
+    public String getSupervisor() {
+        return supervisor;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", thesisTopic='").append(thesisTopic).append('\'')
+                .append(", supervisor='").append(supervisor).append('\'');
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        GraduateStudentSnapshot that = (GraduateStudentSnapshot) obj;
+        return Objects.equals(thesisTopic, that.thesisTopic) &&
+                Objects.equals(supervisor, that.supervisor);
+    }
+
+    private static int hash(String thesisTopic, String supervisor) {
+        return 31 * Objects.hashCode(thesisTopic) + Objects.hashCode(supervisor);
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Materialized group aggregates kept up to date on every change:
+ * total salary per Staff department, average GPA per Student major and
+ * headcount per Teacher subject.
+ *
+ * Tracked people report changes through PersonListener. beforeChange
+ * takes the person's old contribution out of its group, afterChange puts
+ * the new one in, so each setter is an O(1) delta instead of a rescan.
+ * Salaries are summed in cents and GPAs in millionths, so repeated
+ * deltas never drift the way double sums would.
+ *
+ * Each group is updated and read under its own lock, so concurrent
+ * writers on different groups do not contend and a read of one group
+ * always sees a count and total from the same moment. Reads across
+ * groups are not one atomic snapshot.
+ */
+public class GroupAggregates implements PersonListener {
+
+    /** Group name used for people whose department, major or subject is null. */
+    public static final String NO_GROUP = "(none)";
+
+    private static final long SALARY_SCALE = 100;
+    private static final long GPA_SCALE = 1_000_000;
+
+    private final ConcurrentHashMap<String, Group> departments = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Group> majors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Group> subjects = new ConcurrentHashMap<>();
+    private final Set<Person> tracked = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    // ==================== Tracking ====================
+
+    /** Starts tracking the person; returns false if it was already tracked. */
+    public boolean add(Person person) {
+        synchronized (person) {
+            if (!tracked.add(person)) {
+                return false;
+            }
+            apply(person, 1);
+            person.addListener(this);
+            return true;
+        }
+    }
+
+    public void addAll(Iterable<? extends Person> people) {
+        for (Person person : people) {
+            add(person);
+        }
+    }
+
+    /** Stops tracking the person and takes it out of its groups. */
+    public boolean remove(Person person) {
+        synchronized (person) {
+            if (!tracked.remove(person)) {
+                return false;
+            }
+            person.removeListener(this);
+            apply(person, -1);
+            return true;
+        }
+    }
+
+    @Override
+    public void beforeChange(Person person, PersonField field) {
+        if (affects(person, field)) {
+            apply(person, -1);
+        }
+    }
+
+    @Override
+    public void afterChange(Person person, PersonField field) {
+        if (affects(person, field)) {
+            apply(person, 1);
+        }
+    }
+
+    private static boolean affects(Person person, PersonField field) {
+        if (person instanceof Student) {
+            return field == PersonField.MAJOR || field == PersonField.GPA;
+        } else if (person instanceof Staff) {
+            return field == PersonField.DEPARTMENT || field == PersonField.SALARY;
+        } else if (person instanceof Teacher) {
+            return field == PersonField.SUBJECT;
+        }
+        return false;
+    }
+
+    /** Adds (sign = 1) or removes (sign = -1) the person's contribution to its group. */
+    private void apply(Person person, int sign) {
+        if (person instanceof Student) {
+            Student student = (Student) person;
+            group(majors, student.getMajor()).add(sign, Math.round(student.getGpa() * GPA_SCALE));
+        } else if (person instanceof Staff) {
+            Staff staff = (Staff) person;
+            group(departments, staff.getDepartment()).add(sign, Math.round(staff.getSalary() * SALARY_SCALE));
+        } else if (person instanceof Teacher) {
+            group(subjects, ((Teacher) person).getSubject()).add(sign, 0);
+        }
+    }
+
+    private static Group group(ConcurrentHashMap<String, Group> groups, String name) {
+        String key = name == null ? NO_GROUP : name;
+        Group group = groups.get(key);
+        return group != null ? group : groups.computeIfAbsent(key, Group::new);
+    }
+
+    // ==================== Queries ====================
+
+    /** Headcount and total salary of a Staff department. */
+    public GroupStats getDepartment(String department) {
+        return stats(departments, department, SALARY_SCALE);
+    }
+
+    /** Headcount and average GPA of a Student major. */
+    public GroupStats getMajor(String major) {
+        return stats(majors, major, GPA_SCALE);
+    }
+
+    /** Headcount of a Teacher subject. */
+    public GroupStats getSubject(String subject) {
+        return stats(subjects, subject, 1);
+    }
+
+    public Map<String, GroupStats> getDepartments() {
+        return all(departments, SALARY_SCALE);
+    }
+
+    public Map<String, GroupStats> getMajors() {
+        return all(majors, GPA_SCALE);
+    }
+
+    public Map<String, GroupStats> getSubjects() {
+        return all(subjects, 1);
+    }
+
+    public int size() {
+        return tracked.size();
+    }
+
+    private static GroupStats stats(ConcurrentHashMap<String, Group> groups, String name, long scale) {
+        String key = name == null ? NO_GROUP : name;
+        Group group = groups.get(key);
+        return group == null ? new GroupStats(key, 0, 0, scale) : group.snapshot(scale);
+    }
+
+    /** Non-empty groups sorted by name; each group is consistent on its own. */
+    private static Map<String, GroupStats> all(ConcurrentHashMap<String, Group> groups, long scale) {
+        Map<String, GroupStats> result = new TreeMap<>();
+        for (Group group : groups.values()) {
+            GroupStats stats = group.snapshot(scale);
+            if (stats.getCount() > 0) {
+                result.put(stats.getGroup(), stats);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    // ==================== Groups ====================
+
+    /** Running count and scaled total of one group; guarded by its own monitor. */
+    private static final class Group {
+        private final String name;
+        private long count;
+        private long total;
+
+        Group(String name) {
+            this.name = name;
+        }
+
+        synchronized void add(int sign, long amount) {
+            count += sign;
+            total += sign * amount;
+        }
+
+        synchronized GroupStats snapshot(long scale) {
+            return new GroupStats(name, count, total, scale);
+        }
+    }
+
+    public static class GroupStats {
+
+        private final String group;
+        private final long count;
+        private final long scaledTotal;
+        private final long scale;
+
+        GroupStats(String group, long count, long scaledTotal, long scale) {
+            this.group = group;
+            this.count = count;
+            this.scaledTotal = scaledTotal;
+            this.scale = scale;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** Sum of salaries for a department, sum of GPAs for a major, 0 for a subject. */
+        public double getTotal() {
+            return scaledTotal / (double) scale;
+        }
+
+        public double getAverage() {
+            return count == 0 ? 0.0 : scaledTotal / (double) scale / count;
+        }
+
+        @Override
+        public String toString() {
+            return group + ": count=" + count + ", total=" + getTotal() + ", average=" + getAverage();
+        }
+    }
+}
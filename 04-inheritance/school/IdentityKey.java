@@ -0,0 +1,30 @@
+/**
+ * Map key that compares the wrapped object by identity. Lets concurrent
+ * maps key by a Person whose equals/hashCode follow mutable fields (the id
+ * included), the way PersonIndex uses an IdentityHashMap under its lock.
+ */
+final class IdentityKey<T> {
+
+    private final T value;
+
+    IdentityKey(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Key is required");
+        }
+        this.value = value;
+    }
+
+    T get() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IdentityKey && ((IdentityKey<?>) obj).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(value);
+    }
+}
@@ -0,0 +1,123 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary for mostly-unique strings such as person names.
+ *
+ * StringDictionary keeps a String, a HashMap entry and a boxed code per
+ * value, which is cheap for a few hundred majors but costs more than the
+ * strings themselves when nearly every value is distinct. Here the values
+ * are UTF-8 bytes in one shared array, and the hash table is an int array
+ * of codes, so a value costs its bytes plus about a dozen bytes of index.
+ * decode() builds a new String on every call.
+ *
+ * Codes follow StringDictionary: dense from 0, NULL_CODE for null and
+ * UNKNOWN_CODE from lookup() for a value that was never encoded.
+ * Not thread-safe.
+ */
+public class NameDictionary {
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private byte[] bytes = new byte[256];
+    /** value i is bytes[offsets[i], offsets[i + 1]) */
+    private int[] offsets = new int[INITIAL_SLOTS + 1];
+    /** code + 1 per slot, 0 when empty; kept at most three-quarters full */
+    private int[] slots = new int[INITIAL_SLOTS];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) {
+            return StringDictionary.NULL_CODE;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int slot = find(utf8);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        int code = append(utf8);
+        slots[slot] = code + 1;
+        if (size * 4 > slots.length * 3) {
+            rehash(slots.length * 2);
+        }
+        return code;
+    }
+
+    public int lookup(String value) {
+        if (value == null) {
+            return StringDictionary.NULL_CODE;
+        }
+        int code = slots[find(value.getBytes(StandardCharsets.UTF_8))];
+        return code == 0 ? StringDictionary.UNKNOWN_CODE : code - 1;
+    }
+
+    public String decode(int code) {
+        if (code == StringDictionary.NULL_CODE) {
+            return null;
+        }
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Code " + code + " out of bounds for size " + size);
+        }
+        int from = offsets[code];
+        return new String(bytes, from, offsets[code + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ==================== Helpers ====================
+
+    /** Slot holding the value, or the empty slot where it belongs. */
+    private int find(byte[] utf8) {
+        int mask = slots.length - 1;
+        int slot = hash(utf8, 0, utf8.length) & mask;
+        while (true) {
+            int code = slots[slot] - 1;
+            if (code < 0 || Arrays.equals(bytes, offsets[code], offsets[code + 1], utf8, 0, utf8.length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int append(byte[] utf8) {
+        int from = offsets[size];
+        if (utf8.length > Integer.MAX_VALUE - 8 - from) {
+            throw new IllegalStateException("Name dictionary is full");
+        }
+        int end = from + utf8.length;
+        if (end > bytes.length) {
+            long grown = Math.max(end, bytes.length + (bytes.length >> 1));
+            bytes = Arrays.copyOf(bytes, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+        System.arraycopy(utf8, 0, bytes, from, utf8.length);
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+        }
+        offsets[size + 1] = end;
+        return size++;
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hash(bytes, offsets[code], offsets[code + 1]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+        slots = table;
+    }
+
+    private static int hash(byte[] data, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + data[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,483 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead search over Person.getName(): prefix lookups and
+ * typo-tolerant matching, returning the ids of the top-k matches.
+ *
+ * Names are lower-cased with whitespace collapsed, then indexed in two
+ * radix tries (tries with single-child chains merged into one edge):
+ * one of full names, one of the individual words. A query without a
+ * space runs against the words, so "has" finds "Ahmed Hassan"; a query
+ * with a space runs against full names. Children are kept sorted, so
+ * results come out in key order:
+ *
+ *   prefix - walk the prefix, then read the subtree until k people are found
+ *   fuzzy  - keys within an edit distance (insert, delete, substitute or
+ *            swap two neighbours), closest first; the walk drops every
+ *            branch whose distance row already exceeds the bound
+ *
+ * Empty branches are pruned on removal, so a prefix read never walks
+ * dead nodes and costs O(prefix length + k). People sharing a key are
+ * returned oldest first.
+ *
+ * The index listens to every indexed person and moves it to its new keys
+ * when setName reports a change. Updates take a write lock, searches
+ * share a read lock.
+ */
+public class NameIndex implements PersonListener {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Person[] NO_PEOPLE = new Person[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** The name each person is indexed under, so it can be unindexed after setName. */
+    private final IdentityHashMap<Person, String> indexed = new IdentityHashMap<>();
+    private final Trie names = new Trie();
+    private final Trie words = new Trie();
+
+    // ==================== Maintenance ====================
+
+    /** Indexes the person; returns false if it was already indexed. */
+    public boolean add(Person person) {
+        synchronized (person) {
+            lock.writeLock().lock();
+            try {
+                if (indexed.containsKey(person)) {
+                    return false;
+                }
+                String name = normalize(person.getName());
+                indexed.put(person, name);
+                index(person, name);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            person.addListener(this);
+            return true;
+        }
+    }
+
+    public void addAll(Iterable<? extends Person> people) {
+        for (Person person : people) {
+            add(person);
+        }
+    }
+
+    public boolean remove(Person person) {
+        synchronized (person) {
+            lock.writeLock().lock();
+            try {
+                if (!indexed.containsKey(person)) {
+                    return false;
+                }
+                unindex(person, indexed.remove(person));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            person.removeListener(this);
+            return true;
+        }
+    }
+
+    @Override
+    public void beforeChange(Person person, PersonField field) {
+        // the indexed name is remembered per person, so everything happens in afterChange
+    }
+
+    @Override
+    public void afterChange(Person person, PersonField field) {
+        if (field != PersonField.NAME) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!indexed.containsKey(person)) {
+                return;
+            }
+            String oldName = indexed.get(person);
+            String newName = normalize(person.getName());
+            if (oldName.equals(newName)) {
+                return;
+            }
+            unindex(person, oldName);
+            indexed.put(person, newName);
+            index(person, newName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Person person, String name) {
+        if (name.indexOf(' ') >= 0) {
+            names.insert(name, person);
+        }
+        for (String word : wordsOf(name)) {
+            words.insert(word, person);
+        }
+    }
+
+    private void unindex(Person person, String name) {
+        if (name.indexOf(' ') >= 0) {
+            names.delete(name, person);
+        }
+        for (String word : wordsOf(name)) {
+            words.delete(word, person);
+        }
+    }
+
+    /** Lower-cased, trimmed, single spaces between words; "" for null. */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return collapse(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** Turns every whitespace run into one space; most names need no change. */
+    private static String collapse(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) && (c != ' ' || (i > 0 && text.charAt(i - 1) == ' '))) {
+                return text.replaceAll("\\s+", " ");
+            }
+        }
+        return text;
+    }
+
+    /** Distinct words of a normalized name. */
+    private static List<String> wordsOf(String name) {
+        List<String> result = new ArrayList<>(2);
+        if (!name.isEmpty()) {
+            for (String word : name.split(" ")) {
+                if (!result.contains(word)) {
+                    result.add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Ids of up to limit people whose name starts with prefix or, for a
+     * prefix without spaces, who have a name word starting with it.
+     */
+    public List<String> searchPrefix(String prefix, int limit) {
+        checkLimit(limit);
+        // leading blanks are dropped, a trailing one is kept: "ahmed " means the first word is complete
+        String key = collapse(prefix.toLowerCase(Locale.ROOT).stripLeading());
+        lock.readLock().lock();
+        try {
+            Results results = new Results(limit);
+            (key.indexOf(' ') >= 0 ? names : words).prefix(key, results);
+            return results.ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of up to limit people with a name word (or, for a query with
+     * spaces, a full name) within maxEdits edits of query; closest first,
+     * then in key order.
+     */
+    public List<String> searchFuzzy(String query, int maxEdits, int limit) {
+        checkLimit(limit);
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("Negative edit distance: " + maxEdits);
+        }
+        String key = normalize(query);
+        lock.readLock().lock();
+        try {
+            Results results = new Results(limit);
+            (key.indexOf(' ') >= 0 ? names : words).fuzzy(key, maxEdits, results);
+            return results.ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+    }
+
+    // ==================== Trie ====================
+
+    private static final class Trie {
+        private final Node root = new Node("");
+
+        /** Adds person under key, splitting an edge if the key ends or branches inside it. */
+        void insert(String key, Person person) {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.indexOf(key.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.insertChild(-index - 1, leaf);
+                    node = leaf;
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.insertChild(0, child);
+                    node.children[index] = split;
+                    child = split;
+                }
+                node = child;
+                i += common;
+            }
+            node.addPerson(person);
+        }
+
+        /** Removes person from key and prunes or merges the nodes left behind. */
+        void delete(String key, Person person) {
+            Node[] path = new Node[key.length() + 1];
+            int depth = 0;
+            Node node = root;
+            path[depth++] = node;
+            int i = 0;
+            while (i < key.length()) {
+                node = node.children[node.indexOf(key.charAt(i))];
+                path[depth++] = node;
+                i += node.label.length();
+            }
+            node.removePerson(person);
+            // drop the emptied leaf and any ancestors it leaves childless, then
+            // merge the first remaining node if it is down to a single child
+            int d = depth - 1;
+            while (d > 0 && path[d].count == 0 && path[d].childCount == 0) {
+                Node parent = path[d - 1];
+                parent.removeChild(parent.indexOf(path[d].label.charAt(0)));
+                d--;
+            }
+            if (d > 0 && path[d].count == 0 && path[d].childCount == 1) {
+                Node current = path[d];
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                Node parent = path[d - 1];
+                parent.children[parent.indexOf(current.label.charAt(0))] = only;
+            }
+        }
+
+        void prefix(String key, Results results) {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    return;
+                }
+                int common = commonPrefix(child.label, key, i);
+                if (i + common < key.length() && common < child.label.length()) {
+                    return;
+                }
+                i += common;
+                node = child;
+            }
+            collect(node, results);
+        }
+
+        void fuzzy(String query, int maxEdits, Results results) {
+            List<List<Node>> byDistance = new ArrayList<>();
+            for (int d = 0; d <= maxEdits; d++) {
+                byDistance.add(new ArrayList<>());
+            }
+            int[] first = new int[query.length() + 1];
+            for (int j = 0; j < first.length; j++) {
+                first[j] = j;
+            }
+            for (int c = 0; c < root.childCount; c++) {
+                fuzzy(root.children[c], query, null, first, (char) 0, maxEdits, byDistance);
+            }
+            for (List<Node> nodes : byDistance) {
+                for (Node node : nodes) {
+                    if (results.isFull()) {
+                        return;
+                    }
+                    node.collectPeople(results);
+                }
+            }
+        }
+
+        /** Every person in the subtree, in key order, until results is full. */
+        private static void collect(Node node, Results results) {
+            node.collectPeople(results);
+            for (int c = 0; c < node.childCount && !results.isFull(); c++) {
+                collect(node.children[c], results);
+            }
+        }
+
+        /**
+         * One Damerau-Levenshtein (optimal string alignment) row per label
+         * character: row[j] is the distance between the key so far and the
+         * first j query characters. A branch ends once every row entry is
+         * above maxEdits, since the distance can only grow from there.
+         */
+        private static void fuzzy(Node node, String query, int[] previous, int[] current, char last,
+                                  int maxEdits, List<List<Node>> byDistance) {
+            String label = node.label;
+            int m = query.length();
+            int[] before = previous;
+            int[] row = current;
+            char prior = last;
+            for (int k = 0; k < label.length(); k++) {
+                char c = label.charAt(k);
+                int[] next = new int[m + 1];
+                next[0] = row[0] + 1;
+                int best = next[0];
+                for (int j = 1; j <= m; j++) {
+                    char q = query.charAt(j - 1);
+                    int value = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + (q == c ? 0 : 1));
+                    if (before != null && j > 1 && q == prior && query.charAt(j - 2) == c) {
+                        value = Math.min(value, before[j - 2] + 1);
+                    }
+                    next[j] = value;
+                    best = Math.min(best, value);
+                }
+                if (best > maxEdits) {
+                    return;
+                }
+                before = row;
+                row = next;
+                prior = c;
+            }
+            if (node.count > 0 && row[m] <= maxEdits) {
+                byDistance.get(row[m]).add(node);
+            }
+            for (int c = 0; c < node.childCount; c++) {
+                fuzzy(node.children[c], query, before, row, prior, maxEdits, byDistance);
+            }
+        }
+
+        private static int commonPrefix(String label, String key, int offset) {
+            int max = Math.min(label.length(), key.length() - offset);
+            int n = 0;
+            while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+                n++;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Edge label from the parent, children sorted by their label's first
+     * character, and the people whose key ends here in insertion order.
+     */
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        int childCount;
+        Person[] people = NO_PEOPLE;
+        int count;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /** Child index, or -(insertion point) - 1. */
+        int indexOf(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label.charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        Node child(char c) {
+            int index = indexOf(c);
+            return index < 0 ? null : children[index];
+        }
+
+        void insertChild(int index, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        void addPerson(Person person) {
+            if (count == people.length) {
+                people = Arrays.copyOf(people, Math.max(1, count * 2));
+            }
+            people[count++] = person;
+        }
+
+        void removePerson(Person person) {
+            for (int i = 0; i < count; i++) {
+                if (people[i] == person) {
+                    System.arraycopy(people, i + 1, people, i, count - i - 1);
+                    people[--count] = null;
+                    if (count == 0) {
+                        people = NO_PEOPLE;
+                    }
+                    return;
+                }
+            }
+        }
+
+        void collectPeople(Results results) {
+            for (int i = 0; i < count && !results.isFull(); i++) {
+                results.add(people[i]);
+            }
+        }
+    }
+
+    /** Ids of the first limit distinct people offered. */
+    private static final class Results {
+        final List<String> ids = new ArrayList<>();
+        final Set<Person> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final int limit;
+
+        Results(int limit) {
+            this.limit = limit;
+        }
+
+        boolean isFull() {
+            return ids.size() >= limit;
+        }
+
+        void add(Person person) {
+            if (seen.add(person)) {
+                ids.add(person.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Anyone who receives a monthly salary.
+ */
+public interface Payable {
+
+    String getId();
+
+    /** Monthly gross salary. */
+    double getSalary();
+
+    /** Group used for payroll totals: department for staff, subject for teachers. */
+    String getPayrollGroup();
+}
@@ -0,0 +1,328 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monthly payroll over Staff and Teacher records.
+ *
+ * All money is handled as long cents: each salary is converted exactly
+ * (half-even) once, deductions are integer basis-point rates rounded
+ * half-even per record, and totals are plain long sums. Integer addition
+ * is associative, so the result is the same for any number of threads.
+ * Records are processed in fixed-size chunks on a ForkJoinPool.
+ *
+ * A record that cannot be paid (negative, NaN or infinite salary, or an
+ * amount too large for long cents) is rejected on its own, like a bad
+ * row in PersonImporter: it is left out of the totals, counted, and the
+ * first few reasons are kept; the rest of the run is unaffected.
+ */
+public class PayrollEngine {
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final long BASIS_POINTS = 10_000;
+    private static final int MAX_ERRORS = 20;
+    /** Marks a rejected record in the net pay array; no valid net is negative. */
+    private static final long REJECTED = Long.MIN_VALUE;
+
+    private final int taxBasisPoints;
+    private final int insuranceBasisPoints;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param taxBasisPoints       income tax rate, e.g. 1500 = 15%
+     * @param insuranceBasisPoints insurance rate, e.g. 700 = 7%
+     */
+    public PayrollEngine(int taxBasisPoints, int insuranceBasisPoints) {
+        this(taxBasisPoints, insuranceBasisPoints, ForkJoinPool.commonPool());
+    }
+
+    public PayrollEngine(int taxBasisPoints, int insuranceBasisPoints, ForkJoinPool pool) {
+        if (taxBasisPoints < 0 || insuranceBasisPoints < 0 || taxBasisPoints + insuranceBasisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException("Invalid deduction rates: " + taxBasisPoints + ", " + insuranceBasisPoints);
+        }
+        this.taxBasisPoints = taxBasisPoints;
+        this.insuranceBasisPoints = insuranceBasisPoints;
+        this.pool = pool;
+    }
+
+    public PayrollResult run(List<? extends Payable> workforce) {
+        long start = System.nanoTime();
+        long[] net = new long[workforce.size()];
+        Totals totals = pool.invoke(new PayrollTask(workforce, net, 0, workforce.size()));
+        return new PayrollResult(totals, net, System.nanoTime() - start);
+    }
+
+    // ==================== Money ====================
+
+    /** Converts a salary to cents exactly, rounding half-even. */
+    public static long toCents(double amount) {
+        if (amount < 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Invalid salary: " + amount);
+        }
+        double scaled = amount * 100;
+        long cents = (long) scaled;
+        if (cents == scaled && cents < (1L << 52)) {
+            return cents;
+        }
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    /** cents * basisPoints / 10000, rounded half-even. */
+    public static long applyRate(long cents, int basisPoints) {
+        long product = Math.multiplyExact(cents, (long) basisPoints);
+        long quotient = product / BASIS_POINTS;
+        long twiceRemainder = (product % BASIS_POINTS) * 2;
+        if (twiceRemainder > BASIS_POINTS || (twiceRemainder == BASIS_POINTS && (quotient & 1) == 1)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    public static String formatCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+
+    // ==================== Fork/Join ====================
+
+    private final class PayrollTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends Payable> workforce;
+        private final long[] net;
+        private final int from;
+        private final int to;
+
+        PayrollTask(List<? extends Payable> workforce, long[] net, int from, int to) {
+            this.workforce = workforce;
+            this.net = net;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= CHUNK_SIZE) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    try {
+                        Payable payable = workforce.get(i);
+                        long gross = toCents(payable.getSalary());
+                        long deductions = applyRate(gross, taxBasisPoints) + applyRate(gross, insuranceBasisPoints);
+                        totals.add(payable.getPayrollGroup(), gross, deductions);
+                        net[i] = gross - deductions;
+                    } catch (RuntimeException e) {
+                        net[i] = REJECTED;
+                        totals.reject("index " + i + ": " + e.getMessage());
+                    }
+                }
+                return totals;
+            }
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int mid = from + (chunks / 2) * CHUNK_SIZE;
+            PayrollTask left = new PayrollTask(workforce, net, from, mid);
+            left.fork();
+            Totals right = new PayrollTask(workforce, net, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // ==================== Results ====================
+
+    /** Gross and deduction sums in cents, overall and per payroll group, plus rejected records. */
+    static final class Totals {
+        long records;
+        long gross;
+        long deductions;
+        final Map<String, long[]> groups = new HashMap<>();
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(String error) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        void add(String group, long grossCents, long deductionCents) {
+            records++;
+            gross += grossCents;
+            deductions += deductionCents;
+            long[] sums = groups.computeIfAbsent(group, g -> new long[3]);
+            sums[0]++;
+            sums[1] += grossCents;
+            sums[2] += deductionCents;
+        }
+
+        /** Appends other, which covers the records after this one, so errors stay in index order. */
+        Totals merge(Totals other) {
+            rejected += other.rejected;
+            for (String error : other.errors) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(error);
+                }
+            }
+            records += other.records;
+            gross += other.gross;
+            deductions += other.deductions;
+            for (Map.Entry<String, long[]> entry : other.groups.entrySet()) {
+                long[] sums = groups.computeIfAbsent(entry.getKey(), g -> new long[3]);
+                for (int i = 0; i < 3; i++) {
+                    sums[i] += entry.getValue()[i];
+                }
+            }
+            return this;
+        }
+    }
+
+    public static class GroupTotal {
+
+        private final String group;
+        private final long headcount;
+        private final long grossCents;
+        private final long deductionCents;
+
+        GroupTotal(String group, long[] sums) {
+            this.group = group;
+            this.headcount = sums[0];
+            this.grossCents = sums[1];
+            this.deductionCents = sums[2];
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public long getHeadcount() {
+            return headcount;
+        }
+
+        public long getGrossCents() {
+            return grossCents;
+        }
+
+        public long getDeductionCents() {
+            return deductionCents;
+        }
+
+        public long getNetCents() {
+            return grossCents - deductionCents;
+        }
+
+        @Override
+        public String toString() {
+            return group + ": headcount=" + headcount +
+                    ", gross=" + formatCents(grossCents) +
+                    ", deductions=" + formatCents(deductionCents) +
+                    ", net=" + formatCents(getNetCents());
+        }
+    }
+
+    public static class PayrollResult {
+
+        private final long records;
+        private final long grossCents;
+        private final long deductionCents;
+        private final Map<String, GroupTotal> groups;
+        private final long[] netCents;
+        private final long elapsedNanos;
+        private final long rejected;
+        private final List<String> errors;
+
+        PayrollResult(Totals totals, long[] netCents, long elapsedNanos) {
+            this.records = totals.records;
+            this.grossCents = totals.gross;
+            this.deductionCents = totals.deductions;
+            Map<String, GroupTotal> sorted = new TreeMap<>();
+            for (Map.Entry<String, long[]> entry : totals.groups.entrySet()) {
+                String name = entry.getKey() == null ? "(none)" : entry.getKey();
+                sorted.put(name, new GroupTotal(name, entry.getValue()));
+            }
+            this.groups = Collections.unmodifiableMap(sorted);
+            this.netCents = netCents;
+            this.elapsedNanos = elapsedNanos;
+            this.rejected = totals.rejected;
+            this.errors = Collections.unmodifiableList(new ArrayList<>(totals.errors));
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getGrossCents() {
+            return grossCents;
+        }
+
+        public long getDeductionCents() {
+            return deductionCents;
+        }
+
+        public long getNetCents() {
+            return grossCents - deductionCents;
+        }
+
+        /** Totals per payroll group, sorted by group name. */
+        public Map<String, GroupTotal> getGroups() {
+            return groups;
+        }
+
+        /**
+         * Net pay in cents for the record at the same index as the input list.
+         *
+         * @throws IllegalStateException if that record was rejected
+         */
+        public long getNetCents(int index) {
+            long net = netCents[index];
+            if (net == REJECTED) {
+                throw new IllegalStateException("Record " + index + " was rejected");
+            }
+            return net;
+        }
+
+        public boolean isRejected(int index) {
+            return netCents[index] == REJECTED;
+        }
+
+        /** Records left out of the totals because they could not be paid. */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /** The first few rejected records, as "index N: reason". */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRecordsPerSecond() {
+            return records / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append("=== Payroll ===").append(RenderSupport.NEWLINE)
+                    .append("Records: ").append(records).append(RenderSupport.NEWLINE)
+                    .append("Rejected: ").append(rejected).append(RenderSupport.NEWLINE)
+                    .append("Gross: ").append(formatCents(grossCents)).append(RenderSupport.NEWLINE)
+                    .append("Deductions: ").append(formatCents(deductionCents)).append(RenderSupport.NEWLINE)
+                    .append("Net: ").append(formatCents(getNetCents())).append(RenderSupport.NEWLINE)
+                    .append(String.format("Throughput: %,.0f records/s", getRecordsPerSecond()))
+                    .append(RenderSupport.NEWLINE);
+            for (GroupTotal group : groups.values()) {
+                report.append("  ").append(group).append(RenderSupport.NEWLINE);
+            }
+            return report.toString();
+        }
+    }
+}
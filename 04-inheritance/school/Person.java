@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 
 public abstract class Person {
@@ -6,6 +8,9 @@ public abstract class Person {
     protected int age;
     protected String id;
 
+    private static final PersonListener[] NO_LISTENERS = new PersonListener[0];
+    private volatile PersonListener[] listeners = NO_LISTENERS;
+
     public Person(String name, int age, String id) {
         this.name = name;
         this.age = age;
@@ -15,6 +20,22 @@ public abstract class Person {
     public abstract void displayInfo();
     public abstract void introduce();
 
+    public abstract void appendInfo(Appendable out) throws IOException;
+    public abstract void appendIntroduction(Appendable out) throws IOException;
+
+    public void appendTo(Appendable out) throws IOException {
+        out.append(getClass().getSimpleName()).append('{');
+        appendFields(out);
+        out.append('}');
+    }
+
+    protected void appendFields(Appendable out) throws IOException {
+        RenderSupport.quoted(out, "name=", name);
+        out.append(", age=");
+        RenderSupport.append(out, age);
+        RenderSupport.quoted(out, ", id=", id);
+    }
+
     public String getName() {
         return name;
     }
@@ -27,16 +48,62 @@ public abstract class Person {
         return id;
     }
 
-    public void setName(String name) {
+    public synchronized void setName(String name) {
+        fireBeforeChange(PersonField.NAME);
         this.name = name;
+        fireAfterChange(PersonField.NAME);
     }
 
-    public void setAge(int age) {
+    public synchronized void setAge(int age) {
+        fireBeforeChange(PersonField.AGE);
         this.age = age;
+        fireAfterChange(PersonField.AGE);
     }
 
-    public void setId(String id) {
+    public synchronized void setId(String id) {
+        String oldId = this.id;
+        fireBeforeChange(PersonField.ID);
         this.id = id;
+        try {
+            fireAfterChange(PersonField.ID);
+        } catch (RuntimeException e) {
+            fireBeforeChange(PersonField.ID);
+            this.id = oldId;
+            fireAfterChange(PersonField.ID);
+            throw e;
+        }
+    }
+
+    public synchronized void addListener(PersonListener listener) {
+        PersonListener[] current = listeners;
+        PersonListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(PersonListener listener) {
+        PersonListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                PersonListener[] updated = new PersonListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    protected void fireBeforeChange(PersonField field) {
+        for (PersonListener listener : listeners) {
+            listener.beforeChange(this, field);
+        }
+    }
+
+    protected void fireAfterChange(PersonField field) {
+        for (PersonListener listener : listeners) {
+            listener.afterChange(this, field);
+        }
     }
 
     @Override
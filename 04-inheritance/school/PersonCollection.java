@@ -0,0 +1,275 @@
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Collection of people partitioned by concrete class: every PersonType
+ * has its own segment, so "all professors" or "all students including
+ * subclasses" is a walk over the matching segments instead of an
+ * instanceof scan over everyone.
+ *
+ * Iteration runs one segment at a time, so each stretch of calls to
+ * introduce() or displayInfo() sees a single receiver class. Order is
+ * insertion order within a type, not across types. Not thread-safe.
+ *
+ * remove() and contains() compare by reference: Person.equals follows
+ * name, age and id, which change, and two different people can be equal.
+ */
+public class PersonCollection extends AbstractCollection<Person> {
+
+    private static final PersonType[] TYPES = PersonType.values();
+    private static final int[] ALL_TYPES = segmentsOf(Person.class);
+
+    private final Segment[] segments = new Segment[TYPES.length];
+    private int modCount;
+
+    public PersonCollection() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public PersonCollection(Iterable<? extends Person> people) {
+        this();
+        for (Person person : people) {
+            add(person);
+        }
+    }
+
+    @Override
+    public boolean add(Person person) {
+        segments[PersonType.of(person).ordinal()].add(person);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o instanceof Person && segments[PersonType.of((Person) o).ordinal()].remove(o)) {
+            modCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Person && segments[PersonType.of((Person) o).ordinal()].indexOf(o) >= 0;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Person> iterator() {
+        return new SegmentIterator<>(ALL_TYPES, true);
+    }
+
+    // ==================== Type Queries ====================
+
+    /** People of exactly this type, excluding subclasses. */
+    public <T extends Person> List<T> segment(PersonType type) {
+        return new TypeView<>(new int[]{type.ordinal()});
+    }
+
+    /**
+     * Read-only view of everyone assignable to the given class, e.g.
+     * ofType(Student.class) includes undergraduate and graduate students.
+     * Costs only the matching segments; the view follows later changes.
+     */
+    public <T extends Person> List<T> ofType(Class<T> type) {
+        return new TypeView<>(segmentsOf(type));
+    }
+
+    public int count(Class<? extends Person> type) {
+        int count = 0;
+        for (int index : segmentsOf(type)) {
+            count += segments[index].size;
+        }
+        return count;
+    }
+
+    /** Runs the action segment by segment over everyone assignable to the given class. */
+    @SuppressWarnings("unchecked")
+    public <T extends Person> void forEachOfType(Class<T> type, Consumer<? super T> action) {
+        for (int index : segmentsOf(type)) {
+            Segment segment = segments[index];
+            Person[] items = segment.items;
+            for (int i = 0, n = segment.size; i < n; i++) {
+                action.accept((T) items[i]);
+            }
+        }
+    }
+
+    private static int[] segmentsOf(Class<?> type) {
+        int[] matches = new int[TYPES.length];
+        int count = 0;
+        for (PersonType value : TYPES) {
+            if (type.isAssignableFrom(value.getType())) {
+                matches[count++] = value.ordinal();
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // ==================== Segments ====================
+
+    /** Growable array holding one concrete class. */
+    private static final class Segment {
+        Person[] items = new Person[16];
+        int size;
+
+        void add(Person person) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = person;
+        }
+
+        int indexOf(Object o) {
+            for (int i = 0; i < size; i++) {
+                if (o == items[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        boolean remove(Object o) {
+            int index = indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            items[--size] = null;
+        }
+
+        void clear() {
+            Arrays.fill(items, 0, size, null);
+            size = 0;
+        }
+    }
+
+    // ==================== Views ====================
+
+    private final class TypeView<T> extends AbstractList<T> implements RandomAccess {
+        private final int[] indexes;
+
+        TypeView(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index >= 0) {
+                int remaining = index;
+                for (int segment : indexes) {
+                    Segment people = segments[segment];
+                    if (remaining < people.size) {
+                        return (T) people.items[remaining];
+                    }
+                    remaining -= people.size;
+                }
+            }
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int segment : indexes) {
+                size += segments[segment].size;
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new SegmentIterator<>(indexes, false);
+        }
+    }
+
+    private final class SegmentIterator<T> implements Iterator<T> {
+        private final int[] indexes;
+        private final boolean removable;
+        private int next;
+        private Person[] items;
+        private int limit;
+        private int position;
+        private Segment current;
+        private boolean canRemove;
+        private int expectedModCount = modCount;
+
+        SegmentIterator(int[] indexes, boolean removable) {
+            this.indexes = indexes;
+            this.removable = removable;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position >= limit) {
+                if (next == indexes.length) {
+                    return false;
+                }
+                current = segments[indexes[next++]];
+                items = current.items;
+                limit = current.size;
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return (T) items[position++];
+        }
+
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new UnsupportedOperationException("Type views are read-only");
+            }
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            current.removeAt(--position);
+            limit--;
+            canRemove = false;
+            expectedModCount = ++modCount;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Factory for the Person hierarchy: picks the concrete class from a type name.
+ *
+ * Every type shares the same eight-field layout, which is also the column
+ * layout used by PersonImporter:
+ *
+ *   type, name, age, id, group, amount, detail, extra
+ *
+ *   group  - major / subject / department
+ *   amount - gpa / salary
+ *   detail - year, thesisTopic, rank, supervisingProfessor, role or specialization
+ *   extra  - supervisor, publications, hoursPerWeek, canAccessRecords
+ *            or certifications separated by ';'
+ */
+public class PersonFactory {
+
+    public static final char CERTIFICATION_SEPARATOR = ';';
+
+    private static final String[] TYPE_NAMES = {
+            "student", "undergraduate", "graduate",
+            "teacher", "professor", "assistant",
+            "staff", "admin", "technical"
+    };
+
+    private PersonFactory() {
+    }
+
+    /** Type name as used in the type column, e.g. "professor". */
+    public static String nameOf(PersonType type) {
+        return TYPE_NAMES[type.ordinal()];
+    }
+
+    public static PersonType typeOf(String name) {
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            if (TYPE_NAMES[i].equalsIgnoreCase(name)) {
+                return PersonType.fromTag((byte) i);
+            }
+        }
+        throw new IllegalArgumentException("Unknown person type: " + name);
+    }
+
+    public static Person create(String type, String name, int age, String id) {
+        return create(typeOf(type), name, age, id, null, 0, null, null);
+    }
+
+    public static Person create(PersonType type, String name, int age, String id, String group,
+                                double amount, String detail, String extra) {
+        switch (type) {
+            case STUDENT:
+                return new Student(name, age, id, group, amount);
+            case UNDERGRADUATE_STUDENT:
+                return new UndergraduateStudent(name, age, id, group, amount, parseInt(detail));
+            case GRADUATE_STUDENT:
+                return new GraduateStudent(name, age, id, group, amount, detail, extra);
+            case TEACHER:
+                return new Teacher(name, age, id, group, amount);
+            case PROFESSOR:
+                return new Professor(name, age, id, group, amount, detail, parseInt(extra));
+            case ASSISTANT:
+                return new Assistant(name, age, id, group, amount, detail, parseInt(extra));
+            case STAFF:
+                return new Staff(name, age, id, group, amount);
+            case ADMIN_STAFF:
+                return new AdminStaff(name, age, id, group, amount, detail, Boolean.parseBoolean(extra));
+            case TECHNICAL_STAFF:
+                return new TechnicalStaff(name, age, id, group, amount, detail, splitCertifications(extra));
+            default:
+                throw new IllegalArgumentException("Unknown person type: " + type);
+        }
+    }
+
+    static String[] splitCertifications(String value) {
+        if (value == null || value.isEmpty()) {
+            return new String[0];
+        }
+        return value.split(String.valueOf(CERTIFICATION_SEPARATOR), -1);
+    }
+
+    private static int parseInt(String value) {
+        return value == null || value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+}
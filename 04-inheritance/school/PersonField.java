@@ -0,0 +1,41 @@
+/**
+ * Fields of the Person hierarchy that report changes to a PersonListener.
+ * WriteAheadLog stores the ordinal, so new fields go at the end.
+ */
+public enum PersonField {
+    ID,
+    /** Person.name */
+    NAME,
+    /** Student.major */
+    MAJOR,
+    /** Student.gpa */
+    GPA,
+    /** Teacher.subject */
+    SUBJECT,
+    /** Staff.department */
+    DEPARTMENT,
+    /** Teacher.salary or Staff.salary */
+    SALARY,
+    /** Professor.rank */
+    RANK,
+    /** AdminStaff.canAccessRecords */
+    CAN_ACCESS_RECORDS,
+    /** UndergraduateStudent.year */
+    YEAR,
+    /** GraduateStudent.supervisor or Assistant.supervisingProfessor */
+    SUPERVISOR,
+    /** Person.age */
+    AGE,
+    /** AdminStaff.role */
+    ROLE,
+    /** TechnicalStaff.specialization */
+    SPECIALIZATION,
+    /** TechnicalStaff.certifications */
+    CERTIFICATIONS,
+    /** GraduateStudent.thesisTopic */
+    THESIS_TOPIC,
+    /** Professor.publications */
+    PUBLICATIONS,
+    /** Assistant.hoursPerWeek */
+    HOURS_PER_WEEK
+}
@@ -0,0 +1,625 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Streaming bulk importer for CSV/TSV exports of people.
+ *
+ * The file is split into chunks that end on line boundaries; each chunk is
+ * memory-mapped and parsed by a worker thread straight from the mapped
+ * bytes. Numbers are parsed without creating Strings, and repeated values
+ * (majors, departments, ranks, ...) are decoded once per worker and then
+ * reused. Only as many chunks as there are workers are mapped at a time,
+ * and parsed people are handed to the caller in batches, so memory stays
+ * bounded no matter how large the file is.
+ *
+ * Column layout is the one described in PersonFactory:
+ *   type, name, age, id, group, amount, detail, extra
+ * A first line starting with "type" is treated as a header. Fields are not
+ * quoted, so values must not contain the delimiter.
+ */
+public class PersonImporter {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int MAX_ERRORS = 20;
+    private static final long DEFAULT_CHUNK_BYTES = 32L * 1024 * 1024;
+    private static final int FIELDS = 8;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final byte[][] TYPE_NAMES = new byte[PersonType.values().length][];
+
+    static {
+        for (PersonType type : PersonType.values()) {
+            TYPE_NAMES[type.ordinal()] = PersonFactory.nameOf(type).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final byte delimiter;
+    private final int threads;
+    private final long chunkBytes;
+
+    public PersonImporter(char delimiter) {
+        this(delimiter, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public PersonImporter(char delimiter, int threads, long chunkBytes) {
+        if (delimiter > 127 || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Delimiter must be a single ASCII character: " + delimiter);
+        }
+        if (threads <= 0 || chunkBytes <= 0 || chunkBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid threads/chunk size: " + threads + ", " + chunkBytes);
+        }
+        this.delimiter = (byte) delimiter;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    // ==================== Import ====================
+
+    /**
+     * Parses the file and passes people to {@code sink} in batches.
+     * The sink is called from several worker threads and must be thread-safe;
+     * batches arrive in no particular order.
+     */
+    public ImportResult importFile(Path file, Consumer<List<Person>> sink) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            ExecutorService workers = Executors.newFixedThreadPool(threads);
+            AtomicLong rows = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            // per chunk, so the reported errors are the first ones in file order
+            AtomicReferenceArray<List<String>> chunkErrors = new AtomicReferenceArray<>(bounds.length - 1);
+            try {
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    int chunk = i;
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    tasks.add(workers.submit(() -> {
+                        ChunkParser parser = new ChunkParser(channel, from, to, sink);
+                        parser.parse();
+                        rows.addAndGet(parser.rows);
+                        rejected.addAndGet(parser.rejected);
+                        chunkErrors.set(chunk, parser.errors);
+                        return null;
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Import failed", e.getCause());
+            } finally {
+                workers.shutdownNow();
+            }
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < chunkErrors.length() && errors.size() < MAX_ERRORS; i++) {
+                List<String> chunk = chunkErrors.get(i);
+                errors.addAll(chunk.subList(0, Math.min(chunk.size(), MAX_ERRORS - errors.size())));
+            }
+            return new ImportResult(rows.get(), rejected.get(), channel.size(), System.nanoTime() - start, errors);
+        }
+    }
+
+    /** Imports the whole file into memory, in file order. */
+    public List<Person> importAll(Path file) throws IOException {
+        List<List<Person>> batches = Collections.synchronizedList(new ArrayList<>());
+        importFile(file, batches::add);
+        List<Person> people = new ArrayList<>();
+        synchronized (batches) {
+            batches.sort((a, b) -> Long.compare(offsetOf(a), offsetOf(b)));
+            for (List<Person> batch : batches) {
+                people.addAll(batch);
+            }
+        }
+        return people;
+    }
+
+    private static long offsetOf(List<Person> batch) {
+        return ((Batch) batch).offset;
+    }
+
+    /** Read-only batch list that remembers the file offset of its first row. */
+    private static final class Batch extends AbstractList<Person> {
+        private final List<Person> people = new ArrayList<>(BATCH_SIZE);
+        private final long offset;
+
+        Batch(long offset) {
+            this.offset = offset;
+        }
+
+        void append(Person person) {
+            people.add(person);
+        }
+
+        @Override
+        public Person get(int index) {
+            return people.get(index);
+        }
+
+        @Override
+        public int size() {
+            return people.size();
+        }
+    }
+
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        long position = 0;
+        while (size - position > chunkBytes) {
+            long next = nextLineStart(channel, position + chunkBytes, probe);
+            if (next >= size) {
+                break;
+            }
+            bounds.add(next);
+            position = next;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long size = channel.size();
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // ==================== Parsing ====================
+
+    private final class ChunkParser {
+        private final MappedByteBuffer buffer;
+        private final long offset;
+        private final Consumer<List<Person>> sink;
+        private final int[] starts = new int[FIELDS];
+        private final int[] ends = new int[FIELDS];
+        private final StringCache cache = new StringCache();
+        private byte[] scratch = new byte[256];
+        private Batch batch;
+        private long rows;
+        private long rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        ChunkParser(FileChannel channel, long from, long to, Consumer<List<Person>> sink) throws IOException {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            this.offset = from;
+            this.sink = sink;
+        }
+
+        void parse() {
+            int limit = buffer.limit();
+            int position = 0;
+            if (offset == 0) {
+                position = skipHeader(limit);
+            }
+            batch = new Batch(offset + position);
+            while (position < limit) {
+                int lineEnd = position;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int end = lineEnd > position && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (end > position) {
+                    try {
+                        batch.append(parseLine(position, end));
+                        rows++;
+                    } catch (RuntimeException e) {
+                        rejected++;
+                        if (errors.size() < MAX_ERRORS) {
+                            errors.add("offset " + (offset + position) + ": " + e.getMessage());
+                        }
+                    }
+                    if (batch.size() == BATCH_SIZE) {
+                        sink.accept(batch);
+                        batch = new Batch(offset + lineEnd + 1);
+                    }
+                }
+                position = lineEnd + 1;
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+            }
+        }
+
+        private int skipHeader(int limit) {
+            byte[] header = {'t', 'y', 'p', 'e'};
+            if (limit < header.length) {
+                return 0;
+            }
+            for (int i = 0; i < header.length; i++) {
+                if ((buffer.get(i) | 0x20) != header[i]) {
+                    return 0;
+                }
+            }
+            int position = 0;
+            while (position < limit && buffer.get(position) != '\n') {
+                position++;
+            }
+            return position + 1;
+        }
+
+        private Person parseLine(int start, int end) {
+            int count = 0;
+            int fieldStart = start;
+            for (int i = start; i <= end && count < FIELDS; i++) {
+                if (i == end || buffer.get(i) == delimiter) {
+                    starts[count] = fieldStart;
+                    ends[count] = i;
+                    count++;
+                    fieldStart = i + 1;
+                }
+            }
+            if (count < 6) {
+                throw new IllegalArgumentException("Expected at least 6 fields, found " + count);
+            }
+            for (int i = count; i < FIELDS; i++) {
+                starts[i] = end;
+                ends[i] = end;
+            }
+
+            PersonType type = parseType(starts[0], ends[0]);
+            String name = string(starts[1], ends[1]);
+            int age = parseInt(starts[2], ends[2]);
+            String id = string(starts[3], ends[3]);
+            String group = cache.get(buffer, starts[4], ends[4]);
+            double amount = parseDouble(starts[5], ends[5]);
+
+            switch (type) {
+                case STUDENT:
+                    return new Student(name, age, id, group, amount);
+                case UNDERGRADUATE_STUDENT:
+                    return new UndergraduateStudent(name, age, id, group, amount, parseInt(starts[6], ends[6]));
+                case GRADUATE_STUDENT:
+                    return new GraduateStudent(name, age, id, group, amount,
+                            cache.get(buffer, starts[6], ends[6]), cache.get(buffer, starts[7], ends[7]));
+                case TEACHER:
+                    return new Teacher(name, age, id, group, amount);
+                case PROFESSOR:
+                    return new Professor(name, age, id, group, amount,
+                            cache.get(buffer, starts[6], ends[6]), parseInt(starts[7], ends[7]));
+                case ASSISTANT:
+                    return new Assistant(name, age, id, group, amount,
+                            cache.get(buffer, starts[6], ends[6]), parseInt(starts[7], ends[7]));
+                case STAFF:
+                    return new Staff(name, age, id, group, amount);
+                case ADMIN_STAFF:
+                    return new AdminStaff(name, age, id, group, amount,
+                            cache.get(buffer, starts[6], ends[6]), parseBoolean(starts[7], ends[7]));
+                case TECHNICAL_STAFF:
+                    return new TechnicalStaff(name, age, id, group, amount,
+                            cache.get(buffer, starts[6], ends[6]), parseCertifications(starts[7], ends[7]));
+                default:
+                    throw new IllegalArgumentException("Unknown person type: " + type);
+            }
+        }
+
+        private PersonType parseType(int start, int end) {
+            for (int t = 0; t < TYPE_NAMES.length; t++) {
+                byte[] name = TYPE_NAMES[t];
+                if (name.length != end - start) {
+                    continue;
+                }
+                int i = 0;
+                while (i < name.length && (buffer.get(start + i) | 0x20) == name[i]) {
+                    i++;
+                }
+                if (i == name.length) {
+                    return PersonType.fromTag((byte) t);
+                }
+            }
+            throw new IllegalArgumentException("Unknown person type: " + string(start, end));
+        }
+
+        private String string(int start, int end) {
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int parseInt(int start, int end) {
+            if (start == end) {
+                throw new IllegalArgumentException("Missing number");
+            }
+            boolean negative = buffer.get(start) == '-';
+            int i = negative ? start + 1 : start;
+            if (i == end) {
+                throw new IllegalArgumentException("Invalid number: " + string(start, end));
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Invalid number: " + string(start, end));
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw new IllegalArgumentException("Number out of range: " + string(start, end));
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Number out of range: " + string(start, end));
+            }
+            return (int) value;
+        }
+
+        /**
+         * Plain decimals with up to 15 significant digits are computed as
+         * mantissa / 10^scale, which is exact and correctly rounded. Anything
+         * else (exponents, longer values) falls back to Double.parseDouble.
+         */
+        private double parseDouble(int start, int end) {
+            boolean negative = start < end && buffer.get(start) == '-';
+            int i = negative ? start + 1 : start;
+            long mantissa = 0;
+            int digits = 0;
+            boolean anyDigit = false;
+            int scale = -1;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    anyDigit = true;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else {
+                    break;
+                }
+            }
+            // "." and "-." are not numbers; Double.parseDouble rejects them below
+            boolean plain = i == end && anyDigit;
+            if (plain && digits <= 15 && scale <= 22) {
+                double value = scale <= 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+                return negative ? -value : value;
+            }
+            try {
+                return Double.parseDouble(string(start, end));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number: " + string(start, end));
+            }
+        }
+
+        private boolean parseBoolean(int start, int end) {
+            return end - start == 4
+                    && (buffer.get(start) | 0x20) == 't'
+                    && (buffer.get(start + 1) | 0x20) == 'r'
+                    && (buffer.get(start + 2) | 0x20) == 'u'
+                    && (buffer.get(start + 3) | 0x20) == 'e';
+        }
+
+        private String[] parseCertifications(int start, int end) {
+            if (start == end) {
+                return new String[0];
+            }
+            int count = 1;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == PersonFactory.CERTIFICATION_SEPARATOR) {
+                    count++;
+                }
+            }
+            String[] certifications = new String[count];
+            int fieldStart = start;
+            int n = 0;
+            for (int i = start; i <= end; i++) {
+                if (i == end || buffer.get(i) == PersonFactory.CERTIFICATION_SEPARATOR) {
+                    certifications[n++] = cache.get(buffer, fieldStart, i);
+                    fieldStart = i + 1;
+                }
+            }
+            return certifications;
+        }
+    }
+
+    /**
+     * Small open-addressing cache from byte ranges to Strings, so a value
+     * that repeats on many rows is decoded only once per worker.
+     */
+    static final class StringCache {
+        private static final int CAPACITY = 4096;
+        private static final int MAX_LENGTH = 64;
+
+        private final byte[][] keys = new byte[CAPACITY][];
+        private final String[] values = new String[CAPACITY];
+        private int size;
+
+        String get(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (length > MAX_LENGTH) {
+                return decode(buffer, start, end);
+            }
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int slot = (hash ^ (hash >>> 16)) & (CAPACITY - 1);
+            while (keys[slot] != null) {
+                if (matches(keys[slot], buffer, start, end)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & (CAPACITY - 1);
+            }
+            String value = decode(buffer, start, end);
+            if (size < CAPACITY / 2) {
+                byte[] key = new byte[length];
+                buffer.get(start, key);
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+            }
+            return value;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String decode(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // ==================== Export ====================
+
+    /** Appends one row in the importer's column layout, without a line break. */
+    public static void appendRow(Person person, StringBuilder out, char delimiter) {
+        PersonType type = PersonType.of(person);
+        out.append(PersonFactory.nameOf(type)).append(delimiter)
+                .append(person.getName()).append(delimiter)
+                .append(person.getAge()).append(delimiter)
+                .append(person.getId()).append(delimiter);
+        if (person instanceof Student) {
+            Student student = (Student) person;
+            out.append(student.getMajor()).append(delimiter).append(student.getGpa());
+        } else if (person instanceof Payable) {
+            Payable payable = (Payable) person;
+            out.append(payable.getPayrollGroup()).append(delimiter).append(payable.getSalary());
+        }
+        switch (type) {
+            case UNDERGRADUATE_STUDENT:
+                out.append(delimiter).append(((UndergraduateStudent) person).getYear());
+                break;
+            case GRADUATE_STUDENT:
+                GraduateStudent grad = (GraduateStudent) person;
+                out.append(delimiter).append(grad.getThesisTopic()).append(delimiter).append(grad.getSupervisor());
+                break;
+            case PROFESSOR:
+                Professor prof = (Professor) person;
+                out.append(delimiter).append(prof.getRank()).append(delimiter).append(prof.getPublications());
+                break;
+            case ASSISTANT:
+                Assistant assistant = (Assistant) person;
+                out.append(delimiter).append(assistant.getSupervisingProfessor())
+                        .append(delimiter).append(assistant.getHoursPerWeek());
+                break;
+            case ADMIN_STAFF:
+                AdminStaff admin = (AdminStaff) person;
+                out.append(delimiter).append(admin.getRole()).append(delimiter).append(admin.isCanAccessRecords());
+                break;
+            case TECHNICAL_STAFF:
+                TechnicalStaff tech = (TechnicalStaff) person;
+                out.append(delimiter).append(tech.getSpecialization()).append(delimiter);
+                String[] certifications = tech.getCertifications();
+                for (int i = 0; i < certifications.length; i++) {
+                    if (i > 0) {
+                        out.append(PersonFactory.CERTIFICATION_SEPARATOR);
+                    }
+                    out.append(certifications[i]);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ==================== Result ====================
+
+    public static class ImportResult {
+
+        private final long rows;
+        private final long rejected;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final List<String> errors;
+
+        ImportResult(long rows, long rejected, long bytes, long elapsedNanos, List<String> errors) {
+            this.rows = rows;
+            this.rejected = rejected;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return bytes / 1e6 / (elapsedNanos / 1e9);
+        }
+
+        /** The first rejected rows in file order, as "offset N: reason". */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return "ImportResult{" +
+                    "rows=" + rows +
+                    ", rejected=" + rejected +
+                    ", bytes=" + bytes +
+                    ", MB/s=" + String.format("%.1f", getMegabytesPerSecond()) +
+                    '}';
+        }
+    }
+}
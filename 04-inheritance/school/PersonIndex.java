@@ -0,0 +1,390 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over people as compressed bitmaps.
+ *
+ * Every indexed person gets a dense row id (ids of removed people are
+ * reused). For each attribute value there is a CompressedBitmap of the
+ * rows holding it, plus one bitmap per PersonType, so a filter such as
+ * major = "CS" AND year IN (3, 4) is a bitmap AND/OR instead of a scan.
+ *
+ * The index listens to every indexed person. When a setter reports an
+ * indexed field, the row moves from the old value's bitmap to the new
+ * one in a single write-locked step, so a query never sees a person
+ * under both values or neither. Queries share a read lock.
+ */
+public class PersonIndex implements PersonListener {
+
+    public enum Attribute {
+        /** Student.major */
+        MAJOR(PersonField.MAJOR),
+        /** Staff.department */
+        DEPARTMENT(PersonField.DEPARTMENT),
+        /** Teacher.subject */
+        SUBJECT(PersonField.SUBJECT),
+        /** Professor.rank */
+        RANK(PersonField.RANK),
+        /** AdminStaff.canAccessRecords, as Boolean */
+        CAN_ACCESS_RECORDS(PersonField.CAN_ACCESS_RECORDS),
+        /** UndergraduateStudent.year, as Integer */
+        YEAR(PersonField.YEAR),
+        /** GraduateStudent.supervisor or Assistant.supervisingProfessor */
+        SUPERVISOR(PersonField.SUPERVISOR);
+
+        private final PersonField field;
+
+        Attribute(PersonField field) {
+            this.field = field;
+        }
+
+        public PersonField getField() {
+            return field;
+        }
+    }
+
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+    private static final Map<PersonField, Attribute> BY_FIELD = new EnumMap<>(PersonField.class);
+    private static final Object NOT_INDEXED = new Object();
+
+    static {
+        for (Attribute attribute : ATTRIBUTES) {
+            BY_FIELD.put(attribute.field, attribute);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdentityHashMap<Person, Integer> rows = new IdentityHashMap<>();
+    private Person[] people = new Person[64];
+    private Object[][] keys = new Object[ATTRIBUTES.length][64];
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int rowCount;
+    private final CompressedBitmap live = new CompressedBitmap();
+    private final CompressedBitmap[] types = new CompressedBitmap[PersonType.values().length];
+    private final List<Map<Object, CompressedBitmap>> values = new ArrayList<>();
+
+    public PersonIndex() {
+        for (int i = 0; i < types.length; i++) {
+            types[i] = new CompressedBitmap();
+        }
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            values.add(new HashMap<>());
+        }
+    }
+
+    // ==================== Maintenance ====================
+
+    /** Indexes the person; returns false if it was already indexed. */
+    public boolean add(Person person) {
+        synchronized (person) {
+            lock.writeLock().lock();
+            try {
+                if (rows.containsKey(person)) {
+                    return false;
+                }
+                int row = freeCount > 0 ? freeRows[--freeCount] : newRow();
+                rows.put(person, row);
+                people[row] = person;
+                live.add(row);
+                types[PersonType.of(person).ordinal()].add(row);
+                for (Attribute attribute : ATTRIBUTES) {
+                    Object key = keyOf(attribute, person);
+                    keys[attribute.ordinal()][row] = key;
+                    if (key != NOT_INDEXED) {
+                        bitmap(attribute, key).add(row);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            person.addListener(this);
+            return true;
+        }
+    }
+
+    public void addAll(Iterable<? extends Person> people) {
+        for (Person person : people) {
+            add(person);
+        }
+    }
+
+    public boolean remove(Person person) {
+        synchronized (person) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rows.remove(person);
+                if (row == null) {
+                    return false;
+                }
+                live.remove(row);
+                types[PersonType.of(person).ordinal()].remove(row);
+                for (Attribute attribute : ATTRIBUTES) {
+                    Object key = keys[attribute.ordinal()][row];
+                    if (key != NOT_INDEXED) {
+                        unindex(attribute, key, row);
+                    }
+                    keys[attribute.ordinal()][row] = null;
+                }
+                people[row] = null;
+                if (freeCount == freeRows.length) {
+                    freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+                }
+                freeRows[freeCount++] = row;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            person.removeListener(this);
+            return true;
+        }
+    }
+
+    @Override
+    public void beforeChange(Person person, PersonField field) {
+        // the old value is remembered per row, so everything happens in afterChange
+    }
+
+    @Override
+    public void afterChange(Person person, PersonField field) {
+        Attribute attribute = BY_FIELD.get(field);
+        if (attribute == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rows.get(person);
+            if (row == null) {
+                return;
+            }
+            Object[] column = keys[attribute.ordinal()];
+            Object oldKey = column[row];
+            Object newKey = keyOf(attribute, person);
+            if (oldKey == NOT_INDEXED || (oldKey == null ? newKey == null : oldKey.equals(newKey))) {
+                return;
+            }
+            unindex(attribute, oldKey, row);
+            bitmap(attribute, newKey).add(row);
+            column[row] = newKey;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int newRow() {
+        if (rowCount == people.length) {
+            people = Arrays.copyOf(people, rowCount * 2);
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = Arrays.copyOf(keys[i], rowCount * 2);
+            }
+        }
+        return rowCount++;
+    }
+
+    private CompressedBitmap bitmap(Attribute attribute, Object key) {
+        return values.get(attribute.ordinal()).computeIfAbsent(key, k -> new CompressedBitmap());
+    }
+
+    private void unindex(Attribute attribute, Object key, int row) {
+        Map<Object, CompressedBitmap> byValue = values.get(attribute.ordinal());
+        CompressedBitmap bitmap = byValue.get(key);
+        bitmap.remove(row);
+        if (bitmap.isEmpty()) {
+            byValue.remove(key);
+        }
+    }
+
+    /** The attribute's value for this person, or NOT_INDEXED if the attribute does not apply. */
+    private static Object keyOf(Attribute attribute, Person person) {
+        switch (attribute) {
+            case MAJOR:
+                return person instanceof Student ? ((Student) person).getMajor() : NOT_INDEXED;
+            case DEPARTMENT:
+                return person instanceof Staff ? ((Staff) person).getDepartment() : NOT_INDEXED;
+            case SUBJECT:
+                return person instanceof Teacher ? ((Teacher) person).getSubject() : NOT_INDEXED;
+            case RANK:
+                return person instanceof Professor ? ((Professor) person).getRank() : NOT_INDEXED;
+            case CAN_ACCESS_RECORDS:
+                return person instanceof AdminStaff ? ((AdminStaff) person).isCanAccessRecords() : NOT_INDEXED;
+            case YEAR:
+                return person instanceof UndergraduateStudent ? ((UndergraduateStudent) person).getYear() : NOT_INDEXED;
+            case SUPERVISOR:
+                if (person instanceof GraduateStudent) {
+                    return ((GraduateStudent) person).getSupervisor();
+                }
+                return person instanceof Assistant ? ((Assistant) person).getSupervisingProfessor() : NOT_INDEXED;
+            default:
+                return NOT_INDEXED;
+        }
+    }
+
+    // ==================== Queries ====================
+
+    public List<Person> select(Filter filter) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap matches = filter.evaluate(this);
+            List<Person> result = new ArrayList<>(matches.cardinality());
+            matches.forEach(row -> result.add(people[row]));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(Filter filter) {
+        lock.readLock().lock();
+        try {
+            return filter.evaluate(this).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Matching row ids; resolve them with personAt. Rows can be reused once their person is removed. */
+    public CompressedBitmap rows(Filter filter) {
+        lock.readLock().lock();
+        try {
+            return filter.evaluate(this).copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Person personAt(int row) {
+        lock.readLock().lock();
+        try {
+            return row >= 0 && row < rowCount ? people[row] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of people with the given value, without materializing anything. */
+    public int count(Attribute attribute, Object value) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap bitmap = values.get(attribute.ordinal()).get(value);
+            return bitmap == null ? 0 : bitmap.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Filters ====================
+
+    /**
+     * Predicate evaluated against the bitmaps while the index is read-locked.
+     * Leaves return the index's own bitmaps, which must not be modified;
+     * combinators always build new ones.
+     */
+    public abstract static class Filter {
+
+        abstract CompressedBitmap evaluate(PersonIndex index);
+    }
+
+    public static Filter eq(Attribute attribute, Object value) {
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                CompressedBitmap bitmap = index.values.get(attribute.ordinal()).get(value);
+                return bitmap == null ? new CompressedBitmap() : bitmap;
+            }
+        };
+    }
+
+    public static Filter in(Attribute attribute, Object... values) {
+        Filter[] filters = new Filter[values.length];
+        for (int i = 0; i < values.length; i++) {
+            filters[i] = eq(attribute, values[i]);
+        }
+        return or(filters);
+    }
+
+    /** Everyone assignable to the class, e.g. Student.class includes both student subclasses. */
+    public static Filter type(Class<? extends Person> type) {
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                CompressedBitmap result = new CompressedBitmap();
+                for (PersonType value : PersonType.values()) {
+                    if (type.isAssignableFrom(value.getType())) {
+                        result = result.or(index.types[value.ordinal()]);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    public static Filter all() {
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                return index.live;
+            }
+        };
+    }
+
+    /** Intersects the smallest operands first. */
+    public static Filter and(Filter... filters) {
+        Filter[] operands = filters.clone();
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                if (operands.length == 0) {
+                    return index.live;
+                }
+                CompressedBitmap[] bitmaps = new CompressedBitmap[operands.length];
+                for (int i = 0; i < operands.length; i++) {
+                    bitmaps[i] = operands[i].evaluate(index);
+                }
+                Arrays.sort(bitmaps, Comparator.comparingInt(CompressedBitmap::cardinality));
+                CompressedBitmap result = bitmaps[0];
+                for (int i = 1; i < bitmaps.length && !result.isEmpty(); i++) {
+                    result = result.and(bitmaps[i]);
+                }
+                return result;
+            }
+        };
+    }
+
+    public static Filter or(Filter... filters) {
+        Filter[] operands = filters.clone();
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                CompressedBitmap result = new CompressedBitmap();
+                for (Filter operand : operands) {
+                    result = result.or(operand.evaluate(index));
+                }
+                return result;
+            }
+        };
+    }
+
+    public static Filter not(Filter filter) {
+        return new Filter() {
+            @Override
+            CompressedBitmap evaluate(PersonIndex index) {
+                return index.live.andNot(filter.evaluate(index));
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Observes changes to a Person so that indexes built on top of it stay in sync.
+ *
+ * beforeChange is called while the old value is still visible through the
+ * getters, afterChange once the new value is in place. An exception thrown
+ * from afterChange for PersonField.ID rejects the change: setId restores the
+ * old id (reporting it as a second change) and rethrows. Other fields
+ * cannot be rejected.
+ *
+ * Both calls run while the setter holds the person's monitor, so no
+ * other reported change to the same person can interleave.
+ */
+public interface PersonListener {
+
+    void beforeChange(Person person, PersonField field);
+
+    void afterChange(Person person, PersonField field);
+}
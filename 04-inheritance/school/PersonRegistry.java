@@ -0,0 +1,97 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe index of people by id with constant-time get/register/unregister.
+ *
+ * Lookups are lock-free. Writes only lock the person being changed (the same
+ * monitor Person.setId uses), so writers on different people never contend
+ * on a shared lock. The registry listens to every registered person and
+ * moves its entry when setId is called; an id that is already taken by
+ * another person is rejected and the old id is kept.
+ */
+public class PersonRegistry implements PersonListener {
+
+    private final ConcurrentHashMap<String, Person> byId;
+
+    public PersonRegistry() {
+        this(16);
+    }
+
+    public PersonRegistry(int expectedSize) {
+        this.byId = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    public void register(Person person) {
+        synchronized (person) {
+            String id = requireId(person.getId());
+            Person existing = byId.putIfAbsent(id, person);
+            if (existing == person) {
+                return;
+            }
+            if (existing != null) {
+                throw new IllegalStateException("Duplicate id: " + id);
+            }
+            person.addListener(this);
+        }
+    }
+
+    public boolean unregister(Person person) {
+        synchronized (person) {
+            String id = person.getId();
+            if (id == null || !byId.remove(id, person)) {
+                return false;
+            }
+            person.removeListener(this);
+            return true;
+        }
+    }
+
+    public Person remove(String id) {
+        Person person = byId.get(id);
+        return person != null && unregister(person) ? person : null;
+    }
+
+    public Person get(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public boolean contains(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public Collection<Person> values() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    @Override
+    public void beforeChange(Person person, PersonField field) {
+        if (field == PersonField.ID && person.getId() != null) {
+            byId.remove(person.getId(), person);
+        }
+    }
+
+    @Override
+    public void afterChange(Person person, PersonField field) {
+        if (field != PersonField.ID) {
+            return;
+        }
+        String id = requireId(person.getId());
+        Person existing = byId.putIfAbsent(id, person);
+        if (existing != null && existing != person) {
+            throw new IllegalStateException("Duplicate id: " + id);
+        }
+    }
+
+    private static String requireId(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Person id must not be null");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Buffered bulk renderer for collections of people.
+ *
+ * Records are rendered into one reused StringBuilder and copied to the
+ * Writer in large chunks, so dumping many records costs a handful of
+ * writes instead of several synchronized println calls per record.
+ * The text is the same as displayInfo(), introduce() and toString() print.
+ * Not thread-safe; use one renderer per thread.
+ */
+public class PersonRenderer {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private final int chunkSize;
+    private final StringBuilder buffer;
+    private char[] chars;
+
+    public PersonRenderer(Writer out) {
+        this(out, DEFAULT_CHUNK_SIZE);
+    }
+
+    public PersonRenderer(Writer out, int chunkSize) {
+        this.out = out;
+        this.chunkSize = chunkSize;
+        this.buffer = new StringBuilder(chunkSize + 1024);
+        this.chars = new char[chunkSize + 1024];
+    }
+
+    public void renderInfo(Iterable<? extends Person> people) throws IOException {
+        for (Person person : people) {
+            person.appendInfo(buffer);
+            flushIfFull();
+        }
+        flush();
+    }
+
+    public void renderIntroductions(Iterable<? extends Person> people) throws IOException {
+        for (Person person : people) {
+            person.appendIntroduction(buffer);
+            flushIfFull();
+        }
+        flush();
+    }
+
+    /** Writes toString() of every person, one per line. */
+    public void renderLines(Iterable<? extends Person> people) throws IOException {
+        for (Person person : people) {
+            person.appendTo(buffer);
+            buffer.append(RenderSupport.NEWLINE);
+            flushIfFull();
+        }
+        flush();
+    }
+
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        int length = buffer.length();
+        if (length > 0) {
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            buffer.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            buffer.setLength(0);
+        }
+    }
+
+    private void flushIfFull() throws IOException {
+        if (buffer.length() >= chunkSize) {
+            drain();
+        }
+    }
+
+    /** Renders one record's toString() text into a caller-supplied builder. */
+    public static StringBuilder appendTo(Person person, StringBuilder target) {
+        try {
+            person.appendTo(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+}
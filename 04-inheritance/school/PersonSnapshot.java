@@ -0,0 +1,95 @@
+import java.util.Objects;
+
+/**
+ * Immutable, point-in-time copy of a Person.
+ *
+ * All fields are final and the hash code is computed once in the
+ * constructor, so snapshots are safe and cheap to use as keys in hash
+ * maps and sets. Each subclass passes the hash of its own fields up the
+ * constructor chain. equals() compares the cached hashes first and never
+ * allocates.
+ */
+public abstract class PersonSnapshot {
+
+    private final String name;
+    private final int age;
+    private final String id;
+    private final int hash;
+
+    protected PersonSnapshot(String name, int age, String id, int subclassHash) {
+        this.name = name;
+        this.age = age;
+        this.id = id;
+        this.hash = 31 * (31 * (31 * Objects.hashCode(name) + age) + Objects.hashCode(id)) + subclassHash;
+    }
+
+    public static PersonSnapshot of(Person person) {
+        switch (PersonType.of(person)) {
+            case STUDENT:
+                return StudentSnapshot.of((Student) person);
+            case UNDERGRADUATE_STUDENT:
+                return UndergraduateStudentSnapshot.of((UndergraduateStudent) person);
+            case GRADUATE_STUDENT:
+                return GraduateStudentSnapshot.of((GraduateStudent) person);
+            case TEACHER:
+                return TeacherSnapshot.of((Teacher) person);
+            case PROFESSOR:
+                return ProfessorSnapshot.of((Professor) person);
+            case ASSISTANT:
+                return AssistantSnapshot.of((Assistant) person);
+            case STAFF:
+                return StaffSnapshot.of((Staff) person);
+            case ADMIN_STAFF:
+                return AdminStaffSnapshot.of((AdminStaff) person);
+            case TECHNICAL_STAFF:
+                return TechnicalStaffSnapshot.of((TechnicalStaff) person);
+            default:
+                throw new IllegalArgumentException("Unknown person type: " + person.getClass().getName());
+        }
+    }
+
+    /** Creates a new mutable Person with the same values. */
+    public abstract Person toPerson();
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    protected void appendFields(StringBuilder out) {
+        out.append("name='").append(name).append('\'')
+                .append(", age=").append(age)
+                .append(", id='").append(id).append('\'');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(getClass().getSimpleName()).append('{');
+        appendFields(out);
+        return out.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        PersonSnapshot that = (PersonSnapshot) obj;
+        return hash == that.hash &&
+                age == that.age &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(id, that.id);
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,505 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar (struct-of-arrays) storage for the Person hierarchy.
+ *
+ * Every person is a row. Numbers live in primitive arrays, repeated strings
+ * are dictionary-encoded, and the concrete class is kept as a PersonType tag.
+ * Names, which are nearly all distinct, go to a NameDictionary that packs
+ * them into one byte array instead of keeping a String per row.
+ * Columns are shared between subclasses that never use them at the same time:
+ *
+ *   amounts - gpa (students) or salary (teachers, staff)
+ *   counts  - year, publications or hoursPerWeek
+ *   groups  - major, subject or department
+ *   titles  - thesisTopic, rank, role or specialization
+ *   extras  - supervisor, supervisingProfessor, canAccessRecords (0/1)
+ *             or a certification set code
+ *
+ * Not thread-safe.
+ */
+public class PersonStore {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final StringDictionary strings = new StringDictionary();
+    private final NameDictionary nameStrings = new NameDictionary();
+    private final Map<List<String>, Integer> certificationCodes = new HashMap<>();
+    private final List<String[]> certificationSets = new ArrayList<>();
+
+    private byte[] types;
+    private short[] ages;
+    private int[] names;
+    private String[] ids;
+    private double[] amounts;
+    private int[] counts;
+    private int[] groups;
+    private int[] titles;
+    private int[] extras;
+    private int size;
+    private int modCount;
+
+    public PersonStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PersonStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        types = new byte[capacity];
+        ages = new short[capacity];
+        names = new int[capacity];
+        ids = new String[capacity];
+        amounts = new double[capacity];
+        counts = new int[capacity];
+        groups = new int[capacity];
+        titles = new int[capacity];
+        extras = new int[capacity];
+    }
+
+    // ==================== Adding Rows ====================
+
+    public int add(Person person) {
+        PersonType type = PersonType.of(person);
+        int row = size;
+        ensureCapacity(row + 1);
+
+        types[row] = type.tag();
+        ages[row] = toShort(person.getAge());
+        names[row] = nameStrings.encode(person.getName());
+        ids[row] = person.getId();
+        extras[row] = StringDictionary.NULL_CODE;
+        titles[row] = StringDictionary.NULL_CODE;
+
+        if (person instanceof Student) {
+            Student student = (Student) person;
+            amounts[row] = student.getGpa();
+            groups[row] = strings.encode(student.getMajor());
+        } else if (person instanceof Teacher) {
+            Teacher teacher = (Teacher) person;
+            amounts[row] = teacher.getSalary();
+            groups[row] = strings.encode(teacher.getSubject());
+        } else if (person instanceof Staff) {
+            Staff staff = (Staff) person;
+            amounts[row] = staff.getSalary();
+            groups[row] = strings.encode(staff.getDepartment());
+        }
+
+        switch (type) {
+            case UNDERGRADUATE_STUDENT:
+                counts[row] = ((UndergraduateStudent) person).getYear();
+                break;
+            case GRADUATE_STUDENT:
+                GraduateStudent grad = (GraduateStudent) person;
+                titles[row] = strings.encode(grad.getThesisTopic());
+                extras[row] = strings.encode(grad.getSupervisor());
+                break;
+            case PROFESSOR:
+                Professor prof = (Professor) person;
+                titles[row] = strings.encode(prof.getRank());
+                counts[row] = prof.getPublications();
+                break;
+            case ASSISTANT:
+                Assistant assistant = (Assistant) person;
+                extras[row] = strings.encode(assistant.getSupervisingProfessor());
+                counts[row] = assistant.getHoursPerWeek();
+                break;
+            case ADMIN_STAFF:
+                AdminStaff admin = (AdminStaff) person;
+                titles[row] = strings.encode(admin.getRole());
+                extras[row] = admin.isCanAccessRecords() ? 1 : 0;
+                break;
+            case TECHNICAL_STAFF:
+                TechnicalStaff tech = (TechnicalStaff) person;
+                titles[row] = strings.encode(tech.getSpecialization());
+                extras[row] = encodeCertifications(tech.getCertifications());
+                break;
+            default:
+                break;
+        }
+
+        size++;
+        modCount++;
+        return row;
+    }
+
+    public void addAll(Person[] people) {
+        ensureCapacity(size + people.length);
+        for (Person person : people) {
+            add(person);
+        }
+    }
+
+    // ==================== Column Access ====================
+
+    public int size() {
+        return size;
+    }
+
+    public PersonType getType(int row) {
+        checkRow(row);
+        return PersonType.fromTag(types[row]);
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return nameStrings.decode(names[row]);
+    }
+
+    public int getAge(int row) {
+        checkRow(row);
+        return ages[row];
+    }
+
+    public String getId(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public String getMajor(int row) {
+        return strings.decode(groups[checkType(row, PersonType.STUDENT)]);
+    }
+
+    public double getGpa(int row) {
+        return amounts[checkType(row, PersonType.STUDENT)];
+    }
+
+    public String getSubject(int row) {
+        return strings.decode(groups[checkType(row, PersonType.TEACHER)]);
+    }
+
+    public String getDepartment(int row) {
+        return strings.decode(groups[checkType(row, PersonType.STAFF)]);
+    }
+
+    public double getSalary(int row) {
+        PersonType type = getType(row);
+        if (!type.isTeacher() && !type.isStaff()) {
+            throw new IllegalStateException("Row " + row + " has no salary: " + type);
+        }
+        return amounts[row];
+    }
+
+    public int getYear(int row) {
+        return counts[checkType(row, PersonType.UNDERGRADUATE_STUDENT)];
+    }
+
+    public String getThesisTopic(int row) {
+        return strings.decode(titles[checkType(row, PersonType.GRADUATE_STUDENT)]);
+    }
+
+    public String getSupervisor(int row) {
+        return strings.decode(extras[checkType(row, PersonType.GRADUATE_STUDENT)]);
+    }
+
+    public String getRank(int row) {
+        return strings.decode(titles[checkType(row, PersonType.PROFESSOR)]);
+    }
+
+    public int getPublications(int row) {
+        return counts[checkType(row, PersonType.PROFESSOR)];
+    }
+
+    public String getSupervisingProfessor(int row) {
+        return strings.decode(extras[checkType(row, PersonType.ASSISTANT)]);
+    }
+
+    public int getHoursPerWeek(int row) {
+        return counts[checkType(row, PersonType.ASSISTANT)];
+    }
+
+    public String getRole(int row) {
+        return strings.decode(titles[checkType(row, PersonType.ADMIN_STAFF)]);
+    }
+
+    public boolean isCanAccessRecords(int row) {
+        return extras[checkType(row, PersonType.ADMIN_STAFF)] == 1;
+    }
+
+    public String getSpecialization(int row) {
+        return strings.decode(titles[checkType(row, PersonType.TECHNICAL_STAFF)]);
+    }
+
+    public String[] getCertifications(int row) {
+        int code = extras[checkType(row, PersonType.TECHNICAL_STAFF)];
+        return code == StringDictionary.NULL_CODE ? null : certificationSets.get(code).clone();
+    }
+
+    public void setAge(int row, int age) {
+        checkRow(row);
+        ages[row] = toShort(age);
+        modCount++;
+    }
+
+    public void setGpa(int row, double gpa) {
+        amounts[checkType(row, PersonType.STUDENT)] = gpa;
+        modCount++;
+    }
+
+    public void setSalary(int row, double salary) {
+        getSalary(row);
+        amounts[row] = salary;
+        modCount++;
+    }
+
+    // ==================== Raw Columns ====================
+
+    // For QueryEngine, which scans columns directly. Arrays are replaced
+    // when the store grows, so re-read them after every add.
+
+    /** Changes on every add and every setter call. */
+    int modCount() {
+        return modCount;
+    }
+
+    /** Codes of every string column except names. */
+    StringDictionary dictionary() {
+        return strings;
+    }
+
+    /** Codes of the name column. */
+    NameDictionary nameDictionary() {
+        return nameStrings;
+    }
+
+    byte[] typeColumn() {
+        return types;
+    }
+
+    short[] ageColumn() {
+        return ages;
+    }
+
+    int[] nameColumn() {
+        return names;
+    }
+
+    double[] amountColumn() {
+        return amounts;
+    }
+
+    int[] countColumn() {
+        return counts;
+    }
+
+    int[] groupColumn() {
+        return groups;
+    }
+
+    int[] titleColumn() {
+        return titles;
+    }
+
+    int[] extraColumn() {
+        return extras;
+    }
+
+    // ==================== Views ====================
+
+    /** Returns a reusable view positioned on the given row. */
+    public View view(int row) {
+        return new View().moveTo(row);
+    }
+
+    /** Builds a regular Person object with the same values as the row. */
+    public Person toPerson(int row) {
+        String name = getName(row);
+        int age = getAge(row);
+        String id = getId(row);
+        switch (getType(row)) {
+            case STUDENT:
+                return new Student(name, age, id, getMajor(row), getGpa(row));
+            case UNDERGRADUATE_STUDENT:
+                return new UndergraduateStudent(name, age, id, getMajor(row), getGpa(row), getYear(row));
+            case GRADUATE_STUDENT:
+                return new GraduateStudent(name, age, id, getMajor(row), getGpa(row),
+                        getThesisTopic(row), getSupervisor(row));
+            case TEACHER:
+                return new Teacher(name, age, id, getSubject(row), getSalary(row));
+            case PROFESSOR:
+                return new Professor(name, age, id, getSubject(row), getSalary(row),
+                        getRank(row), getPublications(row));
+            case ASSISTANT:
+                return new Assistant(name, age, id, getSubject(row), getSalary(row),
+                        getSupervisingProfessor(row), getHoursPerWeek(row));
+            case STAFF:
+                return new Staff(name, age, id, getDepartment(row), getSalary(row));
+            case ADMIN_STAFF:
+                return new AdminStaff(name, age, id, getDepartment(row), getSalary(row),
+                        getRole(row), isCanAccessRecords(row));
+            case TECHNICAL_STAFF:
+                return new TechnicalStaff(name, age, id, getDepartment(row), getSalary(row),
+                        getSpecialization(row), getCertifications(row));
+            default:
+                throw new IllegalStateException("Unknown type at row " + row);
+        }
+    }
+
+    /**
+     * Flyweight over one row of the store. Call moveTo() to reuse the same
+     * view for another row instead of allocating a new object.
+     */
+    public class View {
+
+        private int row;
+
+        public View moveTo(int row) {
+            checkRow(row);
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public PersonType getType() {
+            return PersonStore.this.getType(row);
+        }
+
+        public String getName() {
+            return PersonStore.this.getName(row);
+        }
+
+        public int getAge() {
+            return PersonStore.this.getAge(row);
+        }
+
+        public String getId() {
+            return PersonStore.this.getId(row);
+        }
+
+        public String getMajor() {
+            return PersonStore.this.getMajor(row);
+        }
+
+        public double getGpa() {
+            return PersonStore.this.getGpa(row);
+        }
+
+        public String getSubject() {
+            return PersonStore.this.getSubject(row);
+        }
+
+        public String getDepartment() {
+            return PersonStore.this.getDepartment(row);
+        }
+
+        public double getSalary() {
+            return PersonStore.this.getSalary(row);
+        }
+
+        public int getYear() {
+            return PersonStore.this.getYear(row);
+        }
+
+        public String getThesisTopic() {
+            return PersonStore.this.getThesisTopic(row);
+        }
+
+        public String getSupervisor() {
+            return PersonStore.this.getSupervisor(row);
+        }
+
+        public String getRank() {
+            return PersonStore.this.getRank(row);
+        }
+
+        public int getPublications() {
+            return PersonStore.this.getPublications(row);
+        }
+
+        public String getSupervisingProfessor() {
+            return PersonStore.this.getSupervisingProfessor(row);
+        }
+
+        public int getHoursPerWeek() {
+            return PersonStore.this.getHoursPerWeek(row);
+        }
+
+        public String getRole() {
+            return PersonStore.this.getRole(row);
+        }
+
+        public boolean isCanAccessRecords() {
+            return PersonStore.this.isCanAccessRecords(row);
+        }
+
+        public String getSpecialization() {
+            return PersonStore.this.getSpecialization(row);
+        }
+
+        public String[] getCertifications() {
+            return PersonStore.this.getCertifications(row);
+        }
+
+        public Person toPerson() {
+            return PersonStore.this.toPerson(row);
+        }
+
+        @Override
+        public String toString() {
+            return toPerson().toString();
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    private int encodeCertifications(String[] certifications) {
+        if (certifications == null) {
+            return StringDictionary.NULL_CODE;
+        }
+        String[] canonical = new String[certifications.length];
+        for (int i = 0; i < certifications.length; i++) {
+            canonical[i] = strings.decode(strings.encode(certifications[i]));
+        }
+        List<String> key = Arrays.asList(canonical);
+        Integer code = certificationCodes.get(key);
+        if (code == null) {
+            code = certificationSets.size();
+            certificationCodes.put(key, code);
+            certificationSets.add(canonical);
+        }
+        return code;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= types.length) {
+            return;
+        }
+        int capacity = Math.max(required, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        names = Arrays.copyOf(names, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        groups = Arrays.copyOf(groups, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        extras = Arrays.copyOf(extras, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    private int checkType(int row, PersonType expected) {
+        PersonType type = getType(row);
+        if (!expected.getType().isAssignableFrom(type.getType())) {
+            throw new IllegalStateException("Row " + row + " is " + type + ", not " + expected);
+        }
+        return row;
+    }
+
+    private static short toShort(int age) {
+        if (age < 0 || age > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Age out of range: " + age);
+        }
+        return (short) age;
+    }
+}
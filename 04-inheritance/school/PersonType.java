@@ -0,0 +1,61 @@
+/**
+ * Type tag for every concrete class in the Person hierarchy.
+ * The tag is stored as a byte in columnar and binary formats.
+ */
+public enum PersonType {
+
+    STUDENT(Student.class),
+    UNDERGRADUATE_STUDENT(UndergraduateStudent.class),
+    GRADUATE_STUDENT(GraduateStudent.class),
+    TEACHER(Teacher.class),
+    PROFESSOR(Professor.class),
+    ASSISTANT(Assistant.class),
+    STAFF(Staff.class),
+    ADMIN_STAFF(AdminStaff.class),
+    TECHNICAL_STAFF(TechnicalStaff.class);
+
+    private static final PersonType[] VALUES = values();
+
+    private final Class<? extends Person> type;
+
+    PersonType(Class<? extends Person> type) {
+        this.type = type;
+    }
+
+    public Class<? extends Person> getType() {
+        return type;
+    }
+
+    public byte tag() {
+        return (byte) ordinal();
+    }
+
+    public boolean isStudent() {
+        return Student.class.isAssignableFrom(type);
+    }
+
+    public boolean isTeacher() {
+        return Teacher.class.isAssignableFrom(type);
+    }
+
+    public boolean isStaff() {
+        return Staff.class.isAssignableFrom(type);
+    }
+
+    public static PersonType fromTag(byte tag) {
+        return VALUES[tag];
+    }
+
+    public static PersonType of(Person person) {
+        return of(person.getClass());
+    }
+
+    public static PersonType of(Class<?> type) {
+        for (PersonType value : VALUES) {
+            if (value.type == type) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown person type: " + type.getName());
+    }
+}
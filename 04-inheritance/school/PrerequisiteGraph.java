@@ -0,0 +1,308 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course prerequisites with the transitive closure kept as one bitset
+ * per course.
+ *
+ * Every registered course gets a dense index. For each course the graph
+ * stores its direct prerequisites, everything it requires transitively,
+ * and everything that transitively requires it. "Has the student
+ * completed everything required for C" is then a word-by-word
+ * containment test of required(C) against the student's completed-course
+ * bitset, with no graph walk.
+ *
+ * Adding an edge updates only the rows it affects and rejects edges that
+ * would close a cycle. Writers are serialized; each write publishes a new
+ * immutable State, so eligibility checks never lock and always see a
+ * consistent graph. A new course's State is published before its index,
+ * so readers resolve the index first and read the State after it.
+ */
+public class PrerequisiteGraph {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile State state = new State(new Course[0], new long[0][], new long[0][], new long[0][]);
+
+    // ==================== Building ====================
+
+    /** Registers a course and returns its index; returns the existing index if already known. */
+    public synchronized int addCourse(Course course) {
+        Integer index = indexes.get(course.getCode());
+        if (index != null) {
+            return index;
+        }
+        State current = state;
+        int added = current.courses.length;
+        Course[] courses = Arrays.copyOf(current.courses, added + 1);
+        courses[added] = course;
+        state = new State(courses, grow(current.direct, added + 1), grow(current.required, added + 1),
+                grow(current.dependents, added + 1));
+        indexes.put(course.getCode(), added);
+        return added;
+    }
+
+    /**
+     * Makes prerequisite required for course. Both are registered if needed.
+     *
+     * @return false if the edge already existed
+     * @throws IllegalArgumentException if the edge would create a cycle
+     */
+    public synchronized boolean addPrerequisite(Course course, Course prerequisite) {
+        int c = addCourse(course);
+        int p = addCourse(prerequisite);
+        State current = state;
+        if (c == p || contains(current.required[p], c)) {
+            throw new IllegalArgumentException("Prerequisite cycle: " + describe(cyclePath(current, p, c)));
+        }
+        if (contains(current.direct[c], p)) {
+            return false;
+        }
+
+        long[][] direct = current.direct.clone();
+        long[][] required = current.required.clone();
+        long[][] dependents = current.dependents.clone();
+        direct[c] = with(direct[c], p);
+
+        // p and everything p needs, and c with everything that needs c
+        long[] below = with(current.required[p], p);
+        long[] above = with(current.dependents[c], c);
+
+        for (int x = nextBit(above, 0); x >= 0; x = nextBit(above, x + 1)) {
+            if (!containsAll(required[x], below)) {
+                required[x] = or(required[x], below);
+            }
+        }
+        for (int y = nextBit(below, 0); y >= 0; y = nextBit(below, y + 1)) {
+            if (!containsAll(dependents[y], above)) {
+                dependents[y] = or(dependents[y], above);
+            }
+        }
+        state = new State(current.courses, direct, required, dependents);
+        return true;
+    }
+
+    // ==================== Eligibility ====================
+
+    /** Empty completed-course set; grow it with markCompleted. */
+    public long[] newCompletedSet() {
+        return new long[words(size())];
+    }
+
+    /**
+     * Adds the course to a completed-course set and returns the set,
+     * reallocated if the course index does not fit.
+     */
+    public long[] markCompleted(long[] completed, Course course) {
+        return with(completed, indexOf(course));
+    }
+
+    public long[] completedSet(Iterable<Course> completedCourses) {
+        long[] completed = newCompletedSet();
+        for (Course course : completedCourses) {
+            completed = markCompleted(completed, course);
+        }
+        return completed;
+    }
+
+    /** True if every direct and indirect prerequisite of course is in completed. */
+    public boolean isEligible(Course course, long[] completed) {
+        int c = indexOf(course);
+        return containsAll(completed, state.required[c]);
+    }
+
+    /** Prerequisites (direct and indirect) not yet in completed, in index order. */
+    public List<Course> getMissing(Course course, long[] completed) {
+        int c = indexOf(course);
+        State current = state;
+        long[] required = current.required[c];
+        List<Course> missing = new ArrayList<>();
+        for (int i = 0; i < required.length; i++) {
+            long word = required[i] & ~(i < completed.length ? completed[i] : 0);
+            while (word != 0) {
+                missing.add(current.courses[i * 64 + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return missing;
+    }
+
+    // ==================== Queries ====================
+
+    public boolean requires(Course course, Course prerequisite) {
+        int c = indexOf(course);
+        Integer p = indexes.get(prerequisite.getCode());
+        return p != null && contains(state.required[c], p);
+    }
+
+    public List<Course> getDirectPrerequisites(Course course) {
+        int c = indexOf(course);
+        State current = state;
+        return toCourses(current, current.direct[c]);
+    }
+
+    public List<Course> getAllPrerequisites(Course course) {
+        int c = indexOf(course);
+        State current = state;
+        return toCourses(current, current.required[c]);
+    }
+
+    /** Courses that need this one, directly or indirectly. */
+    public List<Course> getDependents(Course course) {
+        int c = indexOf(course);
+        State current = state;
+        return toCourses(current, current.dependents[c]);
+    }
+
+    public int size() {
+        return state.courses.length;
+    }
+
+    /** Call before reading state: the index may be newer than a State read earlier. */
+    private int indexOf(Course course) {
+        Integer index = indexes.get(course.getCode());
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown course: " + course.getCode());
+        }
+        return index;
+    }
+
+    private static List<Course> toCourses(State current, long[] bits) {
+        List<Course> result = new ArrayList<>();
+        for (int i = nextBit(bits, 0); i >= 0; i = nextBit(bits, i + 1)) {
+            result.add(current.courses[i]);
+        }
+        return result;
+    }
+
+    /** to -> from -> ... -> to, following direct edges; to is known to be in required(from). */
+    private static List<Course> cyclePath(State current, int from, int to) {
+        Course[] courses = current.courses;
+        if (from == to) {
+            return Arrays.asList(courses[from], courses[to]);
+        }
+        int[] previous = new int[courses.length];
+        Arrays.fill(previous, -1);
+        previous[from] = from;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            long[] next = current.direct[node];
+            for (int n = nextBit(next, 0); n >= 0; n = nextBit(next, n + 1)) {
+                if (previous[n] < 0) {
+                    previous[n] = node;
+                    queue.add(n);
+                }
+            }
+        }
+        List<Course> path = new ArrayList<>();
+        for (int node = to; node != from; node = previous[node]) {
+            path.add(courses[node]);
+        }
+        path.add(courses[from]);
+        Collections.reverse(path);
+        // the rejected edge: to requires from
+        path.add(0, courses[to]);
+        return path;
+    }
+
+    private static String describe(List<Course> path) {
+        StringBuilder text = new StringBuilder();
+        for (Course course : path) {
+            if (text.length() > 0) {
+                text.append(" -> ");
+            }
+            text.append(course.getCode());
+        }
+        return text.toString();
+    }
+
+    // ==================== Bitsets ====================
+
+    /** Rows may be shorter than the current course count; missing words are zero. */
+    private static final class State {
+        final Course[] courses;
+        final long[][] direct;
+        final long[][] required;
+        final long[][] dependents;
+
+        State(Course[] courses, long[][] direct, long[][] required, long[][] dependents) {
+            this.courses = courses;
+            this.direct = direct;
+            this.required = required;
+            this.dependents = dependents;
+        }
+    }
+
+    private static long[][] grow(long[][] rows, int size) {
+        long[][] grown = Arrays.copyOf(rows, size);
+        for (int i = rows.length; i < size; i++) {
+            grown[i] = EMPTY;
+        }
+        return grown;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static boolean contains(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    /** Copy of bits with index set. */
+    private static long[] with(long[] bits, int index) {
+        long[] copy = Arrays.copyOf(bits, Math.max(bits.length, words(index + 1)));
+        copy[index >>> 6] |= 1L << index;
+        return copy;
+    }
+
+    private static long[] or(long[] left, long[] right) {
+        long[] result = Arrays.copyOf(left, Math.max(left.length, right.length));
+        for (int i = 0; i < right.length; i++) {
+            result[i] |= right[i];
+        }
+        return result;
+    }
+
+    /** True if every bit of subset is set in set. */
+    static boolean containsAll(long[] set, long[] subset) {
+        int common = Math.min(set.length, subset.length);
+        for (int i = 0; i < common; i++) {
+            if ((subset[i] & ~set[i]) != 0) {
+                return false;
+            }
+        }
+        for (int i = common; i < subset.length; i++) {
+            if (subset[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return word * 64 + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class Professor extends Teacher {
@@ -8,7 +9,7 @@ public class Professor extends Teacher {
     public Professor(String name, int age, String id, String subject, double salary,
                      String rank, int publications) {
         super(name, age, id, subject, salary);
-        this.rank = rank;
+        this.rank = StringPool.attribute(rank);
         this.publications = publications;
     }
 
@@ -24,20 +25,45 @@ public class Professor extends Teacher {
         System.out.println("Hello, I'm " + rank + " " + name + ", I teach " + subject);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Rank: ", rank);
+        RenderSupport.line(out, "Publications: ", publications);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hello, I'm ").append(rank).append(' ').append(name).append(", I teach ").append(subject)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", rank=", rank);
+        out.append(", publications=");
+        RenderSupport.append(out, publications);
+    }
+
     public String getRank() {
         return rank;
     }
 
-    public void setRank(String rank) {
-        this.rank = rank;
+    public synchronized void setRank(String rank) {
+        fireBeforeChange(PersonField.RANK);
+        this.rank = StringPool.attribute(rank);
+        fireAfterChange(PersonField.RANK);
     }
 
     public int getPublications() {
         return publications;
     }
 
-    public void setPublications(int publications) {
+    public synchronized void setPublications(int publications) {
+        fireBeforeChange(PersonField.PUBLICATIONS);
         this.publications = publications;
+        fireAfterChange(PersonField.PUBLICATIONS);
     }
 
     @Override
@@ -0,0 +1,54 @@
+import java.util.Objects;
+
+public final class ProfessorSnapshot extends TeacherSnapshot {
+
+    private final String rank;
+    private final int publications;
+
+    public ProfessorSnapshot(String name, int age, String id, String subject, double salary,
+                             String rank, int publications) {
+        super(name, age, id, subject, salary, hash(rank, publications));
+        this.rank = rank;
+        this.publications = publications;
+    }
+
+    public static ProfessorSnapshot of(Professor prof) {
+        return new ProfessorSnapshot(prof.getName(), prof.getAge(), prof.getId(),
+                prof.getSubject(), prof.getSalary(), prof.getRank(),
+                prof.getPublications());
+    }
+
+    @Override
+    public Professor toPerson() {
+        return new Professor(getName(), getAge(), getId(),
+                getSubject(), getSalary(), rank, publications);
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public int getPublications() {
+        return publications;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", rank='").append(rank).append('\'')
+                .append(", publications=").append(publications);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        ProfessorSnapshot that = (ProfessorSnapshot) obj;
+        return Objects.equals(rank, that.rank) &&
+                publications == that.publications;
+    }
+
+    private static int hash(String rank, int publications) {
+        return 31 * Objects.hashCode(rank) + publications;
+    }
+}
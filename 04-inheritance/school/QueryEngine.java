@@ -0,0 +1,999 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fluent queries over a PersonStore, for example
+ *
+ *   engine.students()
+ *         .where(QueryField.GPA.gt(3.5))
+ *         .and(QueryField.MAJOR.eq("AI"))
+ *         .orderBy(QueryField.GPA, true)
+ *         .limit(100)
+ *         .list();
+ *
+ * Conditions are compiled against the store's columns before they run:
+ * strings become dictionary codes and the types that carry each field
+ * become one bit mask, so testing a row is a few array reads and int
+ * compares instead of instanceof checks and getter calls.
+ *
+ * Every query estimates how many rows each access path would touch and
+ * runs the cheapest:
+ *
+ *   INDEX - AND of per-value bitmaps for equality conditions and types
+ *   RANGE - binary search in a sorted row index of one field
+ *   SCAN  - every row, split into parallel chunks on large stores
+ *
+ * The other conditions are checked on the candidate rows. A range walk
+ * over the orderBy field already yields rows in order, so with a limit
+ * it stops as soon as enough rows matched.
+ *
+ * Indexes are built on first use and dropped whenever the store changes.
+ * Queries may run on several threads at once, but not while the store
+ * is being modified; a Query object itself belongs to one thread.
+ */
+public class QueryEngine {
+
+    /** Relative cost of one candidate row; index rows are random reads, scan rows are sequential. */
+    private static final double SCAN_ROW_COST = 1.0;
+    private static final double RANGE_ROW_COST = 2.0;
+    private static final double INDEX_ROW_COST = 3.0;
+    /** Per row and log2(rows) step of sorting the result. */
+    private static final double SORT_ROW_COST = 0.1;
+
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final int PARALLEL_THRESHOLD = 4 * CHUNK_SIZE;
+    private static final int ALL_TYPES = QueryField.maskOf(Person.class);
+    private static final int[] NO_ROWS = new int[0];
+
+    private final PersonStore store;
+    private final ForkJoinPool pool;
+
+    // built lazily and dropped when store.modCount() moves; guarded by this
+    private int indexedModCount = -1;
+    private CompressedBitmap[] typeIndex;
+    private final Map<QueryField, Map<Integer, CompressedBitmap>> valueIndexes = new EnumMap<>(QueryField.class);
+    private final Map<QueryField, SortedIndex> sortedIndexes = new EnumMap<>(QueryField.class);
+
+    public QueryEngine(PersonStore store) {
+        this(store, ForkJoinPool.commonPool());
+    }
+
+    public QueryEngine(PersonStore store, ForkJoinPool pool) {
+        this.store = Objects.requireNonNull(store, "store");
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    // ==================== Entry Points ====================
+
+    public Query all() {
+        return new Query(ALL_TYPES);
+    }
+
+    public Query students() {
+        return of(Student.class);
+    }
+
+    public Query teachers() {
+        return of(Teacher.class);
+    }
+
+    public Query staff() {
+        return of(Staff.class);
+    }
+
+    /** Everyone assignable to the class, e.g. Student.class includes both student subclasses. */
+    public Query of(Class<? extends Person> type) {
+        return new Query(QueryField.maskOf(type));
+    }
+
+    // ==================== Query ====================
+
+    public final class Query {
+
+        private final int typeMask;
+        private final List<Condition> conditions = new ArrayList<>();
+        private QueryField orderField;
+        private boolean descending;
+        private int limit = -1;
+
+        private Query(int typeMask) {
+            this.typeMask = typeMask;
+        }
+
+        public Query where(Condition condition) {
+            conditions.add(Objects.requireNonNull(condition, "condition"));
+            return this;
+        }
+
+        public Query and(Condition condition) {
+            return where(condition);
+        }
+
+        public Query orderBy(QueryField field) {
+            return orderBy(field, false);
+        }
+
+        /** Rows that do not carry the field come last either way; ties keep row order. */
+        public Query orderBy(QueryField field, boolean descending) {
+            this.orderField = Objects.requireNonNull(field, "field");
+            this.descending = descending;
+            return this;
+        }
+
+        public Query limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Negative limit: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        /** Matching store rows in query order; without orderBy the order depends on the plan. */
+        public int[] rows() {
+            return execute(this, true);
+        }
+
+        public List<Person> list() {
+            int[] rows = rows();
+            List<Person> result = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                result.add(store.toPerson(row));
+            }
+            return result;
+        }
+
+        /** Number of matches, capped by the limit; skips the ordering. */
+        public int count() {
+            return execute(this, false).length;
+        }
+
+        /** The plan this query would run, with its estimated candidate rows. */
+        public String explain() {
+            Columns columns = new Columns(store);
+            Compiled[] compiled = compile(this, columns);
+            return compiled == null ? "EMPTY" : plan(this, compiled, columns, true).toString();
+        }
+    }
+
+    // ==================== Conditions ====================
+
+    /** Built by QueryField: eq/in hold values, the numeric comparisons hold a range. */
+    public static final class Condition {
+
+        private final QueryField field;
+        private final Object[] values;
+        private final double low;
+        private final boolean lowInclusive;
+        private final double high;
+        private final boolean highInclusive;
+        private final String text;
+
+        Condition(QueryField field, Object[] values, double low, boolean lowInclusive,
+                  double high, boolean highInclusive, String text) {
+            this.field = field;
+            this.values = values;
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.text = text;
+        }
+
+        public QueryField getField() {
+            return field;
+        }
+
+        @Override
+        public String toString() {
+            return field.name() + text;
+        }
+    }
+
+    /**
+     * A condition bound to the current columns. Exactly one of codes
+     * (string/boolean IN), numbers (numeric IN) or the range is used.
+     */
+    private static final class Compiled {
+        final Condition source;
+        final int[] codes;
+        final double[] numbers;
+        final int[] intColumn;
+        final short[] shortColumn;
+        final double[] doubleColumn;
+
+        Compiled(Condition source, int[] codes, double[] numbers, Columns columns) {
+            this.source = source;
+            this.codes = codes;
+            this.numbers = numbers;
+            QueryField.Column column = source.field.column();
+            this.intColumn = column == QueryField.Column.AGES || column == QueryField.Column.AMOUNTS
+                    ? null : columns.ints(column);
+            this.shortColumn = column == QueryField.Column.AGES ? columns.ages : null;
+            this.doubleColumn = column == QueryField.Column.AMOUNTS ? columns.amounts : null;
+        }
+
+        boolean isRange() {
+            return codes == null && numbers == null;
+        }
+
+        boolean test(int row) {
+            if (codes != null) {
+                int code = intColumn[row];
+                for (int candidate : codes) {
+                    if (candidate == code) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            double value = doubleColumn != null ? doubleColumn[row]
+                    : shortColumn != null ? shortColumn[row] : intColumn[row];
+            if (numbers != null) {
+                for (double candidate : numbers) {
+                    if (candidate == value) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            Condition c = source;
+            return (c.lowInclusive ? value >= c.low : value > c.low)
+                    && (c.highInclusive ? value <= c.high : value < c.high);
+        }
+    }
+
+    /**
+     * Returns null if the query can never match: no type carries every
+     * field, or a value is one the store has never seen.
+     */
+    private static Compiled[] compile(Query query, Columns columns) {
+        int typeMask = query.typeMask;
+        for (Condition condition : query.conditions) {
+            typeMask &= condition.field.typeMask();
+        }
+        if (typeMask == 0) {
+            return null;
+        }
+        Compiled[] compiled = new Compiled[query.conditions.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            Condition condition = query.conditions.get(i);
+            QueryField field = condition.field;
+            if (condition.values == null) {
+                if (condition.low > condition.high
+                        || (condition.low == condition.high && !(condition.lowInclusive && condition.highInclusive))) {
+                    return null;
+                }
+                compiled[i] = new Compiled(condition, null, null, columns);
+            } else if (field.kind() == QueryField.Kind.NUMBER) {
+                double[] numbers = new double[condition.values.length];
+                for (int j = 0; j < numbers.length; j++) {
+                    numbers[j] = (Double) condition.values[j];
+                }
+                if (numbers.length == 0) {
+                    return null;
+                }
+                compiled[i] = new Compiled(condition, null, numbers, columns);
+            } else {
+                int[] codes = new int[condition.values.length];
+                int count = 0;
+                for (Object value : condition.values) {
+                    int code = field.kind() == QueryField.Kind.BOOLEAN
+                            ? ((Boolean) value ? 1 : 0) : columns.lookup(field.column(), (String) value);
+                    if (code != StringDictionary.UNKNOWN_CODE) {
+                        codes[count++] = code;
+                    }
+                }
+                if (count == 0) {
+                    return null;
+                }
+                codes = Arrays.stream(codes, 0, count).sorted().distinct().toArray();
+                compiled[i] = new Compiled(condition, codes, null, columns);
+            }
+        }
+        return compiled;
+    }
+
+    // ==================== Planning ====================
+
+    private enum Access {
+        INDEX, RANGE, SCAN
+    }
+
+    private static final class Plan {
+        Access access = Access.SCAN;
+        double cost;
+        long estimate;
+        /** RANGE: the sorted index, the walked slice and the condition it covers (null for a full walk). */
+        SortedIndex sorted;
+        int from;
+        int to;
+        Compiled driver;
+        /** INDEX: the bitmaps to intersect and the conditions they cover. */
+        List<CompressedBitmap> bitmaps;
+        List<Compiled> covered;
+        /** Rows already come out in query order. */
+        boolean presorted;
+        int typeMask;
+        Compiled[] residual;
+        String order = "";
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(access.name());
+            if (access == Access.RANGE) {
+                text.append(' ').append(driver != null ? driver.source.toString() : sorted.field.name());
+            } else if (access == Access.INDEX) {
+                text.append(covered.isEmpty() ? " types" : " " + describe(covered));
+            }
+            text.append(" ~").append(estimate).append(" rows, cost ").append(Math.round(cost));
+            if (residual.length > 0) {
+                text.append("; filter ").append(describe(Arrays.asList(residual)));
+            }
+            return text.append(order).toString();
+        }
+
+        private static String describe(List<Compiled> conditions) {
+            StringBuilder text = new StringBuilder();
+            for (Compiled condition : conditions) {
+                text.append(text.length() == 0 ? "" : " AND ").append(condition.source);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Picks the cheapest access path. explainOnly skips building the INDEX
+     * bitmaps, which the estimate does not need.
+     */
+    private Plan plan(Query query, Compiled[] compiled, Columns columns, boolean explainOnly) {
+        int typeMask = query.typeMask;
+        for (Compiled condition : compiled) {
+            typeMask &= condition.source.field.typeMask();
+        }
+        boolean ordered = query.orderField != null;
+        int size = columns.size;
+
+        Plan best = new Plan();
+        best.estimate = size;
+        int parallelism = size >= PARALLEL_THRESHOLD ? pool.getParallelism() : 1;
+        best.cost = size * SCAN_ROW_COST / parallelism + sortCost(ordered, size);
+        best.residual = compiled;
+
+        // INDEX: types plus every equality condition on a string or boolean field
+        List<Compiled> covered = new ArrayList<>();
+        long indexEstimate = typeMask == ALL_TYPES ? size : typeCount(typeMask, columns);
+        for (Compiled condition : compiled) {
+            if (condition.codes != null) {
+                covered.add(condition);
+                indexEstimate = Math.min(indexEstimate, valueCount(condition, columns));
+            }
+        }
+        if (typeMask != ALL_TYPES || !covered.isEmpty()) {
+            double cost = indexEstimate * INDEX_ROW_COST + sortCost(ordered, indexEstimate);
+            if (cost < best.cost) {
+                best = new Plan();
+                best.access = Access.INDEX;
+                best.estimate = indexEstimate;
+                best.cost = cost;
+                best.covered = covered;
+                best.residual = without(compiled, covered);
+                if (!explainOnly) {
+                    best.bitmaps = bitmaps(typeMask, covered, columns);
+                }
+            }
+        }
+
+        // RANGE: one numeric range condition, or a full walk of the orderBy field
+        // when every candidate type carries it
+        int limit = query.limit;
+        for (Compiled condition : compiled) {
+            if (condition.isRange()) {
+                Plan range = range(query, compiled, condition, columns);
+                if (range.cost < best.cost) {
+                    best = range;
+                }
+            }
+        }
+        if (ordered && limit >= 0 && (typeMask & ~query.orderField.typeMask()) == 0) {
+            Plan walk = range(query, compiled, null, columns);
+            if (walk.cost < best.cost) {
+                best = walk;
+            }
+        }
+
+        best.typeMask = typeMask;
+        if (ordered) {
+            best.order = "; order by " + query.orderField.name() + (query.descending ? " desc" : "")
+                    + (best.presorted ? " (presorted)" : "");
+        }
+        if (limit >= 0) {
+            best.order += "; limit " + limit;
+        }
+        return best;
+    }
+
+    private Plan range(Query query, Compiled[] compiled, Compiled driver, Columns columns) {
+        QueryField field = driver != null ? driver.source.field : query.orderField;
+        SortedIndex index = sortedIndex(field, columns);
+        Plan plan = new Plan();
+        plan.access = Access.RANGE;
+        plan.sorted = index;
+        plan.driver = driver;
+        if (driver != null) {
+            Condition c = driver.source;
+            int to = index.upperBound(c.high, c.highInclusive);
+            plan.from = index.lowerBound(c.low, c.lowInclusive, to);
+            plan.to = to;
+            plan.residual = without(compiled, List.of(driver));
+        } else {
+            plan.from = 0;
+            plan.to = index.rows.length;
+            plan.residual = compiled;
+        }
+        plan.estimate = plan.to - plan.from;
+        plan.presorted = field == query.orderField;
+        long touched = plan.estimate;
+        if (plan.presorted && query.limit >= 0) {
+            // assume each remaining condition keeps about half of the rows
+            touched = Math.min(touched, (long) query.limit << Math.min(plan.residual.length + 1, 20));
+        }
+        plan.cost = touched * RANGE_ROW_COST + sortCost(query.orderField != null && !plan.presorted, touched);
+        return plan;
+    }
+
+    private static double sortCost(boolean ordered, long rows) {
+        return ordered && rows > 1 ? rows * SORT_ROW_COST * (64 - Long.numberOfLeadingZeros(rows)) : 0;
+    }
+
+    private static Compiled[] without(Compiled[] compiled, List<Compiled> covered) {
+        List<Compiled> rest = new ArrayList<>();
+        for (Compiled condition : compiled) {
+            if (!covered.contains(condition)) {
+                rest.add(condition);
+            }
+        }
+        return rest.toArray(new Compiled[0]);
+    }
+
+    // ==================== Execution ====================
+
+    private int[] execute(Query query, boolean ordered) {
+        Columns columns = new Columns(store);
+        Compiled[] compiled = compile(query, columns);
+        if (compiled == null || query.limit == 0) {
+            return NO_ROWS;
+        }
+        QueryField orderField = ordered ? query.orderField : null;
+        Plan plan = plan(query, compiled, columns, false);
+        int limit = query.limit;
+        int[] rows;
+        switch (plan.access) {
+            case INDEX:
+                rows = index(plan, columns);
+                break;
+            case RANGE:
+                int stopAfter = plan.presorted || orderField == null ? limit : -1;
+                rows = walk(plan, columns, plan.presorted && query.descending, stopAfter);
+                if (plan.presorted) {
+                    return rows;
+                }
+                break;
+            default:
+                rows = scan(plan, columns);
+                break;
+        }
+        if (orderField != null) {
+            rows = order(rows, sortedIndex(orderField, columns), query.descending);
+        }
+        return limit >= 0 && limit < rows.length ? Arrays.copyOf(rows, limit) : rows;
+    }
+
+    private static int[] index(Plan plan, Columns columns) {
+        List<CompressedBitmap> bitmaps = plan.bitmaps;
+        bitmaps.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        CompressedBitmap candidates = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !candidates.isEmpty(); i++) {
+            candidates = candidates.and(bitmaps.get(i));
+        }
+        RowBuffer result = new RowBuffer(candidates.cardinality());
+        byte[] types = columns.types;
+        int typeMask = plan.typeMask;
+        Compiled[] residual = plan.residual;
+        candidates.forEach(row -> {
+            if (matches(types, typeMask, residual, row)) {
+                result.add(row);
+            }
+        });
+        return result.toArray();
+    }
+
+    /**
+     * Walks the sorted slice, stopping after limit matches when limit >= 0.
+     * Backwards it takes runs of equal keys from the top down but reads
+     * each run forward, so ties keep row order.
+     */
+    private static int[] walk(Plan plan, Columns columns, boolean backwards, int limit) {
+        double[] keys = plan.sorted.keys;
+        RowBuffer result = new RowBuffer(limit >= 0 ? Math.min(limit, plan.to - plan.from) : 16);
+        if (!backwards) {
+            collect(plan, columns.types, plan.from, plan.to, limit, result);
+        } else {
+            for (int end = plan.to; end > plan.from && result.size != limit; ) {
+                int start = end - 1;
+                while (start > plan.from && Double.compare(keys[start - 1], keys[end - 1]) == 0) {
+                    start--;
+                }
+                collect(plan, columns.types, start, end, limit, result);
+                end = start;
+            }
+        }
+        return result.toArray();
+    }
+
+    private static void collect(Plan plan, byte[] types, int from, int to, int limit, RowBuffer result) {
+        int[] rows = plan.sorted.rows;
+        for (int i = from; i < to && result.size != limit; i++) {
+            int row = rows[i];
+            if (matches(types, plan.typeMask, plan.residual, row)) {
+                result.add(row);
+            }
+        }
+    }
+
+    private int[] scan(Plan plan, Columns columns) {
+        if (columns.size < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            return scan(columns.types, plan.typeMask, plan.residual, 0, columns.size);
+        }
+        return pool.invoke(new ScanTask(columns.types, plan.typeMask, plan.residual, 0, columns.size));
+    }
+
+    private static int[] scan(byte[] types, int typeMask, Compiled[] conditions, int from, int to) {
+        RowBuffer result = new RowBuffer(16);
+        for (int row = from; row < to; row++) {
+            if (matches(types, typeMask, conditions, row)) {
+                result.add(row);
+            }
+        }
+        return result.toArray();
+    }
+
+    private static boolean matches(byte[] types, int typeMask, Compiled[] conditions, int row) {
+        if ((typeMask >>> types[row] & 1) == 0) {
+            return false;
+        }
+        for (Compiled condition : conditions) {
+            if (!condition.test(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts rows by their position in the field's sorted index; rows
+     * without the field go last, by row. Descending reverses the runs of
+     * equal keys but not the rows within a run, so ties keep row order.
+     */
+    private static int[] order(int[] rows, SortedIndex index, boolean descending) {
+        int[] positions = new int[rows.length];
+        int present = 0;
+        RowBuffer absent = new RowBuffer(16);
+        for (int row : rows) {
+            int position = index.positions[row];
+            if (position < 0) {
+                absent.add(row);
+            } else {
+                positions[present++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, present);
+        int[] result = new int[rows.length];
+        if (!descending) {
+            for (int i = 0; i < present; i++) {
+                result[i] = index.rows[positions[i]];
+            }
+        } else {
+            int out = 0;
+            for (int end = present; end > 0; ) {
+                double key = index.keys[positions[end - 1]];
+                int start = end - 1;
+                while (start > 0 && Double.compare(index.keys[positions[start - 1]], key) == 0) {
+                    start--;
+                }
+                for (int i = start; i < end; i++) {
+                    result[out++] = index.rows[positions[i]];
+                }
+                end = start;
+            }
+        }
+        int[] rest = absent.toArray();
+        Arrays.sort(rest, 0, absent.size);
+        System.arraycopy(rest, 0, result, present, absent.size);
+        return result;
+    }
+
+    /** Keeps row order: each task scans its half and the halves are concatenated. */
+    private static final class ScanTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] types;
+        private final int typeMask;
+        private final Compiled[] conditions;
+        private final int from;
+        private final int to;
+
+        ScanTask(byte[] types, int typeMask, Compiled[] conditions, int from, int to) {
+            this.types = types;
+            this.typeMask = typeMask;
+            this.conditions = conditions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return scan(types, typeMask, conditions, from, to);
+            }
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int mid = from + (chunks / 2) * CHUNK_SIZE;
+            ScanTask left = new ScanTask(types, typeMask, conditions, from, mid);
+            left.fork();
+            int[] right = new ScanTask(types, typeMask, conditions, mid, to).compute();
+            int[] leftRows = left.join();
+            int[] result = Arrays.copyOf(leftRows, leftRows.length + right.length);
+            System.arraycopy(right, 0, result, leftRows.length, right.length);
+            return result;
+        }
+    }
+
+    // ==================== Indexes ====================
+
+    private synchronized void checkFresh(Columns columns) {
+        if (indexedModCount != columns.modCount) {
+            typeIndex = null;
+            valueIndexes.clear();
+            sortedIndexes.clear();
+            indexedModCount = columns.modCount;
+        }
+    }
+
+    private synchronized CompressedBitmap[] typeIndex(Columns columns) {
+        checkFresh(columns);
+        if (typeIndex == null) {
+            CompressedBitmap[] index = new CompressedBitmap[PersonType.values().length];
+            for (int i = 0; i < index.length; i++) {
+                index[i] = new CompressedBitmap();
+            }
+            for (int row = 0; row < columns.size; row++) {
+                index[columns.types[row]].add(row);
+            }
+            typeIndex = index;
+        }
+        return typeIndex;
+    }
+
+    private synchronized Map<Integer, CompressedBitmap> valueIndex(QueryField field, Columns columns) {
+        checkFresh(columns);
+        Map<Integer, CompressedBitmap> index = valueIndexes.get(field);
+        if (index == null) {
+            index = new HashMap<>();
+            int[] values = columns.ints(field.column());
+            int mask = field.typeMask();
+            for (int row = 0; row < columns.size; row++) {
+                if ((mask >>> columns.types[row] & 1) != 0) {
+                    index.computeIfAbsent(values[row], code -> new CompressedBitmap()).add(row);
+                }
+            }
+            valueIndexes.put(field, index);
+        }
+        return index;
+    }
+
+    private synchronized SortedIndex sortedIndex(QueryField field, Columns columns) {
+        checkFresh(columns);
+        SortedIndex index = sortedIndexes.get(field);
+        if (index == null) {
+            index = new SortedIndex(field, columns);
+            sortedIndexes.put(field, index);
+        }
+        return index;
+    }
+
+    private long typeCount(int typeMask, Columns columns) {
+        CompressedBitmap[] index = typeIndex(columns);
+        long count = 0;
+        for (int type = 0; type < index.length; type++) {
+            if ((typeMask >>> type & 1) != 0) {
+                count += index[type].cardinality();
+            }
+        }
+        return count;
+    }
+
+    private long valueCount(Compiled condition, Columns columns) {
+        Map<Integer, CompressedBitmap> index = valueIndex(condition.source.field, columns);
+        long count = 0;
+        for (int code : condition.codes) {
+            CompressedBitmap bitmap = index.get(code);
+            count += bitmap == null ? 0 : bitmap.cardinality();
+        }
+        return count;
+    }
+
+    private List<CompressedBitmap> bitmaps(int typeMask, List<Compiled> covered, Columns columns) {
+        List<CompressedBitmap> bitmaps = new ArrayList<>();
+        if (typeMask != ALL_TYPES || covered.isEmpty()) {
+            CompressedBitmap[] index = typeIndex(columns);
+            CompressedBitmap types = new CompressedBitmap();
+            for (int type = 0; type < index.length; type++) {
+                if ((typeMask >>> type & 1) != 0) {
+                    types = types.or(index[type]);
+                }
+            }
+            bitmaps.add(types);
+        }
+        for (Compiled condition : covered) {
+            Map<Integer, CompressedBitmap> index = valueIndex(condition.source.field, columns);
+            CompressedBitmap values = new CompressedBitmap();
+            for (int code : condition.codes) {
+                CompressedBitmap bitmap = index.get(code);
+                if (bitmap != null) {
+                    values = condition.codes.length == 1 ? bitmap : values.or(bitmap);
+                }
+            }
+            bitmaps.add(values);
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Rows carrying a field, sorted by (value, row). Strings sort by their
+     * text with null first; booleans as 0 and 1. Immutable once built.
+     */
+    private static final class SortedIndex {
+        final QueryField field;
+        final double[] keys;
+        final int[] rows;
+        /** Position of each store row in rows, or -1 if the row does not carry the field. */
+        final int[] positions;
+
+        SortedIndex(QueryField field, Columns columns) {
+            this.field = field;
+            int mask = field.typeMask();
+            int[] selected = new int[columns.size];
+            int count = 0;
+            for (int row = 0; row < columns.size; row++) {
+                if ((mask >>> columns.types[row] & 1) != 0) {
+                    selected[count++] = row;
+                }
+            }
+            rows = Arrays.copyOf(selected, count);
+            keys = new double[count];
+            double[] ranks = field.kind() == QueryField.Kind.STRING ? ranks(columns, field.column()) : null;
+            for (int i = 0; i < count; i++) {
+                keys[i] = key(field, columns, rows[i], ranks);
+            }
+            sort(keys, rows, 0, count);
+            positions = new int[columns.size];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < count; i++) {
+                positions[rows[i]] = i;
+            }
+        }
+
+        /** First position past every key below high (or at high when exclusive). */
+        int upperBound(double high, boolean inclusive) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                // written so NaN keys, which sort last, always count as above
+                boolean above = inclusive ? !(keys[mid] <= high) : !(keys[mid] < high);
+                if (above) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        /** First position in [0, to) at or above low (strictly above when exclusive). */
+        int lowerBound(double low, boolean inclusive, int to) {
+            int lo = 0;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                boolean atOrAbove = inclusive ? keys[mid] >= low : keys[mid] > low;
+                if (atOrAbove) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private static double key(QueryField field, Columns columns, int row, double[] ranks) {
+            switch (field.column()) {
+                case AGES:
+                    return columns.ages[row];
+                case AMOUNTS:
+                    return columns.amounts[row];
+                default:
+                    int value = columns.ints(field.column())[row];
+                    return ranks == null ? value : value < 0 ? -1 : ranks[value];
+            }
+        }
+
+        /** Rank of every dictionary code of the column in text order. */
+        private static double[] ranks(Columns columns, QueryField.Column column) {
+            String[] values = columns.values(column);
+            Integer[] codes = new Integer[values.length];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = i;
+            }
+            Arrays.sort(codes, (a, b) -> values[a].compareTo(values[b]));
+            double[] ranks = new double[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                ranks[codes[i]] = i;
+            }
+            return ranks;
+        }
+
+        /** Quicksort of (key, row) pairs; every pair is distinct, so no three-way partition is needed. */
+        private static void sort(double[] keys, int[] rows, int from, int to) {
+            while (to - from > 16) {
+                int mid = (from + to) >>> 1;
+                if (less(keys, rows, mid, from)) {
+                    swap(keys, rows, mid, from);
+                }
+                if (less(keys, rows, to - 1, mid)) {
+                    swap(keys, rows, to - 1, mid);
+                    if (less(keys, rows, mid, from)) {
+                        swap(keys, rows, mid, from);
+                    }
+                }
+                double pivotKey = keys[mid];
+                int pivotRow = rows[mid];
+                int i = from;
+                int j = to - 1;
+                while (i <= j) {
+                    while (less(keys[i], rows[i], pivotKey, pivotRow)) {
+                        i++;
+                    }
+                    while (less(pivotKey, pivotRow, keys[j], rows[j])) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(keys, rows, i++, j--);
+                    }
+                }
+                if (j + 1 - from < to - i) {
+                    sort(keys, rows, from, j + 1);
+                    from = i;
+                } else {
+                    sort(keys, rows, i, to);
+                    to = j + 1;
+                }
+            }
+            for (int i = from + 1; i < to; i++) {
+                for (int j = i; j > from && less(keys, rows, j, j - 1); j--) {
+                    swap(keys, rows, j, j - 1);
+                }
+            }
+        }
+
+        private static boolean less(double[] keys, int[] rows, int a, int b) {
+            return less(keys[a], rows[a], keys[b], rows[b]);
+        }
+
+        private static boolean less(double keyA, int rowA, double keyB, int rowB) {
+            int compare = Double.compare(keyA, keyB);
+            return compare < 0 || (compare == 0 && rowA < rowB);
+        }
+
+        private static void swap(double[] keys, int[] rows, int a, int b) {
+            double key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    /** The store's columns as of one moment; the arrays are replaced when the store grows. */
+    private static final class Columns {
+        final int size;
+        final int modCount;
+        final StringDictionary strings;
+        final NameDictionary nameStrings;
+        final byte[] types;
+        final short[] ages;
+        final double[] amounts;
+        final int[] names;
+        final int[] counts;
+        final int[] groups;
+        final int[] titles;
+        final int[] extras;
+
+        Columns(PersonStore store) {
+            size = store.size();
+            modCount = store.modCount();
+            strings = store.dictionary();
+            nameStrings = store.nameDictionary();
+            types = store.typeColumn();
+            ages = store.ageColumn();
+            amounts = store.amountColumn();
+            names = store.nameColumn();
+            counts = store.countColumn();
+            groups = store.groupColumn();
+            titles = store.titleColumn();
+            extras = store.extraColumn();
+        }
+
+        int[] ints(QueryField.Column column) {
+            switch (column) {
+                case NAMES:
+                    return names;
+                case COUNTS:
+                    return counts;
+                case GROUPS:
+                    return groups;
+                case TITLES:
+                    return titles;
+                case EXTRAS:
+                    return extras;
+                default:
+                    throw new IllegalArgumentException("Not an int column: " + column);
+            }
+        }
+
+        /** Code of the value in the column's dictionary, or UNKNOWN_CODE. */
+        int lookup(QueryField.Column column, String value) {
+            return column == QueryField.Column.NAMES ? nameStrings.lookup(value) : strings.lookup(value);
+        }
+
+        /** Every value of the column's dictionary, indexed by code. */
+        String[] values(QueryField.Column column) {
+            int count = column == QueryField.Column.NAMES ? nameStrings.size() : strings.size();
+            String[] values = new String[count];
+            for (int code = 0; code < count; code++) {
+                values[code] = column == QueryField.Column.NAMES ? nameStrings.decode(code) : strings.decode(code);
+            }
+            return values;
+        }
+    }
+
+    /** Growable int array. */
+    private static final class RowBuffer {
+        int[] rows;
+        int size;
+
+        RowBuffer(int capacity) {
+            rows = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return size == rows.length ? rows : Arrays.copyOf(rows, size);
+        }
+    }
+}
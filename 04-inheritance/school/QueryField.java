@@ -0,0 +1,154 @@
+/**
+ * A queryable field of the Person hierarchy, as stored in PersonStore.
+ *
+ * Each field knows its column and the concrete types that carry it, so
+ * QueryField.GPA.gt(3.5) only ever matches students. Conditions are built
+ * here and evaluated by QueryEngine.
+ */
+public enum QueryField {
+
+    NAME(Column.NAMES, Kind.STRING, Person.class),
+    AGE(Column.AGES, Kind.NUMBER, Person.class),
+
+    MAJOR(Column.GROUPS, Kind.STRING, Student.class),
+    GPA(Column.AMOUNTS, Kind.NUMBER, Student.class),
+    YEAR(Column.COUNTS, Kind.NUMBER, UndergraduateStudent.class),
+    THESIS_TOPIC(Column.TITLES, Kind.STRING, GraduateStudent.class),
+    SUPERVISOR(Column.EXTRAS, Kind.STRING, GraduateStudent.class),
+
+    SUBJECT(Column.GROUPS, Kind.STRING, Teacher.class),
+    SALARY(Column.AMOUNTS, Kind.NUMBER, Teacher.class, Staff.class),
+    RANK(Column.TITLES, Kind.STRING, Professor.class),
+    PUBLICATIONS(Column.COUNTS, Kind.NUMBER, Professor.class),
+    SUPERVISING_PROFESSOR(Column.EXTRAS, Kind.STRING, Assistant.class),
+    HOURS_PER_WEEK(Column.COUNTS, Kind.NUMBER, Assistant.class),
+
+    DEPARTMENT(Column.GROUPS, Kind.STRING, Staff.class),
+    ROLE(Column.TITLES, Kind.STRING, AdminStaff.class),
+    CAN_ACCESS_RECORDS(Column.EXTRAS, Kind.BOOLEAN, AdminStaff.class),
+    SPECIALIZATION(Column.TITLES, Kind.STRING, TechnicalStaff.class);
+
+    /** PersonStore column holding the field. */
+    enum Column {
+        NAMES, AGES, AMOUNTS, COUNTS, GROUPS, TITLES, EXTRAS
+    }
+
+    enum Kind {
+        /** Dictionary code in an int column. */
+        STRING,
+        /** 0 or 1 in an int column. */
+        BOOLEAN,
+        /** Compared as a double. */
+        NUMBER
+    }
+
+    private final Column column;
+    private final Kind kind;
+    private final int typeMask;
+
+    QueryField(Column column, Kind kind, Class<?>... owners) {
+        this.column = column;
+        this.kind = kind;
+        this.typeMask = maskOf(owners);
+    }
+
+    Column column() {
+        return column;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /** Bit per PersonType ordinal for the types that carry this field. */
+    int typeMask() {
+        return typeMask;
+    }
+
+    /** Bit per PersonType ordinal for every type assignable to one of the classes. */
+    static int maskOf(Class<?>... classes) {
+        int mask = 0;
+        for (PersonType type : PersonType.values()) {
+            for (Class<?> owner : classes) {
+                if (owner.isAssignableFrom(type.getType())) {
+                    mask |= 1 << type.ordinal();
+                }
+            }
+        }
+        return mask;
+    }
+
+    // ==================== Conditions ====================
+
+    /** String, Boolean or Number depending on the field; null matches a null string. */
+    public QueryEngine.Condition eq(Object value) {
+        if (kind == Kind.NUMBER) {
+            double number = toNumber(value);
+            return new QueryEngine.Condition(this, null, number, true, number, true, " = " + format(value));
+        }
+        return new QueryEngine.Condition(this, new Object[]{check(value)}, 0, false, 0, false,
+                " = " + format(value));
+    }
+
+    public QueryEngine.Condition in(Object... values) {
+        Object[] checked = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            checked[i] = kind == Kind.NUMBER ? (Object) toNumber(values[i]) : check(values[i]);
+        }
+        StringBuilder text = new StringBuilder(" IN (");
+        for (int i = 0; i < values.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(format(values[i]));
+        }
+        return new QueryEngine.Condition(this, checked, 0, false, 0, false, text.append(')').toString());
+    }
+
+    public QueryEngine.Condition gt(double value) {
+        return range(value, false, Double.POSITIVE_INFINITY, true, " > " + value);
+    }
+
+    public QueryEngine.Condition ge(double value) {
+        return range(value, true, Double.POSITIVE_INFINITY, true, " >= " + value);
+    }
+
+    public QueryEngine.Condition lt(double value) {
+        return range(Double.NEGATIVE_INFINITY, true, value, false, " < " + value);
+    }
+
+    public QueryEngine.Condition le(double value) {
+        return range(Double.NEGATIVE_INFINITY, true, value, true, " <= " + value);
+    }
+
+    /** Inclusive on both ends. */
+    public QueryEngine.Condition between(double low, double high) {
+        return range(low, true, high, true, " BETWEEN " + low + " AND " + high);
+    }
+
+    private QueryEngine.Condition range(double low, boolean lowInclusive, double high, boolean highInclusive,
+                                        String text) {
+        if (kind != Kind.NUMBER) {
+            throw new IllegalArgumentException(this + " is not numeric");
+        }
+        return new QueryEngine.Condition(this, null, low, lowInclusive, high, highInclusive, text);
+    }
+
+    private Object check(Object value) {
+        if (kind == Kind.STRING && value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(this + " expects a String, got " + value);
+        }
+        if (kind == Kind.BOOLEAN && !(value instanceof Boolean)) {
+            throw new IllegalArgumentException(this + " expects a Boolean, got " + value);
+        }
+        return value;
+    }
+
+    private double toNumber(Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(this + " expects a number, got " + value);
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static String format(Object value) {
+        return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+    }
+}
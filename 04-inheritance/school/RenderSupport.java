@@ -0,0 +1,64 @@
+import java.io.IOException;
+
+/**
+ * Helpers for writing numbers and labelled lines into an Appendable.
+ * When the target is a StringBuilder the primitive overloads are used, so
+ * no temporary String is created for ints, doubles or booleans.
+ */
+public final class RenderSupport {
+
+    public static final String NEWLINE = System.lineSeparator();
+
+    private RenderSupport() {
+    }
+
+    public static void append(Appendable out, int value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+        } else {
+            out.append(Integer.toString(value));
+        }
+    }
+
+    public static void append(Appendable out, double value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+        } else {
+            out.append(Double.toString(value));
+        }
+    }
+
+    public static void append(Appendable out, boolean value) throws IOException {
+        out.append(value ? "true" : "false");
+    }
+
+    public static void line(Appendable out, String text) throws IOException {
+        out.append(text).append(NEWLINE);
+    }
+
+    public static void line(Appendable out, String label, String value) throws IOException {
+        out.append(label).append(value).append(NEWLINE);
+    }
+
+    public static void line(Appendable out, String label, int value) throws IOException {
+        out.append(label);
+        append(out, value);
+        out.append(NEWLINE);
+    }
+
+    public static void line(Appendable out, String label, double value) throws IOException {
+        out.append(label);
+        append(out, value);
+        out.append(NEWLINE);
+    }
+
+    public static void line(Appendable out, String label, boolean value) throws IOException {
+        out.append(label);
+        append(out, value);
+        out.append(NEWLINE);
+    }
+
+    public static void quoted(Appendable out, String label, String value) throws IOException {
+        out.append(label).append('\'').append(value).append('\'');
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.Objects;
+
+/** A teaching room; the timetable only puts a course in a room that seats its capacity. */
+public class Room {
+
+    private final String name;
+    private final int capacity;
+
+    public Room(String name, int capacity) {
+        if (name == null) {
+            throw new IllegalArgumentException("Room name is required");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "Room{" +
+                "name='" + name + '\'' +
+                ", capacity=" + capacity +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        Room room = (Room) obj;
+        return name.equals(room.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name);
+    }
+}
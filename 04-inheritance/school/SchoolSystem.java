@@ -0,0 +1,696 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The school's students, teachers, courses, enrollments and grades,
+ * readable as consistent point-in-time snapshots.
+ *
+ * All state lives in one immutable Snapshot built from PersistentMaps.
+ * Writers serialize on a lock, derive the next snapshot (copying only the
+ * changed paths of the maps) and publish it with a single volatile write,
+ * so a change that touches several maps, such as a grade together with
+ * the student's GPA, becomes visible all at once. Readers never lock:
+ * snapshot() is one volatile read, and the snapshot stays valid for as
+ * long as the reader holds it, however many writes happen meanwhile.
+ * Nothing keeps old snapshots alive, so each one is reclaimed by the
+ * garbage collector as soon as its last reader drops it.
+ *
+ * Enrollments and grades are owned by an EnrollmentService and a
+ * GradeService: each change is made through them, so their seat limits,
+ * GPA sums and, once setLog() is called, write-ahead logging all apply,
+ * and the snapshot is then refreshed from what they hold. It never
+ * decides an enrollment or computes a GPA itself.
+ *
+ * Registered people are watched through PersonListener; every Person
+ * setter reports its change, so it shows up in the next snapshot. Ids key
+ * rosters and grades, so a registered person's id cannot change; remove
+ * and re-add them instead.
+ * Courses are captured when added; call updateCourse after editing one.
+ *
+ * Locks are always taken person monitor first, then the system lock, the
+ * same order in which setters call the listener. A student's reservations
+ * and grade book are only locked by changes that hold the student's
+ * monitor, so the services' locks cannot close a cycle through it.
+ */
+public class SchoolSystem implements PersonListener {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Snapshot current = Snapshot.EMPTY;
+    /** Next snapshot under construction; guarded by lock. */
+    private Snapshot draft;
+    /** Registered person -> the id they were registered under; guarded by lock. */
+    private final IdentityHashMap<Person, String> registered = new IdentityHashMap<>();
+    /** code -> the course as last added or updated; the services are handed these */
+    private final ConcurrentHashMap<String, Course> addedCourses = new ConcurrentHashMap<>();
+    private final EnrollmentService enrollments = new EnrollmentService();
+    private final GradeService grades = new GradeService(enrollments);
+    private volatile WriteAheadLog log;
+    /** The student whose GPA this thread is changing through GradeService; published with the grade. */
+    private final ThreadLocal<Student> grading = new ThreadLocal<>();
+
+    /** Package-private so benchmarks can run against a fresh system. */
+    SchoolSystem() {
+    }
+
+    public static SchoolSystem getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final SchoolSystem INSTANCE = new SchoolSystem();
+    }
+
+    /**
+     * Logs people added and removed from now on, along with their changes,
+     * enrollments and grades; null stops logging. People registered before
+     * are not watched, so set the log before adding anyone.
+     */
+    public void setLog(WriteAheadLog log) {
+        lock.lock();
+        try {
+            this.log = log;
+            enrollments.setLog(log);
+            grades.setLog(log);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== Reading ====================
+
+    /** The latest published state; never blocks. */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public void printAllStudents() {
+        PrintWriter out = new PrintWriter(System.out);
+        current.appendStudents(out);
+        out.flush();
+    }
+
+    public void printAllCourses() {
+        PrintWriter out = new PrintWriter(System.out);
+        current.appendCourses(out);
+        out.flush();
+    }
+
+    // ==================== People ====================
+
+    public void addStudent(Student student) {
+        addPerson(student);
+    }
+
+    public void addTeacher(Teacher teacher) {
+        addPerson(teacher);
+    }
+
+    private void addPerson(Person person) {
+        synchronized (person) {
+            Snapshot next = begin();
+            boolean done = false;
+            try {
+                String id = person.getId();
+                if (id == null) {
+                    throw new IllegalArgumentException("Person id is required");
+                }
+                if (next.people.containsKey(id)) {
+                    throw new IllegalArgumentException("Duplicate id: " + id);
+                }
+                WriteAheadLog log = this.log;
+                if (log != null) {
+                    log.recordAdd(person);
+                }
+                draft = next.withPeople(next.people.plus(id, PersonSnapshot.of(person)));
+                person.addListener(this);
+                registered.put(person, id);
+                done = true;
+            } finally {
+                end(done);
+            }
+        }
+    }
+
+    /**
+     * Removes the person; a student is first dropped from their courses
+     * and has their grades removed through the services. Returns false if
+     * they were not registered.
+     */
+    public boolean removePerson(Person person) {
+        synchronized (person) {
+            Snapshot next = begin();
+            try {
+                String id = registered.get(person);
+                if (id == null) {
+                    return false;
+                }
+                if (person instanceof Student) {
+                    // the refreshes nest into this draft, so the removal is published as one change
+                    Student student = (Student) person;
+                    for (String code : next.getSchedule(id)) {
+                        Course course = addedCourses.get(code);
+                        try {
+                            enrollments.drop(student, course);
+                        } finally {
+                            refresh(student, id, course);
+                        }
+                    }
+                    List<String> graded = new ArrayList<>();
+                    GradeView view = next.grades.get(id);
+                    if (view != null) {
+                        view.entries.forEach((code, grade) -> graded.add(code));
+                    }
+                    for (String code : graded) {
+                        Course course = addedCourses.get(code);
+                        try {
+                            grades.removeGrade(student, course);
+                        } finally {
+                            refresh(student, id, course);
+                        }
+                    }
+                }
+                WriteAheadLog log = this.log;
+                if (log != null) {
+                    log.recordRemove(person);
+                }
+                next = draft;
+                draft = new Snapshot(next.version, next.people.minus(id), next.courses, next.rosters,
+                        next.schedules, next.grades);
+                person.removeListener(this);
+                registered.remove(person);
+                return true;
+            } finally {
+                // a failure part way still publishes the drops the services already made
+                end(true);
+            }
+        }
+    }
+
+    @Override
+    public void beforeChange(Person person, PersonField field) {
+    }
+
+    /** Publishes the person's new values; rejects id changes. */
+    @Override
+    public void afterChange(Person person, PersonField field) {
+        Snapshot next = begin();
+        boolean done = false;
+        try {
+            String id = registered.get(person);
+            if (field == PersonField.ID) {
+                // setId reports its own rollback as a change back to the registered id
+                if (id == null || !id.equals(person.getId())) {
+                    throw new IllegalStateException("Cannot change the id of a registered person");
+                }
+            } else if (id != null && person != grading.get()) {
+                draft = next.withPeople(next.people.plus(id, PersonSnapshot.of(person)));
+            }
+            done = true;
+        } finally {
+            end(done);
+        }
+    }
+
+    // ==================== Courses ====================
+
+    public void addCourse(Course course) {
+        Snapshot next = begin();
+        boolean done = false;
+        try {
+            if (next.courses.containsKey(course.getCode())) {
+                throw new IllegalArgumentException("Duplicate course: " + course.getCode());
+            }
+            enrollments.addCourse(course);
+            addedCourses.put(course.getCode(), course);
+            draft = new Snapshot(next.version, next.people,
+                    next.courses.plus(course.getCode(), CourseSnapshot.of(course)),
+                    next.rosters.plus(course.getCode(), PersistentMap.empty()), next.schedules, next.grades);
+            done = true;
+        } finally {
+            end(done);
+        }
+    }
+
+    /**
+     * Publishes edits made to an added course. Later grades use its new
+     * credits; existing grades keep the credits they were given with.
+     * Seats were counted when the course was added, so its capacity cannot change.
+     */
+    public void updateCourse(Course course) {
+        Snapshot next = begin();
+        boolean done = false;
+        try {
+            CourseSnapshot info = requireCourse(next, course);
+            if (course.getCapacity() != info.getCapacity()) {
+                throw new IllegalArgumentException("Capacity of " + course.getCode() + " cannot change");
+            }
+            addedCourses.put(course.getCode(), course);
+            draft = new Snapshot(next.version, next.people,
+                    next.courses.plus(course.getCode(), CourseSnapshot.of(course)),
+                    next.rosters, next.schedules, next.grades);
+            done = true;
+        } finally {
+            end(done);
+        }
+    }
+
+    // ==================== Enrollment ====================
+
+    /**
+     * Enrolls the student through EnrollmentService unless the course is full.
+     *
+     * @return true if the student is enrolled afterwards
+     */
+    public boolean enrollStudent(Student student, Course course) {
+        synchronized (student) {
+            String id = idOf(student);
+            Course added = courseOf(course);
+            try {
+                return enrollments.isEnrolled(student, added) || enrollments.enroll(student, added) != null;
+            } finally {
+                refresh(student, id, added);
+            }
+        }
+    }
+
+    /** Drops the student from the course; grades already given are kept. */
+    public boolean dropStudent(Student student, Course course) {
+        synchronized (student) {
+            String id = idOf(student);
+            Course added = courseOf(course);
+            try {
+                return enrollments.drop(student, added);
+            } finally {
+                refresh(student, id, added);
+            }
+        }
+    }
+
+    // ==================== Grading ====================
+
+    /**
+     * Sets the enrolled student's grade for the course through
+     * GradeService; the grade and the GPA it computes appear in the same
+     * snapshot.
+     *
+     * @return the previous grade, or null
+     */
+    public Grade assignGrade(Student student, Course course, Grade grade) {
+        synchronized (student) {
+            String id = idOf(student);
+            Course added = courseOf(course);
+            grading.set(student);
+            try {
+                return grades.assignGrade(student, added, grade);
+            } finally {
+                grading.remove();
+                refresh(student, id, added);
+            }
+        }
+    }
+
+    /** Removes the student's grade for the course; returns it, or null if there was none. */
+    public Grade removeGrade(Student student, Course course) {
+        synchronized (student) {
+            String id = idOf(student);
+            Course added = courseOf(course);
+            grading.set(student);
+            try {
+                return grades.removeGrade(student, added);
+            } finally {
+                grading.remove();
+                refresh(student, id, added);
+            }
+        }
+    }
+
+    // ==================== Writing ====================
+
+    /**
+     * Takes the write lock and returns the draft to build on. Calls nest:
+     * a listener callback made during a write adds to the same draft.
+     */
+    private Snapshot begin() {
+        lock.lock();
+        if (draft == null) {
+            draft = current;
+        }
+        return draft;
+    }
+
+    /** Publishes the draft when the outermost write succeeds, discards it when that write fails. */
+    private void end(boolean commit) {
+        try {
+            if (lock.getHoldCount() == 1) {
+                Snapshot next = draft;
+                draft = null;
+                if (commit && next != current) {
+                    current = next.publish(current.version + 1);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes what the services now hold for the student in the course,
+     * with the student's current values. Runs whether or not the service
+     * call succeeded, since a failed call may still have changed something.
+     * The caller holds the student's monitor, so nothing changes meanwhile.
+     */
+    private void refresh(Student student, String id, Course course) {
+        boolean enrolled = enrollments.isEnrolled(student, course);
+        Grade grade = grades.getGrade(student, course);
+        int credits = grades.getCredits(student);
+        double gpa = grades.getGpa(student);
+        PersonSnapshot person = PersonSnapshot.of(student);
+        Snapshot next = begin();
+        boolean done = false;
+        try {
+            draft = next.withPerson(id, person)
+                    .withEnrollment(id, course.getCode(), enrolled)
+                    .withGrade(id, course.getCode(), grade, credits, gpa);
+            done = true;
+        } finally {
+            end(done);
+        }
+    }
+
+    /** The id the student was registered under; the caller holds their monitor, so it stays registered. */
+    private String idOf(Student student) {
+        lock.lock();
+        try {
+            return requireStudent(draft == null ? current : draft, student);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String requireStudent(Snapshot snapshot, Student student) {
+        String id = registered.get(student);
+        if (id == null || !(snapshot.people.get(id) instanceof StudentSnapshot)) {
+            throw new IllegalArgumentException("Student is not registered: " + student.getId());
+        }
+        return id;
+    }
+
+    private Course courseOf(Course course) {
+        Course added = addedCourses.get(course.getCode());
+        if (added == null) {
+            throw new IllegalArgumentException("Course is not registered: " + course.getCode());
+        }
+        return added;
+    }
+
+    private static CourseSnapshot requireCourse(Snapshot snapshot, Course course) {
+        CourseSnapshot info = snapshot.courses.get(course.getCode());
+        if (info == null) {
+            throw new IllegalArgumentException("Course is not registered: " + course.getCode());
+        }
+        return info;
+    }
+
+    // ==================== Snapshots ====================
+
+    /** Immutable state of the whole system as of one version. */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, PersistentMap.empty(), PersistentMap.empty(),
+                PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty());
+
+        private final long version;
+        /** id -> person */
+        final PersistentMap<String, PersonSnapshot> people;
+        /** code -> course */
+        final PersistentMap<String, CourseSnapshot> courses;
+        /** code -> enrolled student ids */
+        final PersistentMap<String, PersistentMap<String, String>> rosters;
+        /** student id -> enrolled course codes */
+        final PersistentMap<String, PersistentMap<String, String>> schedules;
+        /** student id -> grades */
+        final PersistentMap<String, GradeView> grades;
+
+        Snapshot(long version, PersistentMap<String, PersonSnapshot> people,
+                 PersistentMap<String, CourseSnapshot> courses,
+                 PersistentMap<String, PersistentMap<String, String>> rosters,
+                 PersistentMap<String, PersistentMap<String, String>> schedules,
+                 PersistentMap<String, GradeView> grades) {
+            this.version = version;
+            this.people = people;
+            this.courses = courses;
+            this.rosters = rosters;
+            this.schedules = schedules;
+            this.grades = grades;
+        }
+
+        Snapshot withPeople(PersistentMap<String, PersonSnapshot> people) {
+            return new Snapshot(version, people, courses, rosters, schedules, grades);
+        }
+
+        /** The person's entry replaced; this snapshot itself if it is unchanged. */
+        Snapshot withPerson(String id, PersonSnapshot person) {
+            return person.equals(people.get(id)) ? this : withPeople(people.plus(id, person));
+        }
+
+        /** The student added to or removed from the course; this snapshot itself if nothing changes. */
+        Snapshot withEnrollment(String id, String code, boolean enrolled) {
+            PersistentMap<String, String> roster = rosters.get(code);
+            if (roster.containsKey(id) == enrolled) {
+                return this;
+            }
+            PersistentMap<String, String> schedule = schedules.get(id);
+            if (enrolled) {
+                if (schedule == null) {
+                    schedule = PersistentMap.empty();
+                }
+                return new Snapshot(version, people, courses, rosters.plus(code, roster.plus(id, id)),
+                        schedules.plus(id, schedule.plus(code, code)), grades);
+            }
+            schedule = schedule.minus(code);
+            return new Snapshot(version, people, courses, rosters.plus(code, roster.minus(id)),
+                    schedule.isEmpty() ? schedules.minus(id) : schedules.plus(id, schedule), grades);
+        }
+
+        /** The student's grade for the course set, or removed when null; this snapshot itself if nothing changes. */
+        Snapshot withGrade(String id, String code, Grade grade, int credits, double gpa) {
+            GradeView view = grades.get(id);
+            if (view == null) {
+                view = GradeView.EMPTY;
+            }
+            GradeView updated = view.with(code, grade, credits, gpa);
+            if (updated == view) {
+                return this;
+            }
+            return new Snapshot(version, people, courses, rosters, schedules,
+                    updated.entries.isEmpty() ? grades.minus(id) : grades.plus(id, updated));
+        }
+
+        Snapshot publish(long version) {
+            return new Snapshot(version, people, courses, rosters, schedules, grades);
+        }
+
+        /** Increases by one with every published change. */
+        public long getVersion() {
+            return version;
+        }
+
+        public PersonSnapshot getPerson(String id) {
+            return people.get(id);
+        }
+
+        /** Students sorted by id. */
+        public List<StudentSnapshot> getStudents() {
+            List<StudentSnapshot> students = new ArrayList<>();
+            people.forEach((id, person) -> {
+                if (person instanceof StudentSnapshot) {
+                    students.add((StudentSnapshot) person);
+                }
+            });
+            students.sort(Comparator.comparing(PersonSnapshot::getId));
+            return students;
+        }
+
+        /** Teachers sorted by id. */
+        public List<TeacherSnapshot> getTeachers() {
+            List<TeacherSnapshot> teachers = new ArrayList<>();
+            people.forEach((id, person) -> {
+                if (person instanceof TeacherSnapshot) {
+                    teachers.add((TeacherSnapshot) person);
+                }
+            });
+            teachers.sort(Comparator.comparing(PersonSnapshot::getId));
+            return teachers;
+        }
+
+        public CourseSnapshot getCourse(String code) {
+            return courses.get(code);
+        }
+
+        /** Courses sorted by code. */
+        public List<CourseSnapshot> getCourses() {
+            List<CourseSnapshot> list = courses.values();
+            list.sort(Comparator.comparing(CourseSnapshot::getCode));
+            return list;
+        }
+
+        /** Ids of the students enrolled in the course, sorted; empty for an unknown course. */
+        public List<String> getRoster(String code) {
+            return sortedKeys(rosters.get(code));
+        }
+
+        public int getEnrolledCount(String code) {
+            PersistentMap<String, String> roster = rosters.get(code);
+            return roster == null ? 0 : roster.size();
+        }
+
+        /** Codes of the courses the student is enrolled in, sorted. */
+        public List<String> getSchedule(String studentId) {
+            return sortedKeys(schedules.get(studentId));
+        }
+
+        public Grade getGrade(String studentId, String code) {
+            GradeView view = grades.get(studentId);
+            return view == null ? null : view.entries.get(code);
+        }
+
+        /** GPA as GradeService computed it; 0.0 without grades. */
+        public double getGpa(String studentId) {
+            GradeView view = grades.get(studentId);
+            return view == null ? 0.0 : view.gpa;
+        }
+
+        public int getCredits(String studentId) {
+            GradeView view = grades.get(studentId);
+            return view == null ? 0 : view.credits;
+        }
+
+        public void appendStudents(Appendable out) {
+            try {
+                out.append("=== Students (version ").append(Long.toString(version)).append(") ===")
+                        .append(RenderSupport.NEWLINE);
+                for (StudentSnapshot student : getStudents()) {
+                    out.append(student.getId()).append(" - ").append(student.getName())
+                            .append(" (").append(student.getMajor()).append(") GPA: ");
+                    RenderSupport.append(out, student.getGpa());
+                    out.append(", courses: ");
+                    List<String> schedule = getSchedule(student.getId());
+                    for (int i = 0; i < schedule.size(); i++) {
+                        out.append(i == 0 ? "" : ", ").append(schedule.get(i));
+                    }
+                    out.append(RenderSupport.NEWLINE);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void appendCourses(Appendable out) {
+            try {
+                out.append("=== Courses (version ").append(Long.toString(version)).append(") ===")
+                        .append(RenderSupport.NEWLINE);
+                for (CourseSnapshot course : getCourses()) {
+                    out.append(course.getCode()).append(" - ").append(course.getTitle()).append(" (");
+                    RenderSupport.append(out, course.getCredits());
+                    out.append(" credits) Teacher: ")
+                            .append(course.getTeacherName() == null ? "none" : course.getTeacherName())
+                            .append(", enrolled: ");
+                    RenderSupport.append(out, getEnrolledCount(course.getCode()));
+                    out.append('/');
+                    RenderSupport.append(out, course.getCapacity());
+                    out.append(RenderSupport.NEWLINE);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static List<String> sortedKeys(PersistentMap<String, String> set) {
+            if (set == null) {
+                return new ArrayList<>();
+            }
+            List<String> keys = set.values();
+            keys.sort(null);
+            return keys;
+        }
+    }
+
+    /** Immutable copy of a Course as of when it was added or last updated. */
+    public static final class CourseSnapshot {
+        private final String code;
+        private final String title;
+        private final String teacherId;
+        private final String teacherName;
+        private final int capacity;
+        private final int credits;
+
+        private CourseSnapshot(Course course) {
+            Teacher teacher = course.getTeacher();
+            this.code = course.getCode();
+            this.title = course.getTitle();
+            this.teacherId = teacher == null ? null : teacher.getId();
+            this.teacherName = teacher == null ? null : teacher.getName();
+            this.capacity = course.getCapacity();
+            this.credits = course.getCredits();
+        }
+
+        static CourseSnapshot of(Course course) {
+            return new CourseSnapshot(course);
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getTeacherId() {
+            return teacherId;
+        }
+
+        public String getTeacherName() {
+            return teacherName;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getCredits() {
+            return credits;
+        }
+    }
+
+    // ==================== Grade views ====================
+
+    /** A student's grades as GradeService holds them; credits and GPA are copied from it, never recomputed. */
+    private static final class GradeView {
+        static final GradeView EMPTY = new GradeView(PersistentMap.empty(), 0, 0.0);
+
+        final PersistentMap<String, Grade> entries;
+        final int credits;
+        final double gpa;
+
+        GradeView(PersistentMap<String, Grade> entries, int credits, double gpa) {
+            this.entries = entries;
+            this.credits = credits;
+            this.gpa = gpa;
+        }
+
+        /** With the course's grade set, or removed when grade is null; this view itself if nothing changes. */
+        GradeView with(String code, Grade grade, int credits, double gpa) {
+            if (entries.get(code) == grade && this.credits == credits && Double.compare(this.gpa, gpa) == 0) {
+                return this;
+            }
+            return new GradeView(grade == null ? entries.minus(code) : entries.plus(code, grade), credits, gpa);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Free-seat counter for one course, split into stripes so that threads
+ * hammering a popular course mostly CAS different cache lines.
+ *
+ * The capacity is divided between the stripes up front. A thread starts
+ * at its own stripe and moves on when that one is empty; a seat is only
+ * taken by a successful CAS from n > 0 to n - 1, so the sum of taken
+ * seats can never exceed the capacity. A released seat goes back to
+ * the stripe it came from.
+ *
+ * Near the end a reservation can report "full" while a concurrent
+ * release is putting a seat back into a stripe it has already passed.
+ */
+final class SeatPool {
+
+    /** Ints per stripe, so each counter sits on its own 64-byte line. */
+    private static final int PADDING = 16;
+    private static final int MAX_STRIPES = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicIntegerArray free;
+
+    SeatPool(int capacity) {
+        this.capacity = capacity;
+        int stripes = capacity == 0 ? 1 : Math.min(MAX_STRIPES, Integer.highestOneBit(capacity));
+        this.mask = stripes - 1;
+        this.free = new AtomicIntegerArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            free.set(i * PADDING, capacity / stripes + (i < capacity % stripes ? 1 : 0));
+        }
+    }
+
+    /** Takes one seat; returns the stripe it came from, or -1 when none is free. */
+    int acquire(int hint) {
+        for (int i = 0; i <= mask; i++) {
+            int slot = ((hint + i) & mask) * PADDING;
+            int current;
+            while ((current = free.get(slot)) > 0) {
+                if (free.compareAndSet(slot, current, current - 1)) {
+                    return slot / PADDING;
+                }
+            }
+        }
+        return -1;
+    }
+
+    void release(int stripe) {
+        free.incrementAndGet(stripe * PADDING);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Free seats; a moment-in-time sum, exact only when no one is reserving. */
+    int available() {
+        int available = 0;
+        for (int i = 0; i <= mask; i++) {
+            available += free.get(i * PADDING);
+        }
+        return available;
+    }
+}
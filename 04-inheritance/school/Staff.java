@@ -1,13 +1,14 @@
+import java.io.IOException;
 import java.util.Objects;
 
-public class Staff extends Person {
+public class Staff extends Person implements Payable {
 
     protected String department;
     protected double salary;
 
     public Staff(String name, int age, String id, String department, double salary) {
         super(name, age, id);
-        this.department = department;
+        this.department = StringPool.attribute(department);
         this.salary = salary;
     }
 
@@ -26,20 +27,53 @@ public class Staff extends Person {
         System.out.println("Hi, I'm " + name + ", I work in " + department);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        RenderSupport.line(out, "=== Staff Info ===");
+        RenderSupport.line(out, "Name: ", name);
+        RenderSupport.line(out, "Age: ", age);
+        RenderSupport.line(out, "ID: ", id);
+        RenderSupport.line(out, "Department: ", department);
+        RenderSupport.line(out, "Salary: $", salary);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", I work in ").append(department)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", department=", department);
+        out.append(", salary=");
+        RenderSupport.append(out, salary);
+    }
+
     public String getDepartment() {
         return department;
     }
 
-    public void setDepartment(String department) {
-        this.department = department;
+    public synchronized void setDepartment(String department) {
+        fireBeforeChange(PersonField.DEPARTMENT);
+        this.department = StringPool.attribute(department);
+        fireAfterChange(PersonField.DEPARTMENT);
     }
 
     public double getSalary() {
         return salary;
     }
 
-    public void setSalary(double salary) {
+    public synchronized void setSalary(double salary) {
+        fireBeforeChange(PersonField.SALARY);
         this.salary = salary;
+        fireAfterChange(PersonField.SALARY);
+    }
+
+    @Override
+    public String getPayrollGroup() {
+        return department;
     }
 
     @Override
@@ -0,0 +1,56 @@
+import java.util.Objects;
+
+public class StaffSnapshot extends PersonSnapshot {
+
+    private final String department;
+    private final double salary;
+
+    public StaffSnapshot(String name, int age, String id, String department, double salary) {
+        this(name, age, id, department, salary, 0);
+    }
+
+    protected StaffSnapshot(String name, int age, String id, String department, double salary,
+                            int subclassHash) {
+        super(name, age, id, 31 * hash(department, salary) + subclassHash);
+        this.department = department;
+        this.salary = salary;
+    }
+
+    public static StaffSnapshot of(Staff staff) {
+        return new StaffSnapshot(staff.getName(), staff.getAge(), staff.getId(),
+                staff.getDepartment(), staff.getSalary());
+    }
+
+    @Override
+    public Staff toPerson() {
+        return new Staff(getName(), getAge(), getId(), department, salary);
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public double getSalary() {
+        return salary;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", department='").append(department).append('\'')
+                .append(", salary=").append(salary);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        StaffSnapshot that = (StaffSnapshot) obj;
+        return Objects.equals(department, that.department) &&
+                Double.compare(salary, that.salary) == 0;
+    }
+
+    private static int hash(String department, double salary) {
+        return 31 * Objects.hashCode(department) + Double.hashCode(salary);
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded canonicalizing pool for low-cardinality attributes such as
+ * majors, departments, subjects, ranks, roles and certifications.
+ *
+ * Equal values share one String instance, so a million records hold a
+ * handful of strings instead of a million copies, and Objects.equals on
+ * these fields usually returns on its reference check. Once the pool is
+ * full, new values are returned as they are, so a file full of free-text
+ * values cannot grow it without limit.
+ *
+ * The shared pool holds school.stringPool.capacity values (default 4096);
+ * a capacity of 0 turns pooling off.
+ */
+public final class StringPool {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final StringPool ATTRIBUTES =
+            new StringPool(Integer.getInteger("school.stringPool.capacity", DEFAULT_CAPACITY));
+
+    private final ConcurrentHashMap<String, String> values;
+    private final int capacity;
+
+    public StringPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.values = new ConcurrentHashMap<>(Math.min(capacity, 64));
+    }
+
+    /** The pool shared by the Person hierarchy's constructors and setters. */
+    public static StringPool attributes() {
+        return ATTRIBUTES;
+    }
+
+    /** Canonical instance from the shared pool. */
+    public static String attribute(String value) {
+        return ATTRIBUTES.canonical(value);
+    }
+
+    /** Copy of the array with every entry taken from the shared pool; null stays null. */
+    public static String[] attributes(String[] values) {
+        return ATTRIBUTES.canonical(values);
+    }
+
+    /** The pooled instance equal to value, or value itself when the pool is full. */
+    public String canonical(String value) {
+        if (value == null || capacity == 0) {
+            return value;
+        }
+        String pooled = values.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (values.size() >= capacity) {
+            return value;
+        }
+        pooled = values.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    public String[] canonical(String[] array) {
+        if (array == null) {
+            return null;
+        }
+        String[] copy = new String[array.length];
+        for (int i = 0; i < array.length; i++) {
+            copy[i] = canonical(array[i]);
+        }
+        return copy;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
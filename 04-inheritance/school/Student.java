@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class Student extends Person {
@@ -7,7 +8,7 @@ public class Student extends Person {
 
     public Student(String name, int age, String id, String major, double gpa) {
         super(name, age, id);
-        this.major = major;
+        this.major = StringPool.attribute(major);
         this.gpa = gpa;
     }
 
@@ -26,20 +27,48 @@ public class Student extends Person {
         System.out.println("Hi, I'm " + name + ", a student majoring in " + major);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        RenderSupport.line(out, "=== Student Info ===");
+        RenderSupport.line(out, "Name: ", name);
+        RenderSupport.line(out, "Age: ", age);
+        RenderSupport.line(out, "ID: ", id);
+        RenderSupport.line(out, "Major: ", major);
+        RenderSupport.line(out, "GPA: ", gpa);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", a student majoring in ").append(major)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", major=", major);
+        out.append(", gpa=");
+        RenderSupport.append(out, gpa);
+    }
+
     public String getMajor() {
         return major;
     }
 
-    public void setMajor(String major) {
-        this.major = major;
+    public synchronized void setMajor(String major) {
+        fireBeforeChange(PersonField.MAJOR);
+        this.major = StringPool.attribute(major);
+        fireAfterChange(PersonField.MAJOR);
     }
 
     public double getGpa() {
         return gpa;
     }
 
-    public void setGpa(double gpa) {
+    public synchronized void setGpa(double gpa) {
+        fireBeforeChange(PersonField.GPA);
         this.gpa = gpa;
+        fireAfterChange(PersonField.GPA);
     }
 
     @Override
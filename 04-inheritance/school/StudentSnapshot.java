@@ -0,0 +1,56 @@
+import java.util.Objects;
+
+public class StudentSnapshot extends PersonSnapshot {
+
+    private final String major;
+    private final double gpa;
+
+    public StudentSnapshot(String name, int age, String id, String major, double gpa) {
+        this(name, age, id, major, gpa, 0);
+    }
+
+    protected StudentSnapshot(String name, int age, String id, String major, double gpa,
+                              int subclassHash) {
+        super(name, age, id, 31 * hash(major, gpa) + subclassHash);
+        this.major = major;
+        this.gpa = gpa;
+    }
+
+    public static StudentSnapshot of(Student student) {
+        return new StudentSnapshot(student.getName(), student.getAge(), student.getId(),
+                student.getMajor(), student.getGpa());
+    }
+
+    @Override
+    public Student toPerson() {
+        return new Student(getName(), getAge(), getId(), major, gpa);
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public double getGpa() {
+        return gpa;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", major='").append(major).append('\'')
+                .append(", gpa=").append(gpa);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        StudentSnapshot that = (StudentSnapshot) obj;
+        return Objects.equals(major, that.major) &&
+                Double.compare(gpa, that.gpa) == 0;
+    }
+
+    private static int hash(String major, double gpa) {
+        return 31 * Objects.hashCode(major) + Double.hashCode(gpa);
+    }
+}
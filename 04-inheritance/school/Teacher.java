@@ -1,13 +1,14 @@
+import java.io.IOException;
 import java.util.Objects;
 
-public class Teacher extends Person {
+public class Teacher extends Person implements Payable {
 
     protected String subject;
     protected double salary;
 
     public Teacher(String name, int age, String id, String subject, double salary) {
         super(name, age, id);
-        this.subject = subject;
+        this.subject = StringPool.attribute(subject);
         this.salary = salary;
     }
 
@@ -26,20 +27,53 @@ public class Teacher extends Person {
         System.out.println("Hello, I'm " + name + ", I teach " + subject);
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        RenderSupport.line(out, "=== Teacher Info ===");
+        RenderSupport.line(out, "Name: ", name);
+        RenderSupport.line(out, "Age: ", age);
+        RenderSupport.line(out, "ID: ", id);
+        RenderSupport.line(out, "Subject: ", subject);
+        RenderSupport.line(out, "Salary: $", salary);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hello, I'm ").append(name).append(", I teach ").append(subject)
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", subject=", subject);
+        out.append(", salary=");
+        RenderSupport.append(out, salary);
+    }
+
     public String getSubject() {
         return subject;
     }
 
-    public void setSubject(String subject) {
-        this.subject = subject;
+    public synchronized void setSubject(String subject) {
+        fireBeforeChange(PersonField.SUBJECT);
+        this.subject = StringPool.attribute(subject);
+        fireAfterChange(PersonField.SUBJECT);
     }
 
     public double getSalary() {
         return salary;
     }
 
-    public void setSalary(double salary) {
+    public synchronized void setSalary(double salary) {
+        fireBeforeChange(PersonField.SALARY);
         this.salary = salary;
+        fireAfterChange(PersonField.SALARY);
+    }
+
+    @Override
+    public String getPayrollGroup() {
+        return subject;
     }
 
     @Override
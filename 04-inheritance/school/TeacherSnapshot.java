@@ -0,0 +1,56 @@
+import java.util.Objects;
+
+public class TeacherSnapshot extends PersonSnapshot {
+
+    private final String subject;
+    private final double salary;
+
+    public TeacherSnapshot(String name, int age, String id, String subject, double salary) {
+        this(name, age, id, subject, salary, 0);
+    }
+
+    protected TeacherSnapshot(String name, int age, String id, String subject, double salary,
+                              int subclassHash) {
+        super(name, age, id, 31 * hash(subject, salary) + subclassHash);
+        this.subject = subject;
+        this.salary = salary;
+    }
+
+    public static TeacherSnapshot of(Teacher teacher) {
+        return new TeacherSnapshot(teacher.getName(), teacher.getAge(), teacher.getId(),
+                teacher.getSubject(), teacher.getSalary());
+    }
+
+    @Override
+    public Teacher toPerson() {
+        return new Teacher(getName(), getAge(), getId(), subject, salary);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public double getSalary() {
+        return salary;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", subject='").append(subject).append('\'')
+                .append(", salary=").append(salary);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        TeacherSnapshot that = (TeacherSnapshot) obj;
+        return Objects.equals(subject, that.subject) &&
+                Double.compare(salary, that.salary) == 0;
+    }
+
+    private static int hash(String subject, double salary) {
+        return 31 * Objects.hashCode(subject) + Double.hashCode(salary);
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -9,8 +10,8 @@ public class TechnicalStaff extends Staff {
     public TechnicalStaff(String name, int age, String id, String department, double salary,
                           String specialization, String[] certifications) {
         super(name, age, id, department, salary);
-        this.specialization = specialization;
-        this.certifications = certifications;
+        this.specialization = StringPool.attribute(specialization);
+        this.certifications = StringPool.attributes(certifications);
     }
 
     @Override
@@ -25,20 +26,63 @@ public class TechnicalStaff extends Staff {
         System.out.println("Hi, I'm " + name + ", a " + specialization + " specialist");
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Specialization: ", specialization);
+        out.append("Certifications: ");
+        for (int i = 0; i < certifications.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(certifications[i]);
+        }
+        out.append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", a ").append(specialization).append(" specialist")
+                .append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        RenderSupport.quoted(out, ", specialization=", specialization);
+        out.append(", certifications=");
+        if (certifications == null) {
+            out.append("null");
+            return;
+        }
+        out.append('[');
+        for (int i = 0; i < certifications.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(certifications[i]);
+        }
+        out.append(']');
+    }
+
     public String getSpecialization() {
         return specialization;
     }
 
-    public void setSpecialization(String specialization) {
-        this.specialization = specialization;
+    public synchronized void setSpecialization(String specialization) {
+        fireBeforeChange(PersonField.SPECIALIZATION);
+        this.specialization = StringPool.attribute(specialization);
+        fireAfterChange(PersonField.SPECIALIZATION);
     }
 
     public String[] getCertifications() {
         return certifications;
     }
 
-    public void setCertifications(String[] certifications) {
-        this.certifications = certifications;
+    public synchronized void setCertifications(String[] certifications) {
+        fireBeforeChange(PersonField.CERTIFICATIONS);
+        this.certifications = StringPool.attributes(certifications);
+        fireAfterChange(PersonField.CERTIFICATIONS);
     }
 
     @Override
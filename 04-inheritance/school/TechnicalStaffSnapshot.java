@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class TechnicalStaffSnapshot extends StaffSnapshot {
+
+    private final String specialization;
+    private final String[] certifications;
+
+    public TechnicalStaffSnapshot(String name, int age, String id, String department, double salary,
+                                  String specialization, String[] certifications) {
+        super(name, age, id, department, salary, hash(specialization, certifications));
+        this.specialization = specialization;
+        this.certifications = certifications == null ? null : certifications.clone();
+    }
+
+    public static TechnicalStaffSnapshot of(TechnicalStaff tech) {
+        return new TechnicalStaffSnapshot(tech.getName(), tech.getAge(), tech.getId(),
+                tech.getDepartment(), tech.getSalary(), tech.getSpecialization(),
+                tech.getCertifications());
+    }
+
+    @Override
+    public TechnicalStaff toPerson() {
+        return new TechnicalStaff(getName(), getAge(), getId(),
+                getDepartment(), getSalary(), specialization, getCertifications());
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public String[] getCertifications() {
+        return certifications == null ? null : certifications.clone();
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", specialization='").append(specialization).append('\'')
+                .append(", certifications=").append(Arrays.toString(certifications));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        TechnicalStaffSnapshot that = (TechnicalStaffSnapshot) obj;
+        return Objects.equals(specialization, that.specialization) &&
+                Arrays.equals(certifications, that.certifications);
+    }
+
+    private static int hash(String specialization, String[] certifications) {
+        return 31 * Objects.hashCode(specialization) + Arrays.hashCode(certifications);
+    }
+}
@@ -0,0 +1,403 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every course a time slot and a room so that no teacher, room
+ * or student cohort is in two places at once.
+ *
+ * Busy times are bitsets over the slots (one bit per slot) for every
+ * teacher and cohort, and free rooms are a bitset over the rooms for
+ * every slot. Placing a course ORs the busy sets of its teacher and
+ * cohorts into one blocked mask, then intersects the free rooms of each
+ * open slot with the rooms large enough for the course; rooms are kept
+ * in ascending capacity, so the lowest common bit is the best fit.
+ *
+ * The search is a most-constrained-first greedy run repeated with
+ * randomized tie-breaking and slot rotation. Attempts run in parallel on
+ * a ForkJoinPool; the result is the complete (or otherwise fewest
+ * unscheduled) attempt with the lowest attempt number, so it does not
+ * depend on the number of threads.
+ */
+public class TimetableSolver {
+
+    public static final int DEFAULT_ATTEMPTS = 32;
+
+    private final int slots;
+    private final List<Room> rooms;
+    private final List<Course> courses = new ArrayList<>();
+    private final List<String[]> cohorts = new ArrayList<>();
+    private final int attempts;
+    private final ForkJoinPool pool;
+
+    public TimetableSolver(int slots, List<Room> rooms) {
+        this(slots, rooms, DEFAULT_ATTEMPTS, ForkJoinPool.commonPool());
+    }
+
+    public TimetableSolver(int slots, List<Room> rooms, int attempts, ForkJoinPool pool) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Invalid slot count: " + slots);
+        }
+        if (attempts <= 0) {
+            throw new IllegalArgumentException("Invalid attempt count: " + attempts);
+        }
+        this.slots = slots;
+        this.rooms = new ArrayList<>(rooms);
+        this.rooms.sort(Comparator.comparingInt(Room::getCapacity));
+        this.attempts = attempts;
+        this.pool = pool;
+    }
+
+    /** Adds a course; students of the given cohorts take it, so they must not clash. */
+    public void addCourse(Course course, String... cohorts) {
+        courses.add(course);
+        this.cohorts.add(cohorts.clone());
+    }
+
+    public Timetable solve() {
+        Problem problem = new Problem();
+        AtomicInteger firstComplete = new AtomicInteger(Integer.MAX_VALUE);
+        List<Callable<Attempt>> tasks = new ArrayList<>(attempts);
+        for (int i = 0; i < attempts; i++) {
+            int index = i;
+            tasks.add(() -> problem.attempt(index, firstComplete));
+        }
+
+        Attempt best = null;
+        for (Future<Attempt> future : pool.invokeAll(tasks)) {
+            Attempt attempt;
+            try {
+                attempt = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scheduling", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Scheduling attempt failed", e.getCause());
+            }
+            if (attempt != null && (best == null || attempt.unscheduled < best.unscheduled)) {
+                best = attempt;
+            }
+        }
+        return new Timetable(problem, best);
+    }
+
+    // ==================== Search ====================
+
+    /** Courses, teachers and cohorts mapped to dense indexes. */
+    private final class Problem {
+        final int slotWords = words(slots);
+        final int roomWords = words(rooms.size());
+        final long[] allSlots = new long[slotWords];
+        final int courseCount = courses.size();
+        final int[] teacherOf = new int[courseCount];
+        final int[][] cohortsOf = new int[courseCount][];
+        final long[][] fits = new long[courseCount][];
+        final int[] degree = new int[courseCount];
+        final List<String> teacherIds = new ArrayList<>();
+        final List<String> cohortNames = new ArrayList<>();
+
+        Problem() {
+            for (int s = 0; s < slots; s++) {
+                allSlots[s >>> 6] |= 1L << s;
+            }
+            Map<String, Integer> teachers = new HashMap<>();
+            Map<String, Integer> cohortIndexes = new HashMap<>();
+            for (int c = 0; c < courseCount; c++) {
+                Teacher teacher = courses.get(c).getTeacher();
+                teacherOf[c] = teacher == null ? -1 : teachers.computeIfAbsent(teacher.getId(), id -> {
+                    teacherIds.add(id);
+                    return teacherIds.size() - 1;
+                });
+                String[] names = cohorts.get(c);
+                cohortsOf[c] = new int[names.length];
+                for (int k = 0; k < names.length; k++) {
+                    cohortsOf[c][k] = cohortIndexes.computeIfAbsent(names[k], name -> {
+                        cohortNames.add(name);
+                        return cohortNames.size() - 1;
+                    });
+                }
+                fits[c] = new long[roomWords];
+                for (int r = 0; r < rooms.size(); r++) {
+                    if (rooms.get(r).getCapacity() >= courses.get(c).getCapacity()) {
+                        fits[c][r >>> 6] |= 1L << r;
+                    }
+                }
+            }
+
+            // courses sharing a busy teacher or cohort go first
+            int[] teacherLoad = new int[teacherIds.size()];
+            int[] cohortLoad = new int[cohortNames.size()];
+            for (int c = 0; c < courseCount; c++) {
+                if (teacherOf[c] >= 0) {
+                    teacherLoad[teacherOf[c]]++;
+                }
+                for (int k : cohortsOf[c]) {
+                    cohortLoad[k]++;
+                }
+            }
+            for (int c = 0; c < courseCount; c++) {
+                int load = teacherOf[c] >= 0 ? teacherLoad[teacherOf[c]] : 0;
+                for (int k : cohortsOf[c]) {
+                    load += cohortLoad[k];
+                }
+                // fewer fitting rooms also means harder to place
+                degree[c] = load * 64 + (rooms.size() - bitCount(fits[c])) * 64 / Math.max(1, rooms.size());
+            }
+        }
+
+        /** One greedy pass; returns null if a lower-numbered attempt already placed every course. */
+        Attempt attempt(int index, AtomicInteger firstComplete) {
+            Random random = new Random(index * 0x9E3779B97F4A7C15L);
+            Integer[] order = new Integer[courseCount];
+            long[] priority = new long[courseCount];
+            for (int c = 0; c < courseCount; c++) {
+                order[c] = c;
+                // attempt 0 is the plain most-constrained-first order
+                long noise = index == 0 ? 0 : random.nextInt(degree[c] / 4 + 64);
+                priority[c] = degree[c] + noise;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(priority[b], priority[a]));
+
+            long[][] teacherBusy = new long[teacherIds.size()][slotWords];
+            long[][] cohortBusy = new long[cohortNames.size()][slotWords];
+            long[][] freeRooms = new long[slots][];
+            long[] allRooms = new long[roomWords];
+            for (int r = 0; r < rooms.size(); r++) {
+                allRooms[r >>> 6] |= 1L << r;
+            }
+            for (int s = 0; s < slots; s++) {
+                freeRooms[s] = allRooms.clone();
+            }
+
+            int[] slotOf = new int[courseCount];
+            int[] roomOf = new int[courseCount];
+            Arrays.fill(slotOf, -1);
+            Arrays.fill(roomOf, -1);
+            long[] blocked = new long[slotWords];
+            int unscheduled = 0;
+
+            for (int step = 0; step < courseCount; step++) {
+                if ((step & 255) == 0 && firstComplete.get() < index) {
+                    return null;
+                }
+                int c = order[step];
+                int teacher = teacherOf[c];
+                for (int w = 0; w < slotWords; w++) {
+                    long busy = teacher >= 0 ? teacherBusy[teacher][w] : 0;
+                    for (int k : cohortsOf[c]) {
+                        busy |= cohortBusy[k][w];
+                    }
+                    blocked[w] = busy | ~allSlots[w];
+                }
+
+                int start = index == 0 ? 0 : random.nextInt(slots);
+                int slot = -1;
+                int room = -1;
+                for (int i = 0; i < slots && room < 0; i++) {
+                    int s = start + i < slots ? start + i : start + i - slots;
+                    if ((blocked[s >>> 6] & (1L << s)) == 0) {
+                        room = firstCommon(freeRooms[s], fits[c]);
+                        slot = s;
+                    }
+                }
+                if (room < 0) {
+                    unscheduled++;
+                    continue;
+                }
+
+                slotOf[c] = slot;
+                roomOf[c] = room;
+                long bit = 1L << slot;
+                freeRooms[slot][room >>> 6] &= ~(1L << room);
+                if (teacher >= 0) {
+                    teacherBusy[teacher][slot >>> 6] |= bit;
+                }
+                for (int k : cohortsOf[c]) {
+                    cohortBusy[k][slot >>> 6] |= bit;
+                }
+            }
+            if (unscheduled == 0) {
+                firstComplete.accumulateAndGet(index, Math::min);
+            }
+            return new Attempt(index, slotOf, roomOf, unscheduled);
+        }
+    }
+
+    private static final class Attempt {
+        final int index;
+        final int[] slotOf;
+        final int[] roomOf;
+        final int unscheduled;
+
+        Attempt(int index, int[] slotOf, int[] roomOf, int unscheduled) {
+            this.index = index;
+            this.slotOf = slotOf;
+            this.roomOf = roomOf;
+            this.unscheduled = unscheduled;
+        }
+    }
+
+    // ==================== Bitsets ====================
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    private static int firstCommon(long[] left, long[] right) {
+        for (int w = 0; w < left.length; w++) {
+            long common = left[w] & right[w];
+            if (common != 0) {
+                return w * 64 + Long.numberOfTrailingZeros(common);
+            }
+        }
+        return -1;
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // ==================== Result ====================
+
+    public class Timetable {
+
+        private final Problem problem;
+        private final int attempt;
+        private final int[] slotOf;
+        private final int[] roomOf;
+        private final int unscheduled;
+        private final Map<Course, Integer> indexes = new HashMap<>();
+
+        private Timetable(Problem problem, Attempt best) {
+            this.problem = problem;
+            this.attempt = best.index;
+            this.slotOf = best.slotOf;
+            this.roomOf = best.roomOf;
+            this.unscheduled = best.unscheduled;
+            for (int c = 0; c < problem.courseCount; c++) {
+                indexes.put(courses.get(c), c);
+            }
+        }
+
+        public boolean isComplete() {
+            return unscheduled == 0;
+        }
+
+        public int getUnscheduledCount() {
+            return unscheduled;
+        }
+
+        /** Number of the search attempt that produced this timetable. */
+        public int getAttempt() {
+            return attempt;
+        }
+
+        /** Slot index, or -1 when the course could not be placed. */
+        public int getSlot(Course course) {
+            return slotOf[indexOf(course)];
+        }
+
+        public Room getRoom(Course course) {
+            int room = roomOf[indexOf(course)];
+            return room < 0 ? null : rooms.get(room);
+        }
+
+        public List<Course> getUnscheduled() {
+            List<Course> result = new ArrayList<>();
+            for (int c = 0; c < problem.courseCount; c++) {
+                if (slotOf[c] < 0) {
+                    result.add(courses.get(c));
+                }
+            }
+            return result;
+        }
+
+        public List<Course> getCoursesInSlot(int slot) {
+            List<Course> result = new ArrayList<>();
+            for (int c = 0; c < problem.courseCount; c++) {
+                if (slotOf[c] == slot) {
+                    result.add(courses.get(c));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Re-checks the timetable from scratch and describes every teacher,
+         * room, cohort or capacity clash. Empty for a valid timetable.
+         */
+        public List<String> findConflicts() {
+            long[][] teacherBusy = new long[problem.teacherIds.size()][problem.slotWords];
+            long[][] cohortBusy = new long[problem.cohortNames.size()][problem.slotWords];
+            long[][] roomBusy = new long[rooms.size()][problem.slotWords];
+            List<String> conflicts = new ArrayList<>();
+            for (int c = 0; c < problem.courseCount; c++) {
+                int slot = slotOf[c];
+                if (slot < 0) {
+                    continue;
+                }
+                String code = courses.get(c).getCode();
+                int word = slot >>> 6;
+                long bit = 1L << slot;
+                int teacher = problem.teacherOf[c];
+                if (teacher >= 0) {
+                    if ((teacherBusy[teacher][word] & bit) != 0) {
+                        conflicts.add("Teacher " + problem.teacherIds.get(teacher) + " double-booked in slot " + slot
+                                + " (" + code + ")");
+                    }
+                    teacherBusy[teacher][word] |= bit;
+                }
+                int room = roomOf[c];
+                if ((roomBusy[room][word] & bit) != 0) {
+                    conflicts.add("Room " + rooms.get(room).getName() + " double-booked in slot " + slot
+                            + " (" + code + ")");
+                }
+                roomBusy[room][word] |= bit;
+                if (rooms.get(room).getCapacity() < courses.get(c).getCapacity()) {
+                    conflicts.add("Room " + rooms.get(room).getName() + " too small for " + code);
+                }
+                for (int k : problem.cohortsOf[c]) {
+                    if ((cohortBusy[k][word] & bit) != 0) {
+                        conflicts.add("Cohort " + problem.cohortNames.get(k) + " double-booked in slot " + slot
+                                + " (" + code + ")");
+                    }
+                    cohortBusy[k][word] |= bit;
+                }
+            }
+            return Collections.unmodifiableList(conflicts);
+        }
+
+        private int indexOf(Course course) {
+            Integer index = indexes.get(course);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown course: " + course.getCode());
+            }
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "Timetable{" +
+                    "courses=" + problem.courseCount +
+                    ", slots=" + slots +
+                    ", rooms=" + rooms.size() +
+                    ", unscheduled=" + unscheduled +
+                    ", attempt=" + attempt +
+                    '}';
+        }
+    }
+}
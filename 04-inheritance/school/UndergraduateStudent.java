@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 public class UndergraduateStudent extends Student {
@@ -21,12 +22,35 @@ public class UndergraduateStudent extends Student {
         System.out.println("Hi, I'm " + name + ", a year " + year + " undergraduate student");
     }
 
+    @Override
+    public void appendInfo(Appendable out) throws IOException {
+        super.appendInfo(out);
+        RenderSupport.line(out, "Year: ", year);
+        RenderSupport.line(out, "Level: Undergraduate");
+    }
+
+    @Override
+    public void appendIntroduction(Appendable out) throws IOException {
+        out.append("Hi, I'm ").append(name).append(", a year ");
+        RenderSupport.append(out, year);
+        out.append(" undergraduate student").append(RenderSupport.NEWLINE);
+    }
+
+    @Override
+    protected void appendFields(Appendable out) throws IOException {
+        super.appendFields(out);
+        out.append(", year=");
+        RenderSupport.append(out, year);
+    }
+
     public int getYear() {
         return year;
     }
 
-    public void setYear(int year) {
+    public synchronized void setYear(int year) {
+        fireBeforeChange(PersonField.YEAR);
         this.year = year;
+        fireAfterChange(PersonField.YEAR);
     }
 
     @Override
@@ -0,0 +1,42 @@
+public final class UndergraduateStudentSnapshot extends StudentSnapshot {
+
+    private final int year;
+
+    public UndergraduateStudentSnapshot(String name, int age, String id, String major, double gpa,
+                                        int year) {
+        super(name, age, id, major, gpa, hash(year));
+        this.year = year;
+    }
+
+    public static UndergraduateStudentSnapshot of(UndergraduateStudent undergrad) {
+        return new UndergraduateStudentSnapshot(undergrad.getName(), undergrad.getAge(), undergrad.getId(),
+                undergrad.getMajor(), undergrad.getGpa(), undergrad.getYear());
+    }
+
+    @Override
+    public UndergraduateStudent toPerson() {
+        return new UndergraduateStudent(getName(), getAge(), getId(), getMajor(), getGpa(), year);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    protected void appendFields(StringBuilder out) {
+        super.appendFields(out);
+        out.append(", year=").append(year);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        UndergraduateStudentSnapshot that = (UndergraduateStudentSnapshot) obj;
+        return year == that.year;
+    }
+
+    private static int hash(int year) {
+        return year;
+    }
+}